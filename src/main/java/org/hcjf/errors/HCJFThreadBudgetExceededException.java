@@ -0,0 +1,17 @@
+package org.hcjf.errors;
+
+public class HCJFThreadBudgetExceededException extends TaggedException {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String TAG = "THREAD_BUDGET_EXCEEDED";
+
+    public HCJFThreadBudgetExceededException(String message, Object... params) {
+        this(message, null, params);
+    }
+
+    public HCJFThreadBudgetExceededException(String message, Throwable cause, Object... params) {
+        super(TAG, message, cause, params);
+    }
+
+}
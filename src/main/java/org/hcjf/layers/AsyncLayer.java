@@ -0,0 +1,128 @@
+package org.hcjf.layers;
+
+import org.hcjf.service.Service;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * This class is a gateway to invoke some layer implementation asynchronously. Each invocation is executed over a
+ * virtual thread with the session and the layer stack of the caller, and returns a completable future.
+ * @param <L> Layer interface type.
+ * @author javaito
+ */
+public final class AsyncLayer<L extends LayerInterface> {
+
+    private final Supplier<L> layerSupplier;
+
+    AsyncLayer(Supplier<L> layerSupplier) {
+        this.layerSupplier = layerSupplier;
+    }
+
+    /**
+     * Invokes the function over the layer implementation.
+     * @param function Function that invokes some method of the layer.
+     * @param <R> Expected result type.
+     * @return Completable future of the result.
+     */
+    public <R> CompletableFuture<R> call(Function<L, R> function) {
+        return call(function, 0);
+    }
+
+    /**
+     * Invokes the function over the layer implementation, if the timeout is reached then the execution is
+     * interrupted and the future ends with a timeout exception.
+     * @param function Function that invokes some method of the layer.
+     * @param timeout Max time for the execution in milliseconds, 0 to disable the timeout.
+     * @param <R> Expected result type.
+     * @return Completable future of the result.
+     */
+    public <R> CompletableFuture<R> call(Function<L, R> function, long timeout) {
+        return Service.async(() -> {
+            try {
+                return function.apply(layerSupplier.get());
+            } catch (UndeclaredThrowableException ex) {
+                throw unwrap(ex);
+            }
+        }, timeout);
+    }
+
+    /**
+     * Invokes the consumer over the layer implementation.
+     * @param consumer Consumer that invokes some method of the layer.
+     * @return Completable future that ends when the consumer ends.
+     */
+    public CompletableFuture<Void> run(Consumer<L> consumer) {
+        return run(consumer, 0);
+    }
+
+    /**
+     * Invokes the consumer over the layer implementation, if the timeout is reached then the execution is
+     * interrupted and the future ends with a timeout exception.
+     * @param consumer Consumer that invokes some method of the layer.
+     * @param timeout Max time for the execution in milliseconds, 0 to disable the timeout.
+     * @return Completable future that ends when the consumer ends.
+     */
+    public CompletableFuture<Void> run(Consumer<L> consumer, long timeout) {
+        return call(L -> {
+            consumer.accept(L);
+            return null;
+        }, timeout);
+    }
+
+    /**
+     * Invokes the function over all the layers in parallel and gathers the results. If some invocation fails then
+     * the returned future fails and all the pending invocations are cancelled.
+     * @param layers Collection of async layers.
+     * @param function Function that invokes some method of the layer.
+     * @param timeout Max time for each execution in milliseconds, 0 to disable the timeout.
+     * @param <L> Layer interface type.
+     * @param <R> Expected result type.
+     * @return Completable future with the list of results, the results are in the same order than the layers.
+     */
+    public static <L extends LayerInterface, R> CompletableFuture<List<R>> gather(
+            Collection<AsyncLayer<L>> layers, Function<L, R> function, long timeout) {
+        List<CompletableFuture<R>> futures = new ArrayList<>();
+        for (AsyncLayer<L> layer : layers) {
+            futures.add(layer.call(function, timeout));
+        }
+        CompletableFuture<List<R>> result = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).
+                thenApply(V -> {
+                    List<R> results = new ArrayList<>();
+                    futures.forEach(F -> results.add(F.join()));
+                    return results;
+                });
+        futures.forEach(F -> F.whenComplete((O, T) -> {
+            if(T != null) {
+                result.completeExceptionally(T);
+            }
+        }));
+        result.whenComplete((O, T) -> {
+            if(T != null) {
+                futures.forEach(F -> F.cancel(true));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The layer proxy wraps the throwable of the implementation into an undeclared throwable exception and
+     * an invocation target exception, this method returns the original throwable.
+     * @param ex Undeclared throwable exception.
+     * @return Original exception.
+     */
+    private static Exception unwrap(UndeclaredThrowableException ex) {
+        Throwable result = ex.getUndeclaredThrowable();
+        if(result instanceof InvocationTargetException) {
+            result = ((InvocationTargetException) result).getTargetException();
+        }
+        return result instanceof Exception ? (Exception) result : ex;
+    }
+}
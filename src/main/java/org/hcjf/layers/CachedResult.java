@@ -0,0 +1,36 @@
+package org.hcjf.layers;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation indicates that the results of the layer method can be cached, then the method must be a
+ * pure function of its arguments (and the session if the cache is scoped by session).
+ * The cache key is derived from the method and the arguments of the invocation.
+ * @author javaito
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedResult {
+
+    /**
+     * Time to live of each result into the cache, expressed in milliseconds.
+     * @return Time to live.
+     */
+    long timeToLive() default 60000;
+
+    /**
+     * Max number of results stored into the cache for the method.
+     * @return Max size of the cache.
+     */
+    int size() default 1000;
+
+    /**
+     * If this value is true then the results are cached for each session identity.
+     * @return Session scoped flag.
+     */
+    boolean sessionScoped() default false;
+
+}
@@ -0,0 +1,142 @@
+package org.hcjf.layers;
+
+import org.hcjf.errors.HCJFRuntimeException;
+import org.hcjf.service.security.Permission;
+import org.hcjf.service.security.SecurityPermissions;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * This class contains all the information needed to invoke a layer method that doesn't change between
+ * invocations: the implementation method, the permissions, the adaptation flag, the result cache and if the layer
+ * has an interceptor.
+ * The plans are created once for each target class and method, and then they are reused for all the invocations.
+ * @author javaito
+ */
+final class InvocationPlan {
+
+    private static final Permission[] NO_PERMISSIONS = new Permission[0];
+    private static final String GET_PROXY_METHOD_NAME = "getProxy";
+
+    private final Class<? extends Layer> layerClass;
+    private final Class<?> targetClass;
+    private final Method method;
+    private final Method implementationMethod;
+    private final Permission[] permissions;
+    private final SecurityPermissions.SecurityPermission[] securityPermissions;
+    private final boolean adaptable;
+    private final boolean intercepted;
+    private final LayerResultCache resultCache;
+
+    InvocationPlan(Class<? extends Layer> layerClass, Class<?> targetClass, Method method) {
+        this.layerClass = layerClass;
+        this.targetClass = targetClass;
+        this.method = method;
+        try {
+            this.implementationMethod = targetClass.getMethod(method.getName(), method.getParameterTypes());
+            this.intercepted = !layerClass.getMethod(GET_PROXY_METHOD_NAME).getDeclaringClass().equals(Layer.class);
+        } catch (NoSuchMethodException ex) {
+            throw new HCJFRuntimeException("Unable to create the invocation plan: %s.%s", ex, targetClass.getName(), method.getName());
+        }
+
+        //The methods of the layer interface are not verified.
+        if(method.getDeclaringClass().equals(LayerInterface.class)) {
+            this.permissions = NO_PERMISSIONS;
+        } else {
+            this.permissions = implementationMethod.getDeclaredAnnotationsByType(Permission.class);
+        }
+        this.securityPermissions = new SecurityPermissions.SecurityPermission[permissions.length];
+        for (int i = 0; i < permissions.length; i++) {
+            securityPermissions[i] = SecurityPermissions.getPermission(targetClass, permissions[i].value());
+        }
+        this.adaptable = AdaptableLayer.class.isAssignableFrom(layerClass);
+        this.resultCache = LayerResultCache.getCache(targetClass, implementationMethod);
+    }
+
+    /**
+     * Returns the class of the layer that invokes the target.
+     * @return Layer class.
+     */
+    Class<? extends Layer> getLayerClass() {
+        return layerClass;
+    }
+
+    /**
+     * Returns the class of the invocation target.
+     * @return Target class.
+     */
+    Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * Returns the implementation method.
+     * @return Implementation method.
+     */
+    Method getImplementationMethod() {
+        return implementationMethod;
+    }
+
+    /**
+     * Returns the permissions that the session needs to invoke the method.
+     * @return Array of permissions, could be empty.
+     */
+    Permission[] getPermissions() {
+        return permissions;
+    }
+
+    /**
+     * Checks the permissions of the method for the current identity using the permission instances resolved
+     * when the plan was created, the permissions that were not published yet are resolved again in each check.
+     * @throws SecurityException If the current identity doesn't contain some grant.
+     */
+    void checkPermissions() {
+        for (int i = 0; i < securityPermissions.length; i++) {
+            SecurityPermissions.SecurityPermission securityPermission = securityPermissions[i];
+            if(securityPermission == null) {
+                securityPermission = SecurityPermissions.getPermission(targetClass, permissions[i].value());
+                securityPermissions[i] = securityPermission;
+            }
+            SecurityPermissions.checkPermission(securityPermission);
+        }
+    }
+
+    /**
+     * Returns true if the layer is an instance of {@link AdaptableLayer}, the layer adapts the arguments even if
+     * the invocation target is a plugin.
+     * @return Adaptable flag.
+     */
+    boolean isAdaptable() {
+        return adaptable;
+    }
+
+    /**
+     * Returns true if the layer class overrides the method {@link Layer#getProxy()}, in the otherwise the
+     * invocation doesn't have any interceptor.
+     * @return Intercepted flag.
+     */
+    boolean isIntercepted() {
+        return intercepted;
+    }
+
+    /**
+     * Returns the result cache of the method if the implementation is annotated with {@link CachedResult}.
+     * @return Result cache or null.
+     */
+    LayerResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Invokes the method over the target using reflection.
+     * @param target Invocation target.
+     * @param args Invocation arguments.
+     * @return Invocation result.
+     * @throws InvocationTargetException Wrap the throwable generated by the implementation.
+     * @throws IllegalAccessException If the method is not accessible.
+     */
+    Object invoke(Object target, Object[] args) throws InvocationTargetException, IllegalAccessException {
+        return method.invoke(target, args);
+    }
+}
@@ -4,12 +4,11 @@ import org.hcjf.errors.HCJFSecurityException;
 import org.hcjf.layers.plugins.PluginLayer;
 import org.hcjf.service.ServiceSession;
 import org.hcjf.service.ServiceThread;
-import org.hcjf.service.security.Permission;
-import org.hcjf.service.security.SecurityPermissions;
-import org.hcjf.utils.SynchronizedCountOperation;
 
 import java.lang.reflect.Method;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * All the layer implementation extends this class, and this class is a proxy
@@ -18,11 +17,16 @@ import java.util.Set;
  */
 public abstract class Layer implements LayerInterface {
 
+    private static final ClassValue<Map<Method, InvocationPlan>> invocationPlans = new ClassValue<>() {
+        @Override
+        protected Map<Method, InvocationPlan> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private final String implName;
     private final boolean stateful;
-    private final SynchronizedCountOperation invocationMean;
-    private final SynchronizedCountOperation executionTimeMean;
-    private final SynchronizedCountOperation errorMean;
+    private LayerMetrics metrics;
 
     /**
      * This is the end point for all the layer constructor.
@@ -32,12 +36,6 @@ public abstract class Layer implements LayerInterface {
     public Layer(String implName, boolean stateful) {
         this.implName = implName;
         this.stateful = stateful;
-        this.invocationMean = new SynchronizedCountOperation(
-                SynchronizedCountOperation.getMeanOperation(), 1000L);
-        this.executionTimeMean = new SynchronizedCountOperation(
-                SynchronizedCountOperation.getMeanOperation(), 1000L);
-        this.errorMean = new SynchronizedCountOperation(
-                SynchronizedCountOperation.getMeanOperation(), 1000L);
     }
 
     public Layer(String implName) {
@@ -116,6 +114,43 @@ public abstract class Layer implements LayerInterface {
         return Layers.get(layerClass, implName);
     }
 
+    /**
+     * Returns the invocation metrics of the layer, all the instances of the same layer class and implementation
+     * name share the same metrics. All the plugin wrappers have the same class, then the metrics of the plugins
+     * are stored using the class and the implementation name of the plugin instance.
+     * @return Layer metrics.
+     */
+    public final LayerMetrics getMetrics() {
+        LayerMetrics result = metrics;
+        if(result == null) {
+            Object target = isPlugin() ? getTarget() : this;
+            if(target instanceof LayerInterface) {
+                result = Layers.getLayerMetrics(target.getClass().getName(), ((LayerInterface) target).getImplName());
+                metrics = result;
+            } else {
+                //The plugin is not deployed yet.
+                result = Layers.getLayerMetrics(getClass().getName(), getImplName());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all the cached results of the methods annotated with {@link CachedResult}, this method is useful
+     * to invalidate the cached results when the layer modifies the underlying data.
+     */
+    protected final void invalidateResultCache() {
+        LayerResultCache.invalidate(getTarget().getClass());
+    }
+
+    /**
+     * Removes the cached results of the methods with the name indicated.
+     * @param methodName Name of the method.
+     */
+    protected final void invalidateResultCache(String methodName) {
+        LayerResultCache.invalidate(getTarget().getClass(), methodName);
+    }
+
     /**
      * Return the layer proxy of the layer or null by default.
      * @return Layer proxy instance.
@@ -130,6 +165,24 @@ public abstract class Layer implements LayerInterface {
         };
     }
 
+    /**
+     * Returns the invocation plan for the method, the plans are created once for each target class and then reused.
+     * All the plugin wrappers have the same class, then the plans are stored by the class of the target in order
+     * to keep one plan for each plugin (the redeployed plugins have a new class and then new plans).
+     * @param target Invocation target.
+     * @param method Method to be called.
+     * @return Invocation plan instance.
+     */
+    private InvocationPlan getInvocationPlan(Object target, Method method) {
+        Map<Method, InvocationPlan> plans = invocationPlans.get(target.getClass());
+        InvocationPlan result = plans.get(method);
+        if(result == null || !result.getLayerClass().equals(getClass())) {
+            result = new InvocationPlan(getClass(), target.getClass(), method);
+            plans.put(method, result);
+        }
+        return result;
+    }
+
     /**
      * Verify if the current thread is working between the normal parameters.
      * @throws Throwable Any throwable throws for some check method.
@@ -150,11 +203,10 @@ public abstract class Layer implements LayerInterface {
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         Object result;
-        //Add one into the executions counter.
-        invocationMean.add(1);
+        boolean error = false;
 
         //Store the start time of the execution.
-        Long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
 
         try {
             analyzeThread();
@@ -178,26 +230,37 @@ public abstract class Layer implements LayerInterface {
             serviceThread.putLayer(new ServiceSession.LayerStackElement(
                     getClass().getName(), getImplName(), isPlugin(), isStateful()));
 
-            if (!method.getDeclaringClass().equals(LayerInterface.class)) {
-                Method implementationMethod = getTarget().getClass().getMethod(method.getName(), method.getParameterTypes());
-                for (Permission permission : implementationMethod.getDeclaredAnnotationsByType(Permission.class)) {
-                    SecurityPermissions.checkPermission(getTarget().getClass(), permission.value());
-                }
-            }
+            Object target = getTarget();
+            InvocationPlan invocationPlan = getInvocationPlan(target, method);
+            invocationPlan.checkPermissions();
 
             try {
-                Object[] newArgs = AdaptableLayer.class.isAssignableFrom(getClass()) ?
+                Object[] newArgs = invocationPlan.isAdaptable() ?
                         ((AdaptableLayer)this).adaptArguments(method, args) : args;
-                LayerProxy.ProxyInterceptor interceptor = getProxy().onBeforeInvoke(method, newArgs);
-                if (interceptor == null || !interceptor.isCached()) {
-                    result = method.invoke(getTarget(), newArgs);
+                LayerResultCache resultCache = invocationPlan.getResultCache();
+                LayerProxy.ProxyInterceptor cacheInterceptor = resultCache == null ? null :
+                        resultCache.onBeforeInvoke(method, newArgs);
+                if (cacheInterceptor != null && cacheInterceptor.isCached()) {
+                    //The cached results skip the layer proxy and they are not stored again.
+                    result = cacheInterceptor.getResult();
                 } else {
-                    result = interceptor.getResult();
+                    LayerProxy layerProxy = invocationPlan.isIntercepted() ? getProxy() : null;
+                    LayerProxy.ProxyInterceptor interceptor = layerProxy == null ? null :
+                            layerProxy.onBeforeInvoke(method, newArgs);
+                    if (interceptor == null || !interceptor.isCached()) {
+                        result = invocationPlan.invoke(target, newArgs);
+                    } else {
+                        result = interceptor.getResult();
+                    }
+                    if (layerProxy != null) {
+                        layerProxy.onAfterInvoke(method, result, newArgs);
+                    }
+                    if (resultCache != null) {
+                        resultCache.onAfterInvoke(method, result, newArgs);
+                    }
                 }
-                getProxy().onAfterInvoke(method, result, newArgs);
             } catch (Throwable throwable) {
-                //Add one to the error mean counter.
-                errorMean.add(1);
+                error = true;
                 throw throwable;
             } finally {
                 if (serviceThread != null) {
@@ -205,8 +268,8 @@ public abstract class Layer implements LayerInterface {
                 }
             }
         } finally {
-            //Add the invocation time int the layer counter.
-            executionTimeMean.add(System.currentTimeMillis() - startTime);
+            //Add the invocation into the layer metrics.
+            getMetrics().record(method, System.nanoTime() - startTime, error);
         }
         return result;
     }
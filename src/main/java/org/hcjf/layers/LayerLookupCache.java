@@ -0,0 +1,129 @@
+package org.hcjf.layers;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the names that are not resolved directly by the implementation names, aliases or defaults,
+ * that is to say the names resolved by regex, by distributed layers or the names that are not found.
+ * Each resolution table has its own cache, then the cache is discarded each time that some layer is published.
+ * The entries are stored with the generation of the cache read before the resolution, then the resolutions that
+ * started before some clear of the cache are never returned.
+ * @author javaito
+ */
+final class LayerLookupCache {
+
+    /**
+     * Resolver stored into the cache to represent the names without resolution.
+     */
+    static final LayerResolutionTable.Resolver NOT_FOUND = () -> null;
+
+    private final Map<Class<? extends LayerInterface>, Map<String, Entry>> entries;
+    private final AtomicInteger size;
+    private final AtomicLong generation;
+    private final int maxSize;
+    private final long timeToLive;
+
+    LayerLookupCache(int maxSize, long timeToLive) {
+        this.entries = new ConcurrentHashMap<>();
+        this.size = new AtomicInteger();
+        this.generation = new AtomicLong();
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Returns the current generation of the cache, this value must be read before resolve the name that is stored.
+     * @return Generation of the cache.
+     */
+    long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Returns the cached resolver for the layer interface and name.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @return Cached resolver, {@link #NOT_FOUND} for the cached misses or null if the name is not cached.
+     */
+    LayerResolutionTable.Resolver get(Class<? extends LayerInterface> layerClass, String implName) {
+        LayerResolutionTable.Resolver result = null;
+        Map<String, Entry> entriesByName = entries.get(layerClass);
+        if(entriesByName != null) {
+            Entry entry = entriesByName.get(implName);
+            if(entry != null) {
+                if(entry.generation != generation.get() ||
+                        (entry.expirationTime > 0 && entry.expirationTime < System.currentTimeMillis())) {
+                    if(entriesByName.remove(implName, entry)) {
+                        size.decrementAndGet();
+                    }
+                } else {
+                    result = entry.resolver;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores the resolver for the layer interface and name, if the cache is full then some other entry is removed.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @param resolver Resolver to store.
+     * @param expirable If this value is true then the entry expires after the cache time to live.
+     * @param generation Generation of the cache read before the resolution.
+     */
+    void put(Class<? extends LayerInterface> layerClass, String implName,
+             LayerResolutionTable.Resolver resolver, boolean expirable, long generation) {
+        if(maxSize > 0) {
+            if(size.get() >= maxSize) {
+                evict();
+            }
+            long expirationTime = expirable && timeToLive > 0 ? System.currentTimeMillis() + timeToLive : 0;
+            if(entries.computeIfAbsent(layerClass, K -> new ConcurrentHashMap<>()).
+                    put(implName, new Entry(resolver, expirationTime, generation)) == null) {
+                size.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes all the cached entries, the entries stored later by resolutions that started before are ignored.
+     */
+    void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+        size.set(0);
+    }
+
+    /**
+     * Removes one arbitrary entry of the cache.
+     */
+    private void evict() {
+        for(Map<String, Entry> entriesByName : entries.values()) {
+            Iterator<String> iterator = entriesByName.keySet().iterator();
+            if(iterator.hasNext()) {
+                if(entriesByName.remove(iterator.next()) != null) {
+                    size.decrementAndGet();
+                }
+                break;
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final LayerResolutionTable.Resolver resolver;
+        private final long expirationTime;
+        private final long generation;
+
+        private Entry(LayerResolutionTable.Resolver resolver, long expirationTime, long generation) {
+            this.resolver = resolver;
+            this.expirationTime = expirationTime;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.hcjf.layers;
+
+import org.hcjf.utils.LatencyHistogram;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * This class contains the invocation metrics of a layer implementation (the same metrics are shared by all the
+ * instances of the layer class with the same implementation name) and the metrics of each method.
+ * All the counters are lock-free and the execution time is measured in nanoseconds.
+ * @author javaito
+ */
+public final class LayerMetrics {
+
+    private final String layerClassName;
+    private final String implName;
+    private final InvocationMetrics invocationMetrics;
+    private final Map<Method, InvocationMetrics> methodMetrics;
+
+    LayerMetrics(String layerClassName, String implName) {
+        this.layerClassName = layerClassName;
+        this.implName = implName;
+        this.invocationMetrics = new InvocationMetrics();
+        this.methodMetrics = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Records an invocation of the layer.
+     * @param method Invoked method.
+     * @param executionTime Execution time in nanoseconds.
+     * @param error True if the invocation ends with some throwable.
+     */
+    void record(Method method, long executionTime, boolean error) {
+        invocationMetrics.record(executionTime, error);
+        InvocationMetrics metrics = methodMetrics.get(method);
+        if(metrics == null) {
+            metrics = methodMetrics.computeIfAbsent(method, M -> new InvocationMetrics());
+        }
+        metrics.record(executionTime, error);
+    }
+
+    /**
+     * Returns the name of the layer class.
+     * @return Layer class name.
+     */
+    public String getLayerClassName() {
+        return layerClassName;
+    }
+
+    /**
+     * Returns the implementation name of the layer.
+     * @return Implementation name.
+     */
+    public String getImplName() {
+        return implName;
+    }
+
+    /**
+     * Returns the metrics of all the invocations of the layer.
+     * @return Invocation metrics.
+     */
+    public InvocationMetrics getInvocationMetrics() {
+        return invocationMetrics;
+    }
+
+    /**
+     * Returns the metrics of each invoked method indexed by the method signature.
+     * @return Metrics by method, sorted by signature.
+     */
+    public Map<String, InvocationMetrics> getMethodMetrics() {
+        Map<String, InvocationMetrics> result = new TreeMap<>();
+        methodMetrics.forEach((method, metrics) -> result.put(getSignature(method), metrics));
+        return result;
+    }
+
+    /**
+     * Creates a readable signature of the method, for example: 'get(String,Integer)'.
+     * @param method Method instance.
+     * @return Method signature.
+     */
+    private static String getSignature(Method method) {
+        return method.getName() + Arrays.stream(method.getParameterTypes()).
+                map(Class::getSimpleName).collect(Collectors.joining(",", "(", ")"));
+    }
+
+    @Override
+    public String toString() {
+        return implName + "@" + layerClassName + " " + invocationMetrics;
+    }
+
+    /**
+     * Lock-free counters for the invocations, errors and the execution time distribution.
+     */
+    public static final class InvocationMetrics {
+
+        private final long creationTime;
+        private final LongAdder invocations;
+        private final LongAdder errors;
+        private final LatencyHistogram executionTime;
+
+        private InvocationMetrics() {
+            this.creationTime = System.nanoTime();
+            this.invocations = new LongAdder();
+            this.errors = new LongAdder();
+            this.executionTime = new LatencyHistogram();
+        }
+
+        private void record(long executionTime, boolean error) {
+            invocations.increment();
+            if(error) {
+                errors.increment();
+            }
+            this.executionTime.record(executionTime);
+        }
+
+        /**
+         * Returns the number of invocations.
+         * @return Number of invocations.
+         */
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        /**
+         * Returns the number of invocations that ends with some throwable.
+         * @return Number of errors.
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * Returns the rate between the errors and the invocations.
+         * @return Error rate between 0 and 1.
+         */
+        public double getErrorRate() {
+            long currentInvocations = invocations.sum();
+            return currentInvocations == 0 ? 0 : errors.sum() / (double) currentInvocations;
+        }
+
+        /**
+         * Returns the mean of invocations per second since the metrics was created.
+         * @return Invocations per second.
+         */
+        public double getThroughput() {
+            long elapsedTime = System.nanoTime() - creationTime;
+            return elapsedTime <= 0 ? 0 : invocations.sum() / (elapsedTime / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+
+        /**
+         * Returns the mean of the execution time in nanoseconds.
+         * @return Mean execution time.
+         */
+        public double getMeanExecutionTime() {
+            return executionTime.getMean();
+        }
+
+        /**
+         * Returns the max execution time in nanoseconds.
+         * @return Max execution time.
+         */
+        public long getMaxExecutionTime() {
+            return executionTime.getMax();
+        }
+
+        /**
+         * Returns the execution time in nanoseconds for the percentile indicated.
+         * @param percentile Percentile between 0 and 100.
+         * @return Execution time.
+         */
+        public long getExecutionTimePercentile(double percentile) {
+            return executionTime.getPercentile(percentile);
+        }
+
+        /**
+         * Returns the median of the execution time in nanoseconds.
+         * @return Execution time for the percentile 50.
+         */
+        public long getP50() {
+            return executionTime.getPercentile(50);
+        }
+
+        /**
+         * Returns the execution time in nanoseconds for the percentile 99.
+         * @return Execution time for the percentile 99.
+         */
+        public long getP99() {
+            return executionTime.getPercentile(99);
+        }
+
+        /**
+         * Returns the execution time in nanoseconds for the percentile 99.9.
+         * @return Execution time for the percentile 99.9.
+         */
+        public long getP999() {
+            return executionTime.getPercentile(99.9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("invocations: %d, errors: %d, throughput: %.2f/s, p50: %dns, p99: %dns, p999: %dns",
+                    getInvocations(), getErrors(), getThroughput(), getP50(), getP99(), getP999());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package org.hcjf.layers;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable snapshot of all the local layer resolutions (interface, name and resolved instance).
+ * The snapshot is compiled each time that a layer or plugin is published and it is replaced atomically,
+ * then the readers never need to take a lock to resolve a layer.
+ * @author javaito
+ */
+final class LayerResolutionTable {
+
+    static final LayerResolutionTable EMPTY = new LayerResolutionTable(Map.of(), new LayerLookupCache(0, 0));
+
+    private final Map<Class<? extends LayerInterface>, Entry> entries;
+    private final LayerLookupCache lookupCache;
+
+    private LayerResolutionTable(Map<Class<? extends LayerInterface>, Entry> entries, LayerLookupCache lookupCache) {
+        this.entries = entries;
+        this.lookupCache = lookupCache;
+    }
+
+    /**
+     * Returns the cache of the names resolved out of the table, this cache lives while the table is current.
+     * @return Lookup cache instance.
+     */
+    LayerLookupCache getLookupCache() {
+        return lookupCache;
+    }
+
+    /**
+     * Resolves the layer instance using the implementation name, the aliases, the default implementation and
+     * the plugins, in this order.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @param <L> Expected layer interface.
+     * @return Layer instance or null if there are not any local resolution for the name.
+     */
+    <L extends LayerInterface> L resolve(Class<? extends L> layerClass, String implName) {
+        L result = null;
+        Entry entry = entries.get(layerClass);
+        if(entry != null) {
+            //The immutable maps don't accept null keys, then the null names are resolved by the default.
+            Resolver resolver = implName == null ? null : entry.names.get(implName);
+            if(resolver == null) {
+                resolver = entry.defaultResolver;
+            }
+            if(resolver == null && implName != null) {
+                resolver = entry.plugins.get(implName);
+            }
+            if(resolver != null) {
+                result = (L) resolver.getInstance();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the resolver testing the implementation name against all the compiled regex published for the
+     * layer interface.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @return Resolver instance or null if the name doesn't match with any regex.
+     */
+    Resolver findRegexResolver(Class<? extends LayerInterface> layerClass, String implName) {
+        Resolver result = null;
+        Entry entry = entries.get(layerClass);
+        if(entry != null) {
+            for(RegexResolver regexResolver : entry.regexes) {
+                if(regexResolver.pattern.matcher(implName).matches()) {
+                    result = regexResolver.resolver;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the resolvers of all the local implementations for the layer interface, the aliases are not included.
+     * @param layerClass Layer interface class.
+     * @return Collection of resolvers, could be empty.
+     */
+    Collection<Resolver> getImplementations(Class<? extends LayerInterface> layerClass) {
+        Entry entry = entries.get(layerClass);
+        return entry == null ? List.of() : entry.implementations.values();
+    }
+
+    /**
+     * Returns the resolvers of all the plugin implementations for the layer interface.
+     * @param layerClass Layer interface class.
+     * @return Collection of resolvers, could be empty.
+     */
+    Collection<Resolver> getPlugins(Class<? extends LayerInterface> layerClass) {
+        Entry entry = entries.get(layerClass);
+        return entry == null ? List.of() : entry.plugins.values();
+    }
+
+    /**
+     * This interface provides the instance that resolves some layer name.
+     */
+    interface Resolver {
+
+        /**
+         * Returns the instance to resolve the layer, the stateful resolvers always return the same instance.
+         * @return Layer instance.
+         */
+        LayerInterface getInstance();
+
+    }
+
+    /**
+     * Resolver associated to the compiled pattern of the regex published by the layer.
+     */
+    private static final class RegexResolver {
+
+        private final Pattern pattern;
+        private final Resolver resolver;
+
+        private RegexResolver(Pattern pattern, Resolver resolver) {
+            this.pattern = pattern;
+            this.resolver = resolver;
+        }
+    }
+
+    /**
+     * Contains all the resolutions for a specific layer interface.
+     */
+    private static final class Entry {
+
+        private final Map<String, Resolver> implementations;
+        private final Map<String, Resolver> names;
+        private final Map<String, Resolver> plugins;
+        private final List<RegexResolver> regexes;
+        private final Resolver defaultResolver;
+
+        private Entry(Map<String, Resolver> implementations, Map<String, Resolver> names,
+                      Map<String, Resolver> plugins, List<RegexResolver> regexes, Resolver defaultResolver) {
+            this.implementations = implementations;
+            this.names = names;
+            this.plugins = plugins;
+            this.regexes = regexes;
+            this.defaultResolver = defaultResolver;
+        }
+    }
+
+    /**
+     * Builder used to compile a new snapshot, the builder is not thread safe and must be used only by
+     * the publisher thread.
+     */
+    static final class Builder {
+
+        private final Map<Class<? extends LayerInterface>, Map<String, Resolver>> implementations;
+        private final Map<Class<? extends LayerInterface>, Map<String, Resolver>> aliases;
+        private final Map<Class<? extends LayerInterface>, Map<String, Resolver>> plugins;
+        private final Map<Class<? extends LayerInterface>, List<RegexResolver>> regexes;
+        private final Map<Class<? extends LayerInterface>, Resolver> defaults;
+
+        Builder() {
+            implementations = new HashMap<>();
+            aliases = new HashMap<>();
+            plugins = new HashMap<>();
+            regexes = new HashMap<>();
+            defaults = new HashMap<>();
+        }
+
+        Builder addImplementation(Class<? extends LayerInterface> layerClass, String implName, Resolver resolver) {
+            implementations.computeIfAbsent(layerClass, K -> new HashMap<>()).put(implName, resolver);
+            return this;
+        }
+
+        Builder addAlias(Class<? extends LayerInterface> layerClass, String alias, Resolver resolver) {
+            aliases.computeIfAbsent(layerClass, K -> new HashMap<>()).put(alias, resolver);
+            return this;
+        }
+
+        Builder addPlugin(Class<? extends LayerInterface> layerClass, String implName, Resolver resolver) {
+            plugins.computeIfAbsent(layerClass, K -> new HashMap<>()).put(implName, resolver);
+            return this;
+        }
+
+        Builder addRegex(Class<? extends LayerInterface> layerClass, String regex, Resolver resolver) {
+            regexes.computeIfAbsent(layerClass, K -> new ArrayList<>()).add(new RegexResolver(Pattern.compile(regex), resolver));
+            return this;
+        }
+
+        Builder setDefault(Class<? extends LayerInterface> layerClass, Resolver resolver) {
+            defaults.put(layerClass, resolver);
+            return this;
+        }
+
+        /**
+         * Creates the immutable snapshot with all the information added.
+         * @param lookupCache Cache for the names resolved out of the table.
+         * @return Resolution table.
+         */
+        LayerResolutionTable build(LayerLookupCache lookupCache) {
+            Set<Class<? extends LayerInterface>> layerClasses = new HashSet<>();
+            layerClasses.addAll(implementations.keySet());
+            layerClasses.addAll(plugins.keySet());
+
+            Map<Class<? extends LayerInterface>, Entry> entries = new HashMap<>();
+            for(Class<? extends LayerInterface> layerClass : layerClasses) {
+                Map<String, Resolver> implementationsByName = implementations.getOrDefault(layerClass, Map.of());
+
+                //The implementation names have precedence over the aliases.
+                Map<String, Resolver> names = new HashMap<>(aliases.getOrDefault(layerClass, Map.of()));
+                names.putAll(implementationsByName);
+
+                entries.put(layerClass, new Entry(
+                        Map.copyOf(implementationsByName),
+                        Map.copyOf(names),
+                        Map.copyOf(plugins.getOrDefault(layerClass, Map.of())),
+                        List.copyOf(regexes.getOrDefault(layerClass, List.of())),
+                        defaults.get(layerClass)));
+            }
+            return new LayerResolutionTable(Map.copyOf(entries), lookupCache);
+        }
+    }
+}
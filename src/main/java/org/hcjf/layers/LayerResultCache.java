@@ -0,0 +1,214 @@
+package org.hcjf.layers;
+
+import org.hcjf.service.ServiceSession;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Layer proxy that caches the results of the layer methods annotated with {@link CachedResult}.
+ * There is a cache instance for each implementation method, and all the instances of the same layer class
+ * share the same caches.
+ * @author javaito
+ */
+public final class LayerResultCache implements LayerProxy {
+
+    private static final Map<Class<?>, Map<Method, LayerResultCache>> caches = new ConcurrentHashMap<>();
+
+    private final Method implementationMethod;
+    private final long timeToLive;
+    private final int size;
+    private final boolean sessionScoped;
+    private final Map<CacheKey, Entry> entries;
+
+    public LayerResultCache(Method implementationMethod, long timeToLive, int size, boolean sessionScoped) {
+        this.implementationMethod = implementationMethod;
+        this.timeToLive = timeToLive;
+        this.size = size;
+        this.sessionScoped = sessionScoped;
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    private LayerResultCache(Method implementationMethod, CachedResult cachedResult) {
+        this(implementationMethod, cachedResult.timeToLive(), cachedResult.size(), cachedResult.sessionScoped());
+    }
+
+    /**
+     * Returns the cache for the implementation method, if the method is not annotated with {@link CachedResult}
+     * then the method returns null.
+     * @param targetClass Layer target class.
+     * @param implementationMethod Implementation method.
+     * @return Cache instance or null.
+     */
+    static LayerResultCache getCache(Class<?> targetClass, Method implementationMethod) {
+        LayerResultCache result = null;
+        CachedResult cachedResult = implementationMethod.getAnnotation(CachedResult.class);
+        if(cachedResult != null) {
+            result = caches.computeIfAbsent(targetClass, K -> new ConcurrentHashMap<>()).
+                    computeIfAbsent(implementationMethod, M -> new LayerResultCache(M, cachedResult));
+        }
+        return result;
+    }
+
+    /**
+     * Removes all the cached results for the layer class.
+     * @param targetClass Layer target class.
+     */
+    public static void invalidate(Class<?> targetClass) {
+        Map<Method, LayerResultCache> cachesByMethod = caches.get(targetClass);
+        if(cachesByMethod != null) {
+            cachesByMethod.values().forEach(LayerResultCache::clear);
+        }
+    }
+
+    /**
+     * Removes all the cached results of the methods with the name indicated for the layer class.
+     * @param targetClass Layer target class.
+     * @param methodName Method name.
+     */
+    public static void invalidate(Class<?> targetClass, String methodName) {
+        Map<Method, LayerResultCache> cachesByMethod = caches.get(targetClass);
+        if(cachesByMethod != null) {
+            cachesByMethod.forEach((method, cache) -> {
+                if(method.getName().equals(methodName)) {
+                    cache.clear();
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the cached result if exists and is not expired.
+     * @param method Layer's method to invoke.
+     * @param params Parameter's method.
+     * @return Interceptor with the cached result or null if the result is not cached.
+     */
+    @Override
+    public ProxyInterceptor onBeforeInvoke(Method method, Object... params) {
+        ProxyInterceptor result = null;
+        CacheKey key = createKey(params);
+        Entry entry = entries.get(key);
+        if(entry != null) {
+            if(entry.isExpired(System.currentTimeMillis())) {
+                entries.remove(key, entry);
+            } else {
+                result = new ProxyInterceptor(true, entry.value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores the result of the invocation if the result is not cached yet.
+     * @param method Layer's method to invoke.
+     * @param result Layer's invocation result.
+     * @param params Parameter's method.
+     */
+    @Override
+    public void onAfterInvoke(Method method, Object result, Object... params) {
+        long currentTime = System.currentTimeMillis();
+        CacheKey key = createKey(params);
+        Entry entry = entries.get(key);
+        if(entry == null || entry.isExpired(currentTime)) {
+            if(entries.size() >= size) {
+                removeOverflow(currentTime);
+            }
+            entries.put(key, new Entry(result, currentTime + timeToLive));
+        }
+    }
+
+    /**
+     * Removes all the cached results.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of cached results.
+     * @return Number of results.
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the implementation method of the cache.
+     * @return Implementation method.
+     */
+    public Method getImplementationMethod() {
+        return implementationMethod;
+    }
+
+    /**
+     * Creates the key using the arguments of the invocation and the current identity if the cache
+     * is scoped by session.
+     * @param params Invocation arguments.
+     * @return Cache key.
+     */
+    private CacheKey createKey(Object[] params) {
+        UUID sessionId = sessionScoped ? ServiceSession.getCurrentIdentity().getId() : null;
+        return new CacheKey(sessionId, params == null ? null : params.clone());
+    }
+
+    /**
+     * Removes the expired entries and if the cache still full then removes some other entry.
+     * @param currentTime Current time.
+     */
+    private void removeOverflow(long currentTime) {
+        entries.values().removeIf(E -> E.isExpired(currentTime));
+        Iterator<CacheKey> iterator = entries.keySet().iterator();
+        while(entries.size() >= size && iterator.hasNext()) {
+            entries.remove(iterator.next());
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final UUID sessionId;
+        private final Object[] params;
+        private final int hashCode;
+
+        private CacheKey(UUID sessionId, Object[] params) {
+            this.sessionId = sessionId;
+            this.params = params;
+            this.hashCode = 31 * Objects.hashCode(sessionId) + Arrays.deepHashCode(params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            boolean result = false;
+            if(obj instanceof CacheKey) {
+                CacheKey other = (CacheKey) obj;
+                result = hashCode == other.hashCode && Objects.equals(sessionId, other.sessionId) &&
+                        Arrays.deepEquals(params, other.params);
+            }
+            return result;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long expirationTime;
+
+        private Entry(Object value, long expirationTime) {
+            this.value = value;
+            this.expirationTime = expirationTime;
+        }
+
+        private boolean isExpired(long currentTime) {
+            return expirationTime < currentTime;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import org.hcjf.errors.HCJFRuntimeException;
 import org.hcjf.layers.distributed.DistributedLayer;
 import org.hcjf.layers.distributed.DistributedLayerInterface;
 import org.hcjf.layers.distributed.NetworkSockets;
+import org.hcjf.layers.distributed.PublicationListener;
 import org.hcjf.layers.plugins.Plugin;
 import org.hcjf.layers.plugins.PluginClassLoader;
 import org.hcjf.layers.plugins.PluginLayer;
@@ -17,15 +18,18 @@ import org.hcjf.utils.Version;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.regex.Pattern;
 
 /**
  * This class manage all the published layers.
@@ -43,6 +47,9 @@ public final class Layers {
 
     static {
         instance = new Layers();
+        NetworkSockets.addPublicationListener(new DistributedPublicationListener());
+        SystemProperties.addPropertyListener(SystemProperties.Layer.DISTRIBUTED_LAYER_ENABLED,
+                (N, V) -> instance.updateDistributedEnabled());
     }
 
     private final Map<Class<? extends Layer>, Object> initialInstances;
@@ -53,10 +60,14 @@ public final class Layers {
     private final Map<Class<? extends LayerInterface>, Map<String, String>> pluginLayerImplementations;
     private final Map<Class<? extends LayerInterface>, Map<String, LayerInterface>> distributedLayers;
     private final Map<Class<? extends LayerInterface>, Map<String, String>> distributedLayersByRegex;
-    private final Map<Class<? extends Layer>, LayerInterface> instanceCache;
+    private final Map<Class<? extends Layer>, LayerResolutionTable.Resolver> resolvers;
     private final Map<String, LayerInterface> pluginWrapperCache;
     private final Map<String, Layer> pluginCache;
+    private final Map<String, Pattern> distributedPatterns;
+    private final Map<String, Map<String, LayerMetrics>> metrics;
     private final List<Plugin> plugins;
+    private volatile LayerResolutionTable resolutionTable;
+    private volatile boolean distributedEnabled;
 
     private Layers() {
         initialInstances = new HashMap<>();
@@ -64,37 +75,65 @@ public final class Layers {
         layerImplementations = new HashMap<>();
         layerImplementationsByRegex = new HashMap<>();
         pluginLayerImplementations = new HashMap<>();
-        distributedLayers = new HashMap<>();
-        distributedLayersByRegex = new HashMap<>();
+        distributedLayers = new ConcurrentHashMap<>();
+        distributedLayersByRegex = new ConcurrentHashMap<>();
         defaultLayers = new HashMap<>();
-        instanceCache = new HashMap<>();
-        pluginWrapperCache = new HashMap<>();
-        pluginCache = new HashMap<>();
+        resolvers = new HashMap<>();
+        pluginWrapperCache = new ConcurrentHashMap<>();
+        pluginCache = new ConcurrentHashMap<>();
+        distributedPatterns = new ConcurrentHashMap<>();
+        metrics = new ConcurrentHashMap<>();
         plugins = new ArrayList<>();
+        resolutionTable = LayerResolutionTable.EMPTY;
+        updateDistributedEnabled();
     }
 
     /**
-     * Get from cache the implementation instance or create an instance.
-     * @param clazz Layer implementation class.
+     * Updates the cached value of the distributed layers flag, the flag is read for each name that is not resolved
+     * by the resolution table.
+     */
+    private void updateDistributedEnabled() {
+        distributedEnabled = SystemProperties.getBoolean(SystemProperties.Layer.DISTRIBUTED_LAYER_ENABLED);
+    }
+
+    /**
+     * Creates the proxy instance that wraps the layer implementation.
+     * @param layerInstance Layer implementation instance.
+     * @param layerInterfaces Interfaces implemented by the proxy.
      * @param <L> Expected interface class.
-     * @return Return the implementation instance.
+     * @return Return the proxy instance.
      */
-    private static synchronized <L extends LayerInterface> L getImplementationInstance(Class<? extends Layer> clazz) {
-        L result = null;
-        result = (L) instance.instanceCache.get(clazz);
+    private static <L extends LayerInterface> L createProxy(Layer layerInstance, Class<?>[] layerInterfaces) {
+        return (L) Proxy.newProxyInstance(ClassLoader.getSystemClassLoader(), layerInterfaces, layerInstance);
+    }
+
+    /**
+     * Get from cache the resolver of the implementation class or create a new resolver. The stateful resolvers
+     * always returns the same proxy instance and the stateless resolvers creates a new instance for each call.
+     * This method is only called from the publishing methods.
+     * @param clazz Layer implementation class.
+     * @return Return the resolver for the implementation class.
+     */
+    private static LayerResolutionTable.Resolver getImplementationResolver(Class<? extends Layer> clazz) {
+        LayerResolutionTable.Resolver result = instance.resolvers.get(clazz);
         if (result == null) {
             try {
-                result = (L) instance.initialInstances.get(clazz);
-                if(result == null) {
-                    result = (L) clazz.getConstructor().newInstance();
-                }
-
-                result = (L) Proxy.newProxyInstance(ClassLoader.getSystemClassLoader(),
-                        getLayerInterfaceClass(clazz).toArray(new Class[]{}), result);
-
-                if (result.isStateful()) {
-                    instance.instanceCache.put(clazz, result);
+                Class<?>[] layerInterfaces = getLayerInterfaceClass(clazz).toArray(new Class<?>[]{});
+                Layer initialInstance = (Layer) instance.initialInstances.get(clazz);
+                if(initialInstance != null) {
+                    LayerInterface proxy = createProxy(initialInstance, layerInterfaces);
+                    result = () -> proxy;
+                } else {
+                    Constructor<? extends Layer> constructor = clazz.getConstructor();
+                    result = () -> {
+                        try {
+                            return createProxy(constructor.newInstance(), layerInterfaces);
+                        } catch (Exception ex) {
+                            throw new HCJFRuntimeException("Unable to create layer instance", ex);
+                        }
+                    };
                 }
+                instance.resolvers.put(clazz, result);
             } catch (Exception ex) {
                 throw new HCJFRuntimeException("Unable to create layer instance", ex);
             }
@@ -109,21 +148,16 @@ public final class Layers {
      * @param <L> Expected interface class.
      * @return Return the plugin implementation instance.
      */
-    private static synchronized <L extends LayerInterface> L getPluginImplementationInstance(
+    private static <L extends LayerInterface> L getPluginImplementationInstance(
             Class<? extends L> layerClass, String layerName) {
-        L result = null;
-        result = (L) instance.pluginWrapperCache.get(layerName);
-        if(result == null) {
-            result = (L) Proxy.newProxyInstance(ClassLoader.getSystemClassLoader(),
+        return (L) instance.pluginWrapperCache.computeIfAbsent(layerName, K ->
+                (L) Proxy.newProxyInstance(ClassLoader.getSystemClassLoader(),
                     new Class[]{layerClass}, new PluginLayer() {
                         @Override
                         protected Object getTarget() {
                             return instance.pluginCache.get(layerName);
                         }
-                    });
-            instance.pluginWrapperCache.put(layerName, result);
-        }
-        return result;
+                    }));
     }
 
     /**
@@ -134,30 +168,88 @@ public final class Layers {
      * @param <L> Expected layer type.
      * @return Returns the implementation of distributed layer.
      */
-    private static synchronized <L extends LayerInterface> L getDistributedImplementationInstance(
+    private static <L extends LayerInterface> L getDistributedImplementationInstance(
             Class<? extends L> layerClass, String layerName) {
-        L result;
-        if(!instance.distributedLayers.containsKey(layerClass)) {
-            instance.distributedLayers.put(layerClass, new HashMap<>());
-        }
+        Map<String, LayerInterface> distributedLayersByName =
+                instance.distributedLayers.computeIfAbsent(layerClass, K -> new ConcurrentHashMap<>());
 
-        result = (L) instance.distributedLayers.get(layerClass).get(layerName);
+        L result = (L) distributedLayersByName.get(layerName);
         if(result == null) {
-            result = (L) Proxy.newProxyInstance(ClassLoader.getSystemClassLoader(),
+            L proxy = (L) Proxy.newProxyInstance(ClassLoader.getSystemClassLoader(),
                     new Class[]{layerClass}, new DistributedLayer(layerName, layerClass));
-            instance.distributedLayers.get(layerClass).put(layerName, result);
-
-            String regex = NetworkSockets.getRegexFromDistributedLayer(layerClass, layerName);
-            if(regex != null) {
-                if(!instance.distributedLayersByRegex.containsKey(layerClass)) {
-                    instance.distributedLayersByRegex.put(layerClass, new HashMap<>());
+            result = (L) distributedLayersByName.putIfAbsent(layerName, proxy);
+            if(result == null) {
+                result = proxy;
+                String regex = NetworkSockets.getRegexFromDistributedLayer(layerClass, layerName);
+                if(regex != null) {
+                    addDistributedRegex(layerClass, layerName, regex);
                 }
-                instance.distributedLayersByRegex.get(layerClass).put(regex, layerName);
             }
         }
         return result;
     }
 
+    /**
+     * Registers the regex of a distributed layer.
+     * @param layerClass Layer interface class.
+     * @param layerName Layer implementation name.
+     * @param regex Regex to match the layer.
+     */
+    private static void addDistributedRegex(Class<? extends LayerInterface> layerClass, String layerName, String regex) {
+        instance.distributedPatterns.computeIfAbsent(regex, Pattern::compile);
+        instance.distributedLayersByRegex.computeIfAbsent(layerClass, K -> new ConcurrentHashMap<>()).
+                put(regex, layerName);
+        //The new regex could resolve some name cached as not found.
+        instance.resolutionTable.getLookupCache().clear();
+    }
+
+    /**
+     * Compiles a new resolution table with the current state of the published layers and plugins,
+     * and replaces the current table atomically. This method is only called from the publishing methods.
+     */
+    private static void compileResolutionTable() {
+        LayerResolutionTable.Builder builder = new LayerResolutionTable.Builder();
+        instance.layerImplementations.forEach((layerClass, implementations) -> {
+            implementations.forEach((implName, clazz) ->
+                    builder.addImplementation(layerClass, implName, getImplementationResolver(clazz)));
+
+            Map<String, String> aliases = instance.implAlias.get(layerClass);
+            if(aliases != null) {
+                aliases.forEach((alias, implName) -> {
+                    Class<? extends Layer> clazz = implementations.get(implName);
+                    if(clazz != null) {
+                        builder.addAlias(layerClass, alias, getImplementationResolver(clazz));
+                    }
+                });
+            }
+
+            String defaultImplName = instance.defaultLayers.get(layerClass);
+            if(defaultImplName != null && implementations.containsKey(defaultImplName)) {
+                builder.setDefault(layerClass, getImplementationResolver(implementations.get(defaultImplName)));
+            }
+
+            Map<String, String> regexes = instance.layerImplementationsByRegex.get(layerClass);
+            if(regexes != null) {
+                regexes.forEach((regex, implName) -> {
+                    Class<? extends Layer> clazz = implementations.get(implName);
+                    if(clazz != null) {
+                        builder.addRegex(layerClass, regex, getImplementationResolver(clazz));
+                    }
+                });
+            }
+        });
+
+        instance.pluginLayerImplementations.forEach((layerClass, pluginImplementations) ->
+                pluginImplementations.forEach((implName, className) -> {
+                    LayerInterface pluginInstance = getPluginImplementationInstance(layerClass, className);
+                    builder.addPlugin(layerClass, implName, () -> pluginInstance);
+                }));
+
+        instance.resolutionTable = builder.build(new LayerLookupCache(
+                SystemProperties.getInteger(SystemProperties.Layer.LOOKUP_CACHE_SIZE),
+                SystemProperties.getLong(SystemProperties.Layer.LOOKUP_CACHE_TIME)));
+    }
+
     /**
      * Return the layer interface implementation indexed by implName parameter.
      * @param layerClass Layer interface for the expected implementation.
@@ -168,81 +260,144 @@ public final class Layers {
      * does't exist.
      */
     public static <L extends LayerInterface> L get(Class<? extends L> layerClass, String implName) {
-        L result = null;
+        LayerResolutionTable resolutionTable = instance.resolutionTable;
 
-        //Check if the implementation name is an alias
-        if(instance.layerImplementations.containsKey(layerClass)) {
+        //Resolves the implementation name, the aliases, the default implementation and the plugins
+        //using the current snapshot of the published layers.
+        L result = resolutionTable.resolve(layerClass, implName);
 
-            Class<? extends Layer> clazz = instance.layerImplementations.get(layerClass).get(implName);
-
-            //If the implementation class is not founded with the specific name then we check
-            //if the implementation name is contained into the aliases.
-            if(clazz == null && instance.implAlias.get(layerClass).containsKey(implName)) {
-                clazz = instance.layerImplementations.get(layerClass).get(
-                        instance.implAlias.get(layerClass).get(implName));
-            }
-
-            //If the implementation name not mach with any implementation for the specific layer
-            //then we check if the specific layer contains a default implementation.
-            if(clazz == null && instance.defaultLayers.containsKey(layerClass)) {
-                clazz = instance.layerImplementations.get(layerClass).get(
-                        instance.defaultLayers.get(layerClass));
+        if(result == null) {
+            //The names resolved by regex, by distributed layers and the names not found are cached, the cache
+            //is discarded when some layer is published.
+            boolean distributedEnabled = instance.distributedEnabled;
+            LayerLookupCache lookupCache = resolutionTable.getLookupCache();
+            LayerResolutionTable.Resolver resolver = lookupCache.get(layerClass, implName);
+            if(resolver == null) {
+                long generation = lookupCache.getGeneration();
+                resolver = lookup(resolutionTable, layerClass, implName, distributedEnabled);
+                //If the distributed layers are enabled then the entries expires because the remote
+                //publications are not notified.
+                lookupCache.put(layerClass, implName, resolver, distributedEnabled, generation);
             }
 
-            if(clazz != null) {
-                result = getImplementationInstance(clazz);
+            result = (L) resolver.getInstance();
+            if(result == null) {
+                throw new HCJFRuntimeException("Layer implementation not found: %s@%s", layerClass, implName);
             }
         }
 
-        //If not exists some implementation for the combination of layer and name implementation then
-        //going to try with the plugins.
-        if(result == null) {
-            if (instance.pluginLayerImplementations.containsKey(layerClass)) {
-                String className = instance.pluginLayerImplementations.get(layerClass).get(implName);
-                if (className != null) {
-                    result = getPluginImplementationInstance(layerClass, className);
-                }
-            }
-        }
+        return result;
+    }
+
+    /**
+     * Resolves the names that are not resolved by the table directly, first checking the distributed layers and
+     * then trying to match the name with the regex of the local and distributed layers.
+     * @param resolutionTable Current resolution table.
+     * @param layerClass Layer interface for the expected implementation.
+     * @param implName Implementation name.
+     * @param distributedEnabled Distributed layers flag.
+     * @return Resolver instance or {@link LayerLookupCache#NOT_FOUND} if the name is not resolved.
+     */
+    private static LayerResolutionTable.Resolver lookup(LayerResolutionTable resolutionTable,
+            Class<? extends LayerInterface> layerClass, String implName, boolean distributedEnabled) {
+        LayerResolutionTable.Resolver result = null;
 
         //If not exists some implementation or plugin then going to check the distributed layers,
         //if this kind of layers are available.
-        if(result == null) {
-            if (SystemProperties.getBoolean(SystemProperties.Layer.DISTRIBUTED_LAYER_ENABLED) &&
-                    NetworkSockets.isLayerPublished(layerClass, implName)) {
-                result = getDistributedImplementationInstance(layerClass, implName);
-            }
+        if (distributedEnabled && NetworkSockets.isLayerPublished(layerClass, implName)) {
+            LayerInterface distributedInstance = getDistributedImplementationInstance(layerClass, implName);
+            result = () -> distributedInstance;
         }
 
         if(result == null) {
             //Try to match with some layer's regex
-            if(instance.layerImplementationsByRegex.containsKey(layerClass)) {
-                for (String regex : instance.layerImplementationsByRegex.get(layerClass).keySet()) {
-                    if (implName.matches(regex)) {
-                        result = getImplementationInstance(instance.layerImplementations.get(layerClass).get(
-                                instance.layerImplementationsByRegex.get(layerClass).get(regex)));
+            result = resolutionTable.findRegexResolver(layerClass, implName);
+        }
+
+        if(result == null) {
+            Map<String, String> distributedRegexes = instance.distributedLayersByRegex.get(layerClass);
+            if(distributedRegexes != null) {
+                for (Map.Entry<String, String> regexEntry : distributedRegexes.entrySet()) {
+                    if (instance.distributedPatterns.computeIfAbsent(regexEntry.getKey(), Pattern::compile).
+                            matcher(implName).matches()) {
+                        LayerInterface distributedInstance =
+                                getDistributedImplementationInstance(layerClass, regexEntry.getValue());
+                        result = () -> distributedInstance;
                         break;
                     }
                 }
             }
+        }
 
-            if(result == null) {
-                if(instance.distributedLayersByRegex.containsKey(layerClass)) {
-                    for (String regex : instance.distributedLayersByRegex.get(layerClass).keySet()) {
-                        if (implName.matches(regex)) {
-                            result = getDistributedImplementationInstance(layerClass,
-                                    instance.distributedLayersByRegex.get(layerClass).get(regex));
-                            break;
-                        }
-                    }
-                }
-            }
+        if(result == null) {
+            result = LayerLookupCache.NOT_FOUND;
+        }
+        return result;
+    }
 
-            if(result == null) {
-                throw new HCJFRuntimeException("Layer implementation not found: %s@%s", layerClass, implName);
-            }
+    /**
+     * Returns the metrics for the layer class and implementation name, if the metrics doesn't exist then
+     * a new instance is created. The metrics are stored by class name, then the redeployed plugins keep
+     * the same metrics.
+     * @param layerClassName Name of the layer class.
+     * @param implName Implementation name, could be null.
+     * @return Layer metrics instance.
+     */
+    static LayerMetrics getLayerMetrics(String layerClassName, String implName) {
+        String metricsName = implName == null ? Strings.EMPTY_STRING : implName;
+        return instance.metrics.computeIfAbsent(layerClassName, K -> new ConcurrentHashMap<>()).
+                computeIfAbsent(metricsName, K -> new LayerMetrics(layerClassName, metricsName));
+    }
+
+    /**
+     * Returns a gateway to invoke the layer implementation asynchronously, the implementation is resolved
+     * for each invocation.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @param <L> Expected layer interface type.
+     * @return Async layer instance.
+     */
+    public static <L extends LayerInterface> AsyncLayer<L> async(Class<? extends L> layerClass, String implName) {
+        return new AsyncLayer<>(() -> get(layerClass, implName));
+    }
+
+    /**
+     * Returns a gateway to invoke asynchronously each implementation of the layer class that match with the
+     * matcher, this method is useful to scatter-gather using {@link AsyncLayer#gather(Collection, java.util.function.Function, long)}.
+     * @param layerClass Layer interface class.
+     * @param matcher Matcher instance.
+     * @param <L> Expected layer interface type.
+     * @return List of async layers.
+     */
+    public static <L extends LayerInterface> List<AsyncLayer<L>> asyncAll(Class<? extends L> layerClass, LayerMatcher<L> matcher) {
+        List<AsyncLayer<L>> result = new ArrayList<>();
+        for(L layer : getAll(layerClass, matcher)) {
+            result.add(new AsyncLayer<>(() -> layer));
+        }
+        return result;
+    }
+
+    /**
+     * Removes all the cached results of the layer implementation, the cached results are created by
+     * the methods annotated with {@link CachedResult}.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @param <L> Expected layer interface type.
+     */
+    public static <L extends LayerInterface> void invalidateResultCache(Class<? extends L> layerClass, String implName) {
+        L layer = get(layerClass, implName);
+        if(Proxy.isProxyClass(layer.getClass()) && Proxy.getInvocationHandler(layer) instanceof Layer) {
+            LayerResultCache.invalidate(((Layer) Proxy.getInvocationHandler(layer)).getTarget().getClass());
         }
+    }
 
+    /**
+     * Returns the invocation metrics of all the layers invoked since the start of the instance.
+     * @return List of metrics.
+     */
+    public static List<LayerMetrics> getMetrics() {
+        List<LayerMetrics> result = new ArrayList<>();
+        instance.metrics.values().forEach(M -> result.addAll(M.values()));
         return result;
     }
 
@@ -290,32 +445,24 @@ public final class Layers {
     private static <L extends LayerInterface> Set<L> match(Class<? extends L> layerClass, LayerMatcher<L> matcher, boolean onlyFirst) {
         Set<L> result = new HashSet<>();
         L layerFounded;
-        if(instance.layerImplementations.containsKey(layerClass)) {
-            Map<String, Class<? extends Layer>> layersByName =
-                    instance.layerImplementations.get(layerClass);
-            for(String implName : layersByName.keySet()) {
-                layerFounded = getImplementationInstance(layersByName.get(implName));
-                if(matcher.match(layerFounded)){
-                    result.add(layerFounded);
-                    if(onlyFirst) {
-                        break;
-                    }
+        LayerResolutionTable resolutionTable = instance.resolutionTable;
+        for(LayerResolutionTable.Resolver resolver : resolutionTable.getImplementations(layerClass)) {
+            layerFounded = (L) resolver.getInstance();
+            if(matcher.match(layerFounded)){
+                result.add(layerFounded);
+                if(onlyFirst) {
+                    break;
                 }
             }
         }
 
         if(result.isEmpty() || !onlyFirst) {
-            if (instance.pluginLayerImplementations.containsKey(layerClass)) {
-                Map<String, String> layersByName =
-                        instance.pluginLayerImplementations.get(layerClass);
-                for (String implName : layersByName.keySet()) {
-                    layerFounded = getPluginImplementationInstance(
-                            layerClass, layersByName.get(implName));
-                    if(matcher.match(layerFounded)){
-                        result.add(layerFounded);
-                        if(onlyFirst) {
-                            break;
-                        }
+            for(LayerResolutionTable.Resolver resolver : resolutionTable.getPlugins(layerClass)) {
+                layerFounded = (L) resolver.getInstance();
+                if(matcher.match(layerFounded)){
+                    result.add(layerFounded);
+                    if(onlyFirst) {
+                        break;
                     }
                 }
             }
@@ -380,6 +527,7 @@ public final class Layers {
 
             if(layerInstance.isStateful()) {
                 instance.initialInstances.put(layerClass, layerInstance);
+                instance.resolvers.remove(layerClass);
             }
             instance.layerImplementations.get(layerInterfaceClass).put(implName, layerClass);
             if(layerInstance.getRegex() != null) {
@@ -430,6 +578,7 @@ public final class Layers {
             classToIntrospect = classToIntrospect.getSuperclass();
         }
 
+        compileResolutionTable();
         return implName;
     }
 
@@ -560,6 +709,7 @@ public final class Layers {
                         }
                     }
                 }
+                compileResolutionTable();
             } else {
                 Log.d(SystemProperties.get(SystemProperties.Layer.LOG_TAG), "Exists a plugin deployment in the same group with the same name and version: %s.%s:%s", pluginGroupName, pluginName, pluginVersion.toString());
             }
@@ -606,4 +756,47 @@ public final class Layers {
 
     }
 
+
+    /**
+     * This listener keeps updated the distributed layers when the network socket notifies some change of the
+     * layers published into the cloud.
+     */
+    private static final class DistributedPublicationListener implements PublicationListener {
+
+        @Override
+        public void onLayerPublished(Class<? extends LayerInterface> layerClass, String implName, String regex) {
+            invalidateDistributedLayer(layerClass, implName, false);
+            if(regex != null) {
+                addDistributedRegex(layerClass, implName, regex);
+            }
+            instance.resolutionTable.getLookupCache().clear();
+        }
+
+        @Override
+        public void onLayerUnpublished(Class<? extends LayerInterface> layerClass, String implName) {
+            invalidateDistributedLayer(layerClass, implName, true);
+            Map<String, String> distributedRegexes = instance.distributedLayersByRegex.get(layerClass);
+            if(distributedRegexes != null) {
+                distributedRegexes.values().removeIf(implName::equals);
+            }
+            instance.resolutionTable.getLookupCache().clear();
+        }
+
+        /**
+         * Removes the cached responses of the distributed layer and optionally removes the instance.
+         * @param layerClass Layer interface class.
+         * @param implName Implementation name.
+         * @param remove True to remove the distributed layer instance.
+         */
+        private void invalidateDistributedLayer(Class<? extends LayerInterface> layerClass, String implName, boolean remove) {
+            Map<String, LayerInterface> distributedLayersByName = instance.distributedLayers.get(layerClass);
+            if(distributedLayersByName != null) {
+                LayerInterface distributedLayer = remove ?
+                        distributedLayersByName.remove(implName) : distributedLayersByName.get(implName);
+                if(distributedLayer != null) {
+                    ((DistributedLayer) Proxy.getInvocationHandler(distributedLayer)).invalidateResponseCache();
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package org.hcjf.layers.distributed;
+
+import org.hcjf.layers.LayerInterface;
+
+import java.util.List;
+
+/**
+ * Extension of the network socket that is able to send a set of invocations of the same remote layer into
+ * only one request. All the invocations of a batch belong to the same caller identity and the batch is sent in the
+ * scope of that identity, then the implementation could read it from {@link org.hcjf.service.ServiceSession#getCurrentIdentity()}
+ * or from {@link LayerInvocation#getSession()}, as for the single invocations.
+ * @author javaito
+ */
+public interface BatchNetworkSocket extends NetworkSocket {
+
+    /**
+     * Invokes a set of methods of the remote instance of a layer into only one request.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @param invocations List of invocations.
+     * @return List of results, the list must have the same size and order than the list of invocations.
+     */
+    List<LayerInvocation.Result> layerInvoke(Class<? extends LayerInterface> layerClass, String implName,
+                                             List<LayerInvocation> invocations);
+
+}
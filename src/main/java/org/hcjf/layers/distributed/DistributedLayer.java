@@ -3,20 +3,28 @@ package org.hcjf.layers.distributed;
 import org.hcjf.errors.HCJFRuntimeException;
 import org.hcjf.layers.Layer;
 import org.hcjf.layers.LayerInterface;
+import org.hcjf.layers.LayerProxy;
+import org.hcjf.layers.LayerResultCache;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class is an interceptor component to make the distributed call.
+ * The responses of the methods annotated with {@link Idempotent} with some cache time are cached.
  * @author javaito
  */
 public final class DistributedLayer extends Layer {
 
     private final Class<? extends LayerInterface> layerClass;
+    private final Map<Method, Optional<LayerResultCache>> responseCaches;
 
     public DistributedLayer(String implName, Class<? extends LayerInterface> layerClass) {
         super(implName);
         this.layerClass = layerClass;
+        this.responseCaches = new ConcurrentHashMap<>();
     }
 
     public Object invoke(Object proxy, Method method, Object[] args) {
@@ -28,9 +36,40 @@ public final class DistributedLayer extends Layer {
                 throw new HCJFRuntimeException("Distributed layer invoke fail", ex);
             }
         } else {
-            result = NetworkSockets.layerInvoke(layerClass, getImplName(), method, args);
+            LayerResultCache responseCache = getResponseCache(method);
+            LayerProxy.ProxyInterceptor interceptor = responseCache == null ? null :
+                    responseCache.onBeforeInvoke(method, args);
+            if(interceptor != null && interceptor.isCached()) {
+                result = interceptor.getResult();
+            } else {
+                result = NetworkSockets.layerInvoke(layerClass, getImplName(), method, args);
+                if(responseCache != null) {
+                    responseCache.onAfterInvoke(method, result, args);
+                }
+            }
         }
         return result;
     }
 
+    /**
+     * Removes all the cached responses of the layer.
+     */
+    public void invalidateResponseCache() {
+        responseCaches.values().forEach(C -> C.ifPresent(LayerResultCache::clear));
+    }
+
+    /**
+     * Returns the response cache for the method if the method is annotated with {@link Idempotent} and the
+     * cache time is greater than zero.
+     * @param method Layer interface method.
+     * @return Response cache or null.
+     */
+    private LayerResultCache getResponseCache(Method method) {
+        return responseCaches.computeIfAbsent(method, M -> {
+            Idempotent idempotent = M.getAnnotation(Idempotent.class);
+            return idempotent == null || idempotent.cacheTime() <= 0 ? Optional.empty() :
+                    Optional.of(new LayerResultCache(M, idempotent.cacheTime(), idempotent.cacheSize(), idempotent.sessionScoped()));
+        }).orElse(null);
+    }
+
 }
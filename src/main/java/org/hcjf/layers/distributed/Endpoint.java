@@ -0,0 +1,229 @@
+package org.hcjf.layers.distributed;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class contains the health information of a node where some distributed layer is published: outstanding
+ * requests, the exponentially weighted moving average of the latency and the state of the circuit breaker.
+ * When the circuit is open the endpoint is not selected until the open time ends, then only one request is
+ * allowed (half-open state) and the result of this request closes or opens again the circuit. Only the holder of
+ * the probe permit changes the state of a half-open circuit, then the requests started before the circuit was
+ * opened don't close it when they end.
+ * @author javaito
+ */
+public final class Endpoint {
+
+    private static final double EWMA_ALPHA = 0.2;
+    private static final long CLOSED = 0;
+
+    private final String id;
+    private final AtomicInteger outstandingRequests;
+    private final AtomicLong latency;
+    private final AtomicInteger consecutiveFailures;
+    private final AtomicBoolean probing;
+    private final LongAdder successes;
+    private final LongAdder failures;
+    private final Permit permit;
+    private final Permit probePermit;
+    private volatile long openUntil;
+
+    Endpoint(String id) {
+        this.id = id;
+        this.outstandingRequests = new AtomicInteger();
+        this.latency = new AtomicLong(Double.doubleToLongBits(0));
+        this.consecutiveFailures = new AtomicInteger();
+        this.probing = new AtomicBoolean();
+        this.successes = new LongAdder();
+        this.failures = new LongAdder();
+        this.permit = new Permit(false);
+        this.probePermit = new Permit(true);
+        this.openUntil = CLOSED;
+    }
+
+    /**
+     * Returns the identifier of the endpoint.
+     * @return Endpoint identifier.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the number of requests in progress.
+     * @return Outstanding requests.
+     */
+    public int getOutstandingRequests() {
+        return outstandingRequests.get();
+    }
+
+    /**
+     * Returns the moving average of the latency in nanoseconds, the value is zero if the endpoint never was invoked.
+     * @return Average latency.
+     */
+    public double getLatency() {
+        return Double.longBitsToDouble(latency.get());
+    }
+
+    /**
+     * Returns the number of successful invocations.
+     * @return Number of successes.
+     */
+    public long getSuccesses() {
+        return successes.sum();
+    }
+
+    /**
+     * Returns the number of failed invocations.
+     * @return Number of failures.
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Returns true if the circuit of the endpoint is open.
+     * @return Circuit open flag.
+     */
+    public boolean isCircuitOpen() {
+        return openUntil != CLOSED;
+    }
+
+    /**
+     * Verify if the endpoint could be selected.
+     * @param currentTime Current time in milliseconds.
+     * @return True if the circuit is closed or if the circuit is half-open without a request in progress.
+     */
+    boolean isAvailable(long currentTime) {
+        long open = openUntil;
+        return open == CLOSED || (currentTime >= open && !probing.get());
+    }
+
+    /**
+     * Tries to start a request over the endpoint, if the circuit is half-open then only one request is allowed
+     * and this request holds the probe permit.
+     * @param currentTime Current time in milliseconds.
+     * @return Permit of the request or null if the request is not allowed.
+     */
+    Permit tryAcquire(long currentTime) {
+        Permit result;
+        long open = openUntil;
+        if(open == CLOSED) {
+            result = permit;
+        } else if(currentTime < open) {
+            result = null;
+        } else {
+            result = probing.compareAndSet(false, true) ? probePermit : null;
+        }
+        if(result != null) {
+            outstandingRequests.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Ends a successful request, if the request was the probe of a half-open circuit then the circuit is closed.
+     * @param elapsedTime Latency of the request in nanoseconds.
+     * @param probe True if the request holds the probe permit.
+     */
+    private void onSuccess(long elapsedTime, boolean probe) {
+        outstandingRequests.decrementAndGet();
+        updateLatency(elapsedTime);
+        successes.increment();
+        consecutiveFailures.set(0);
+        if(probe) {
+            openUntil = CLOSED;
+            probing.set(false);
+        }
+    }
+
+    /**
+     * Ends a failed request, if the request was the probe of a half-open circuit then the circuit is opened again,
+     * and if the circuit is closed and the number of consecutive failures reaches the threshold then the circuit
+     * is opened.
+     * @param elapsedTime Latency of the request in nanoseconds.
+     * @param probe True if the request holds the probe permit.
+     * @param failuresThreshold Number of consecutive failures to open the circuit.
+     * @param openTime Time in milliseconds that the circuit stays open.
+     */
+    private void onFailure(long elapsedTime, boolean probe, int failuresThreshold, long openTime) {
+        outstandingRequests.decrementAndGet();
+        updateLatency(elapsedTime);
+        failures.increment();
+        int consecutive = consecutiveFailures.incrementAndGet();
+        if(probe) {
+            openUntil = System.currentTimeMillis() + openTime;
+            probing.set(false);
+        } else if(consecutive >= failuresThreshold && openUntil == CLOSED) {
+            openUntil = System.currentTimeMillis() + openTime;
+        }
+    }
+
+    /**
+     * Updates the moving average of the latency.
+     * @param elapsedTime Latency of the last request in nanoseconds.
+     */
+    private void updateLatency(long elapsedTime) {
+        long current;
+        double newValue;
+        do {
+            current = latency.get();
+            double currentValue = Double.longBitsToDouble(current);
+            newValue = currentValue == 0 ? elapsedTime : currentValue + EWMA_ALPHA * (elapsedTime - currentValue);
+        } while (!latency.compareAndSet(current, Double.doubleToLongBits(newValue)));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (outstanding: %d, latency: %.0fns, circuit open: %b)",
+                id, getOutstandingRequests(), getLatency(), isCircuitOpen());
+    }
+
+    /**
+     * Permit of a request started over the endpoint, the permit must be used to notify the end of the request.
+     */
+    final class Permit {
+
+        private final boolean probe;
+
+        private Permit(boolean probe) {
+            this.probe = probe;
+        }
+
+        /**
+         * Returns the endpoint of the permit.
+         * @return Endpoint instance.
+         */
+        Endpoint getEndpoint() {
+            return Endpoint.this;
+        }
+
+        /**
+         * Returns true if the permit is the probe of a half-open circuit.
+         * @return Probe flag.
+         */
+        boolean isProbe() {
+            return probe;
+        }
+
+        /**
+         * Ends a successful request.
+         * @param elapsedTime Latency of the request in nanoseconds.
+         */
+        void onSuccess(long elapsedTime) {
+            Endpoint.this.onSuccess(elapsedTime, probe);
+        }
+
+        /**
+         * Ends a failed request.
+         * @param elapsedTime Latency of the request in nanoseconds.
+         * @param failuresThreshold Number of consecutive failures to open the circuit.
+         * @param openTime Time in milliseconds that the circuit stays open.
+         */
+        void onFailure(long elapsedTime, int failuresThreshold, long openTime) {
+            Endpoint.this.onFailure(elapsedTime, probe, failuresThreshold, openTime);
+        }
+    }
+}
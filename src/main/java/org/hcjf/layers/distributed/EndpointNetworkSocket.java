@@ -0,0 +1,39 @@
+package org.hcjf.layers.distributed;
+
+import org.hcjf.layers.LayerInterface;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Extension of the network socket that knows all the nodes (endpoints) where a distributed layer is published.
+ * If the network socket implements this interface then each invocation is routed to some of the endpoints using
+ * the configured {@link LoadBalancingStrategy}, and the health of each endpoint is tracked.
+ * The routing takes precedence over the batch mode: if the implementation also implements
+ * {@link BatchNetworkSocket} then the invocations are routed one by one and never batched.
+ * @author javaito
+ */
+public interface EndpointNetworkSocket extends NetworkSocket {
+
+    /**
+     * Returns the identifiers of all the endpoints where the layer is published.
+     * @param layerClass Layer class.
+     * @param implName Layer implementation name.
+     * @return List of endpoint identifiers, could be empty.
+     */
+    List<String> getEndpoints(Class<? extends LayerInterface> layerClass, String implName);
+
+    /**
+     * Invokes the instance of the layer published into the endpoint indicated.
+     * @param endpoint Endpoint identifier.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @param method Method to invoke.
+     * @param parameters Parameters to invoke.
+     * @param <O> Expected return data type.
+     * @return Invocation result.
+     */
+    <O extends Object> O layerInvoke(String endpoint, Class<? extends LayerInterface> layerClass, String implName,
+                                     Method method, Object... parameters);
+
+}
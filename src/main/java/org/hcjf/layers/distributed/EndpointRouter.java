@@ -0,0 +1,186 @@
+package org.hcjf.layers.distributed;
+
+import org.hcjf.errors.HCJFRemoteException;
+import org.hcjf.errors.HCJFRemoteInvocationTimeoutException;
+import org.hcjf.layers.LayerInterface;
+import org.hcjf.log.Log;
+import org.hcjf.properties.SystemProperties;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class routes the invocations of the distributed layers to the endpoints where the layers are published.
+ * The endpoints of each layer are refreshed periodically from the network socket, and each invocation updates
+ * the health of the selected endpoint. Only the remote exceptions ({@link HCJFRemoteException} and
+ * {@link HCJFRemoteInvocationTimeoutException}) are considered failures of the endpoint, the exceptions
+ * thrown by the layer implementation are considered successful invocations of the endpoint.
+ * @author javaito
+ */
+final class EndpointRouter {
+
+    private final LoadBalancingStrategy strategy;
+    private final Map<Class<? extends LayerInterface>, Map<String, EndpointGroup>> groups;
+
+    EndpointRouter() {
+        this.strategy = createStrategy();
+        this.groups = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates the strategy instance using the class name configured.
+     * @return Strategy instance.
+     */
+    private static LoadBalancingStrategy createStrategy() {
+        LoadBalancingStrategy result;
+        String strategyClassName = SystemProperties.get(SystemProperties.Layer.DISTRIBUTED_LOAD_BALANCING_STRATEGY);
+        try {
+            result = (LoadBalancingStrategy) Class.forName(strategyClassName).getConstructor().newInstance();
+        } catch (Exception ex) {
+            Log.e(SystemProperties.get(SystemProperties.Layer.LOG_TAG),
+                    "Load balancing strategy not found: %s", ex, strategyClassName);
+            result = new PowerOfTwoChoicesStrategy();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the endpoints where the layer is published.
+     * @param socket Endpoint network socket.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @return List of endpoints.
+     */
+    List<Endpoint> getEndpoints(EndpointNetworkSocket socket, Class<? extends LayerInterface> layerClass, String implName) {
+        return getGroup(layerClass, implName).getEndpoints(socket);
+    }
+
+    /**
+     * Invokes the layer over one of the available endpoints selected by the strategy.
+     * @param socket Endpoint network socket.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @param method Method to invoke.
+     * @param parameters Parameters to invoke.
+     * @param <O> Expected return data type.
+     * @return Invocation result.
+     */
+    <O extends Object> O layerInvoke(EndpointNetworkSocket socket, Class<? extends LayerInterface> layerClass,
+                                     String implName, Method method, Object... parameters) {
+        Endpoint.Permit permit = acquire(getGroup(layerClass, implName).getEndpoints(socket), layerClass, implName);
+        O result;
+        long startTime = System.nanoTime();
+        try {
+            result = socket.layerInvoke(permit.getEndpoint().getId(), layerClass, implName, method, parameters);
+        } catch (HCJFRemoteException | HCJFRemoteInvocationTimeoutException ex) {
+            permit.onFailure(System.nanoTime() - startTime,
+                    SystemProperties.getInteger(SystemProperties.Layer.DISTRIBUTED_CIRCUIT_BREAKER_FAILURES),
+                    SystemProperties.getLong(SystemProperties.Layer.DISTRIBUTED_CIRCUIT_BREAKER_OPEN_TIME));
+            throw ex;
+        } catch (RuntimeException | Error ex) {
+            permit.onSuccess(System.nanoTime() - startTime);
+            throw ex;
+        }
+        permit.onSuccess(System.nanoTime() - startTime);
+        return result;
+    }
+
+    /**
+     * Selects and acquires one of the available endpoints. If the endpoint selected by the strategy is taken
+     * by other thread (half-open circuit) then the selection is retried without this endpoint.
+     * @param endpoints All the endpoints of the layer.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @return Permit of the acquired endpoint.
+     * @throws HCJFRemoteException If there aren't available endpoints.
+     */
+    private Endpoint.Permit acquire(List<Endpoint> endpoints, Class<? extends LayerInterface> layerClass, String implName) {
+        Endpoint.Permit result = null;
+        long currentTime = System.currentTimeMillis();
+        List<Endpoint> availableEndpoints = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if(endpoint.isAvailable(currentTime)) {
+                availableEndpoints.add(endpoint);
+            }
+        }
+        while (result == null && !availableEndpoints.isEmpty()) {
+            Endpoint endpoint = strategy.select(availableEndpoints);
+            result = endpoint.tryAcquire(currentTime);
+            if(result == null) {
+                availableEndpoints.remove(endpoint);
+            }
+        }
+        if(result == null) {
+            throw new HCJFRemoteException("There aren't available endpoints for the layer %s@%s",
+                    implName, layerClass.getName());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the group of endpoints for the layer.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @return Group of endpoints.
+     */
+    private EndpointGroup getGroup(Class<? extends LayerInterface> layerClass, String implName) {
+        return groups.computeIfAbsent(layerClass, K -> new ConcurrentHashMap<>()).
+                computeIfAbsent(implName, K -> new EndpointGroup(layerClass, implName));
+    }
+
+    /**
+     * Endpoints of only one layer, the list of endpoints is refreshed periodically keeping the health information
+     * of the endpoints that still publishing the layer.
+     */
+    private static final class EndpointGroup {
+
+        private final Class<? extends LayerInterface> layerClass;
+        private final String implName;
+        private volatile List<Endpoint> endpoints;
+        private volatile long lastRefresh;
+
+        private EndpointGroup(Class<? extends LayerInterface> layerClass, String implName) {
+            this.layerClass = layerClass;
+            this.implName = implName;
+            this.endpoints = List.of();
+        }
+
+        /**
+         * Returns the endpoints of the layer, refreshing the list if the refresh time was reached.
+         * @param socket Endpoint network socket.
+         * @return List of endpoints.
+         */
+        private List<Endpoint> getEndpoints(EndpointNetworkSocket socket) {
+            long refreshTime = SystemProperties.getLong(SystemProperties.Layer.DISTRIBUTED_ENDPOINTS_REFRESH_TIME);
+            if(System.currentTimeMillis() - lastRefresh > refreshTime) {
+                refresh(socket, refreshTime);
+            }
+            return endpoints;
+        }
+
+        /**
+         * Refresh the list of endpoints, only one thread makes the refresh.
+         * @param socket Endpoint network socket.
+         * @param refreshTime Refresh time in milliseconds.
+         */
+        private synchronized void refresh(EndpointNetworkSocket socket, long refreshTime) {
+            if(System.currentTimeMillis() - lastRefresh > refreshTime) {
+                Map<String, Endpoint> currentEndpoints = new HashMap<>();
+                endpoints.forEach(E -> currentEndpoints.put(E.getId(), E));
+                List<Endpoint> newEndpoints = new ArrayList<>();
+                List<String> endpointIds = socket.getEndpoints(layerClass, implName);
+                if(endpointIds != null) {
+                    for (String endpointId : endpointIds) {
+                        newEndpoints.add(currentEndpoints.getOrDefault(endpointId, new Endpoint(endpointId)));
+                    }
+                }
+                endpoints = List.copyOf(newEndpoints);
+                lastRefresh = System.currentTimeMillis();
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.hcjf.layers.distributed;
+
+import java.util.List;
+
+/**
+ * Selects the endpoint with the lower cost, the cost is the moving average of the latency multiplied by the
+ * number of requests in progress plus one. The endpoints without latency samples have cost zero then all the new
+ * endpoints are tested before that the slow endpoints are avoided.
+ * @author javaito
+ */
+public class EwmaLatencyStrategy implements LoadBalancingStrategy {
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints) {
+        Endpoint result = null;
+        double resultCost = Double.MAX_VALUE;
+        for (Endpoint endpoint : endpoints) {
+            double cost = getCost(endpoint);
+            if(result == null || cost < resultCost) {
+                result = endpoint;
+                resultCost = cost;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cost of the endpoint.
+     * @param endpoint Endpoint instance.
+     * @return Cost of the endpoint.
+     */
+    private static double getCost(Endpoint endpoint) {
+        return endpoint.getLatency() * (endpoint.getOutstandingRequests() + 1);
+    }
+}
@@ -0,0 +1,36 @@
+package org.hcjf.layers.distributed;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation indicates that the method of the layer interface is idempotent and doesn't change the state of
+ * the remote layer. If the cache time is greater than zero then the responses of the remote invocations are cached
+ * by the distributed layer, using the method and the arguments as key.
+ * @author javaito
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+
+    /**
+     * Time in milliseconds that the responses are cached, zero disables the cache.
+     * @return Cache time.
+     */
+    long cacheTime() default 0;
+
+    /**
+     * Max number of responses cached for the method.
+     * @return Max size of the cache.
+     */
+    int cacheSize() default 1000;
+
+    /**
+     * If this value is true then the responses are cached for each session identity.
+     * @return Session scoped flag.
+     */
+    boolean sessionScoped() default false;
+
+}
@@ -0,0 +1,117 @@
+package org.hcjf.layers.distributed;
+
+import org.hcjf.service.ServiceSession;
+
+import java.lang.reflect.Method;
+
+/**
+ * This class represents a single invocation into a batch of invocations sent to the same remote layer.
+ * @author javaito
+ */
+public final class LayerInvocation {
+
+    private final Method method;
+    private final Object[] parameters;
+    private final ServiceSession session;
+
+    /**
+     * Creates the invocation with the identity of the current thread as caller.
+     * @param method Method to invoke.
+     * @param parameters Parameters of the invocation.
+     */
+    public LayerInvocation(Method method, Object[] parameters) {
+        this(method, parameters, ServiceSession.getCurrentIdentity());
+    }
+
+    /**
+     * Constructor.
+     * @param method Method to invoke.
+     * @param parameters Parameters of the invocation.
+     * @param session Identity of the caller.
+     */
+    public LayerInvocation(Method method, Object[] parameters, ServiceSession session) {
+        this.method = method;
+        this.parameters = parameters;
+        this.session = session;
+    }
+
+    /**
+     * Returns the method to invoke.
+     * @return Method instance.
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the parameters of the invocation.
+     * @return Parameters array.
+     */
+    public Object[] getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns the identity of the caller, all the invocations of a batch have the same identity.
+     * @return Caller identity.
+     */
+    public ServiceSession getSession() {
+        return session;
+    }
+
+    /**
+     * This class contains the result of a remote invocation, the result could be a value or a throwable.
+     */
+    public static final class Result {
+
+        private final Object value;
+        private final Throwable throwable;
+
+        private Result(Object value, Throwable throwable) {
+            this.value = value;
+            this.throwable = throwable;
+        }
+
+        /**
+         * Creates a result for a successful invocation.
+         * @param value Invocation value.
+         * @return Result instance.
+         */
+        public static Result success(Object value) {
+            return new Result(value, null);
+        }
+
+        /**
+         * Creates a result for an invocation that ends with a throwable.
+         * @param throwable Throwable instance.
+         * @return Result instance.
+         */
+        public static Result failure(Throwable throwable) {
+            return new Result(null, throwable);
+        }
+
+        /**
+         * Returns the value of the invocation.
+         * @return Invocation value.
+         */
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Returns the throwable of the invocation.
+         * @return Throwable instance or null if the invocation was successful.
+         */
+        public Throwable getThrowable() {
+            return throwable;
+        }
+
+        /**
+         * Returns true if the invocation ends with a throwable.
+         * @return Failure flag.
+         */
+        public boolean isFailure() {
+            return throwable != null;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package org.hcjf.layers.distributed;
+
+import org.hcjf.errors.HCJFRuntimeException;
+import org.hcjf.layers.LayerInterface;
+import org.hcjf.properties.SystemProperties;
+import org.hcjf.service.ServiceSession;
+import org.hcjf.service.ServiceThread;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class coalesces the concurrent invocations to the same remote layer (layer class and implementation name)
+ * into only one request of the network socket. The invocations are accumulated until the batch window
+ * (expressed in microseconds) ends or until the batch reaches the max size, then the batch is sent and the results
+ * are delivered to each waiting caller.
+ * Each batch only contains invocations of the same socket and the same caller identity, and the batch is sent
+ * in the scope of that identity, then the socket sees the same identity than a single invocation.
+ * @author javaito
+ */
+final class LayerInvocationBatcher {
+
+    private static final String FLUSH_THREAD_NAME = "hcjf-distributed-batch";
+
+    private final Map<BatchKey, BatchQueue> queues;
+
+    LayerInvocationBatcher() {
+        this.queues = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds the invocation into the batch of the remote layer and waits for the result.
+     * @param socket Batch network socket.
+     * @param layerClass Layer interface class.
+     * @param implName Implementation name.
+     * @param method Method to invoke.
+     * @param parameters Parameters to invoke.
+     * @param <O> Expected return data type.
+     * @return Invocation result.
+     */
+    <O extends Object> O layerInvoke(BatchNetworkSocket socket, Class<? extends LayerInterface> layerClass,
+                                     String implName, Method method, Object... parameters) {
+        PendingInvocation pendingInvocation = new PendingInvocation(new LayerInvocation(method, parameters));
+        BatchKey key = new BatchKey(socket, layerClass, implName, pendingInvocation.invocation.getSession());
+        boolean added = false;
+        while (!added) {
+            //The queue could be closed by other thread after it was removed from the map, in this case
+            //the invocation is added into a new queue.
+            added = queues.computeIfAbsent(key, BatchQueue::new).add(pendingInvocation);
+        }
+        return (O) pendingInvocation.await(SystemProperties.getLong(SystemProperties.Layer.DISTRIBUTED_BATCH_TIMEOUT));
+    }
+
+    /**
+     * Key of the batch queues: socket instance, layer, implementation name and caller identity.
+     */
+    private static final class BatchKey {
+
+        private final BatchNetworkSocket socket;
+        private final Class<? extends LayerInterface> layerClass;
+        private final String implName;
+        private final ServiceSession session;
+
+        private BatchKey(BatchNetworkSocket socket, Class<? extends LayerInterface> layerClass,
+                         String implName, ServiceSession session) {
+            this.socket = socket;
+            this.layerClass = layerClass;
+            this.implName = implName;
+            this.session = session;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            boolean result = false;
+            if(object instanceof BatchKey) {
+                BatchKey key = (BatchKey) object;
+                result = socket == key.socket && session == key.session &&
+                        layerClass.equals(key.layerClass) && Objects.equals(implName, key.implName);
+            }
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(socket), layerClass, implName, System.identityHashCode(session));
+        }
+    }
+
+    /**
+     * Queue of pending invocations for only one remote layer and only one caller identity.
+     */
+    private final class BatchQueue {
+
+        private final BatchKey key;
+        private List<PendingInvocation> pendingInvocations;
+        private boolean scheduled;
+        private boolean closed;
+
+        private BatchQueue(BatchKey key) {
+            this.key = key;
+            this.pendingInvocations = new ArrayList<>();
+        }
+
+        /**
+         * Adds a pending invocation into the queue. If the queue reaches the max size then the batch is sent
+         * using the current thread, and if the invocation is the first of the batch then the flush is scheduled
+         * at the end of the window.
+         * @param pendingInvocation Pending invocation.
+         * @return False if the queue is closed and the invocation was not added.
+         */
+        private boolean add(PendingInvocation pendingInvocation) {
+            boolean result = false;
+            List<PendingInvocation> batch = null;
+            boolean schedule = false;
+            synchronized (this) {
+                if(!closed) {
+                    result = true;
+                    pendingInvocations.add(pendingInvocation);
+                    if(pendingInvocations.size() >= SystemProperties.getInteger(SystemProperties.Layer.DISTRIBUTED_BATCH_MAX_SIZE)) {
+                        batch = pendingInvocations;
+                        pendingInvocations = new ArrayList<>();
+                    } else if(!scheduled) {
+                        scheduled = true;
+                        schedule = true;
+                    }
+                }
+            }
+
+            if(batch != null) {
+                //The current thread has the same identity than all the invocations of the batch.
+                send(batch);
+            } else if(schedule) {
+                long window = SystemProperties.getLong(SystemProperties.Layer.DISTRIBUTED_BATCH_WINDOW);
+                Thread.ofVirtual().name(FLUSH_THREAD_NAME).start(() -> {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(window));
+                    ServiceThread serviceThread = ServiceThread.getServiceThreadInstance();
+                    serviceThread.setSession(key.session);
+                    try {
+                        flush();
+                    } finally {
+                        serviceThread.setSession(null);
+                    }
+                });
+            }
+            return result;
+        }
+
+        /**
+         * Sends all the pending invocations of the queue, if the queue is empty after that then the queue is
+         * closed and removed.
+         */
+        private void flush() {
+            List<PendingInvocation> batch;
+            synchronized (this) {
+                batch = pendingInvocations;
+                pendingInvocations = new ArrayList<>();
+                scheduled = false;
+            }
+            if(!batch.isEmpty()) {
+                send(batch);
+            }
+            synchronized (this) {
+                if(pendingInvocations.isEmpty() && !scheduled) {
+                    closed = true;
+                    queues.remove(key, this);
+                }
+            }
+        }
+
+        /**
+         * Sends the batch using the network socket and delivers the results to each pending invocation.
+         * The invocations that are already done (timeout) are discarded and the batches with only one
+         * invocation are sent as single invocations.
+         * @param batch Batch of invocations.
+         */
+        private void send(List<PendingInvocation> batch) {
+            batch.removeIf(P -> P.future.isDone());
+            try {
+                if(batch.size() == 1) {
+                    LayerInvocation invocation = batch.get(0).invocation;
+                    LayerInvocation.Result result;
+                    try {
+                        result = LayerInvocation.Result.success(key.socket.layerInvoke(
+                                key.layerClass, key.implName, invocation.getMethod(), invocation.getParameters()));
+                    } catch (Throwable throwable) {
+                        result = LayerInvocation.Result.failure(throwable);
+                    }
+                    batch.get(0).complete(result);
+                } else if(batch.size() > 1) {
+                    List<LayerInvocation> invocations = new ArrayList<>();
+                    batch.forEach(P -> invocations.add(P.invocation));
+                    List<LayerInvocation.Result> results = key.socket.layerInvoke(key.layerClass, key.implName, invocations);
+                    if(results == null || results.size() != batch.size()) {
+                        throw new HCJFRuntimeException("Unexpected number of results for the batch of %s@%s",
+                                key.implName, key.layerClass.getName());
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).complete(results.get(i));
+                    }
+                }
+            } catch (Throwable throwable) {
+                batch.forEach(P -> P.complete(LayerInvocation.Result.failure(throwable)));
+            }
+        }
+    }
+
+    /**
+     * Invocation waiting for the result of the batch.
+     */
+    private static final class PendingInvocation {
+
+        private final LayerInvocation invocation;
+        private final CompletableFuture<LayerInvocation.Result> future;
+
+        private PendingInvocation(LayerInvocation invocation) {
+            this.invocation = invocation;
+            this.future = new CompletableFuture<>();
+        }
+
+        private void complete(LayerInvocation.Result result) {
+            future.complete(result);
+        }
+
+        /**
+         * Waits for the result of the invocation.
+         * @param timeout Max time to wait in milliseconds.
+         * @return Invocation value.
+         */
+        private Object await(long timeout) {
+            LayerInvocation.Result result;
+            try {
+                result = future.get(timeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                future.cancel(false);
+                Thread.currentThread().interrupt();
+                throw new HCJFRuntimeException("Distributed layer invoke interrupted", ex);
+            } catch (TimeoutException ex) {
+                //If the invocation is not sent yet then it's discarded.
+                future.cancel(false);
+                throw new HCJFRuntimeException("Distributed layer invoke timeout", ex);
+            } catch (ExecutionException ex) {
+                throw new HCJFRuntimeException("Distributed layer invoke fail", ex.getCause());
+            }
+            if(result.isFailure()) {
+                if(result.getThrowable() instanceof RuntimeException) {
+                    throw (RuntimeException) result.getThrowable();
+                } else if(result.getThrowable() instanceof Error) {
+                    throw (Error) result.getThrowable();
+                } else {
+                    throw new HCJFRuntimeException("Distributed layer invoke fail", result.getThrowable());
+                }
+            }
+            return result.getValue();
+        }
+    }
+}
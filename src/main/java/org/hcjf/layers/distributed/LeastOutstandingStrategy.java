@@ -0,0 +1,26 @@
+package org.hcjf.layers.distributed;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Selects the endpoint with less requests in progress, the ties are resolved starting from a random position
+ * to avoid that all the callers select the same endpoint.
+ * @author javaito
+ */
+public class LeastOutstandingStrategy implements LoadBalancingStrategy {
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints) {
+        int size = endpoints.size();
+        int offset = ThreadLocalRandom.current().nextInt(size);
+        Endpoint result = endpoints.get(offset);
+        for (int i = 1; i < size; i++) {
+            Endpoint endpoint = endpoints.get((offset + i) % size);
+            if(endpoint.getOutstandingRequests() < result.getOutstandingRequests()) {
+                result = endpoint;
+            }
+        }
+        return result;
+    }
+}
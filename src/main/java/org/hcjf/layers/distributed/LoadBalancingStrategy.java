@@ -0,0 +1,20 @@
+package org.hcjf.layers.distributed;
+
+import java.util.List;
+
+/**
+ * This interface selects the endpoint to route the invocation of a distributed layer. The implementation is
+ * configured using the property {@link org.hcjf.properties.SystemProperties.Layer#DISTRIBUTED_LOAD_BALANCING_STRATEGY}
+ * and it must have a public constructor without parameters.
+ * @author javaito
+ */
+public interface LoadBalancingStrategy {
+
+    /**
+     * Selects one of the available endpoints.
+     * @param endpoints List of available endpoints, the list is never empty.
+     * @return Selected endpoint.
+     */
+    Endpoint select(List<Endpoint> endpoints);
+
+}
@@ -41,4 +41,13 @@ public interface NetworkSocket {
      */
     <O extends Object> O layerInvoke(Class<? extends LayerInterface> layerClass, String implName, Method method, Object... parameters);
 
+    /**
+     * Sets the listener of the publication changes. The implementations that are able to notify the changes must
+     * call the listener each time a layer is published or removed from the cloud, then the publication information
+     * is updated without wait for the cache expiration. By default the changes are not notified.
+     * @param listener Publication listener.
+     */
+    default void setPublicationListener(PublicationListener listener) {
+    }
+
 }
@@ -6,32 +6,104 @@ import org.hcjf.log.Log;
 import org.hcjf.properties.SystemProperties;
 
 import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class NetworkSockets {
 
     private static final NetworkSockets instance = new NetworkSockets();
-    private NetworkSocket networkSocket;
+    private final Map<Class<? extends LayerInterface>, Map<String, Publication>> publications;
+    private final List<PublicationListener> listeners;
+    private volatile NetworkSocket networkSocket;
+    private volatile LayerInvocationBatcher batcher;
+    private volatile EndpointRouter router;
 
     private NetworkSockets() {
+        publications = new ConcurrentHashMap<>();
+        listeners = new CopyOnWriteArrayList<>();
         String networkSocketClassName = SystemProperties.get(SystemProperties.Layer.NETWORK_SOCKET_IMPLEMENTATION);
         if (networkSocketClassName == null) {
             networkSocket = null;
         } else {
             try {
                 networkSocket = (NetworkSocket) Class.forName(networkSocketClassName).getConstructor().newInstance();
+                networkSocket.setPublicationListener(new PublicationNotifier());
             } catch (Exception ex) {
                 Log.e(SystemProperties.get(SystemProperties.Layer.LOG_TAG), "Network socket implementation not found", ex);
             }
         }
+        batcher = new LayerInvocationBatcher();
+        router = new EndpointRouter();
     }
 
     private static NetworkSockets getInstance() {
         return instance;
     }
 
+    /**
+     * Replaces the network socket implementation, this method is useful to test with in-process sockets.
+     * @param networkSocket Network socket implementation.
+     */
+    static void setNetworkSocket(NetworkSocket networkSocket) {
+        if (networkSocket != null) {
+            networkSocket.setPublicationListener(getInstance().new PublicationNotifier());
+        }
+        getInstance().networkSocket = networkSocket;
+        getInstance().publications.clear();
+        getInstance().batcher = new LayerInvocationBatcher();
+        getInstance().router = new EndpointRouter();
+    }
+
+    /**
+     * Adds a listener of the publication changes notified by the network socket.
+     * @param listener Publication listener.
+     */
+    public static void addPublicationListener(PublicationListener listener) {
+        getInstance().listeners.add(listener);
+    }
 
     /**
-     * This method verifies if the layer and name indicated are published into the cloud.
+     * Returns the cached publication information if it exists and is not expired.
+     * @param layerClass Layer class.
+     * @param implName Layer implementation name.
+     * @return Publication information or null.
+     */
+    private Publication getPublication(Class<? extends LayerInterface> layerClass, String implName) {
+        Publication result = null;
+        Map<String, Publication> publicationsByName = publications.get(layerClass);
+        if (publicationsByName != null) {
+            result = publicationsByName.get(implName);
+            if (result != null && result.expirationTime < System.currentTimeMillis()) {
+                publicationsByName.remove(implName, result);
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores the publication information into the cache.
+     * @param layerClass Layer class.
+     * @param implName Layer implementation name.
+     * @param publication Publication information.
+     */
+    private void putPublication(Class<? extends LayerInterface> layerClass, String implName, Publication publication) {
+        publications.computeIfAbsent(layerClass, K -> new ConcurrentHashMap<>()).put(implName, publication);
+    }
+
+    /**
+     * Returns the expiration time for a new publication information.
+     * @return Expiration time.
+     */
+    private static long getExpirationTime() {
+        return System.currentTimeMillis() + SystemProperties.getLong(SystemProperties.Layer.DISTRIBUTED_PUBLICATION_CACHE_TIME);
+    }
+
+    /**
+     * This method verifies if the layer and name indicated are published into the cloud. The result is cached
+     * until the publication cache time ends or until the network socket notifies some change.
      * @param layerClass Layer class.
      * @param implName Layer implementation name.
      * @return Returns true if the layer is published and false in otherwise.
@@ -40,13 +112,21 @@ public class NetworkSockets {
         NetworkSocket socket = getInstance().networkSocket;
         boolean result = false;
         if (socket != null) {
-            result = socket.isLayerPublished(layerClass, implName);
+            Publication publication = getInstance().getPublication(layerClass, implName);
+            if (publication != null && publication.published != null) {
+                result = publication.published;
+            } else {
+                result = socket.isLayerPublished(layerClass, implName);
+                getInstance().putPublication(layerClass, implName, publication == null ?
+                        new Publication(result, null, false, getExpirationTime()) : publication.withPublished(result));
+            }
         }
         return result;
     }
 
     /**
-     * Returns the object that represent the distributed layer.
+     * Returns the object that represent the distributed layer. The result is cached until the publication cache
+     * time ends or until the network socket notifies some change.
      * @param layerClass Layer class.
      * @param implName Layer implementation name.
      * @return Regex if exist or null.
@@ -55,7 +135,14 @@ public class NetworkSockets {
         NetworkSocket socket = getInstance().networkSocket;
         String result = null;
         if (socket != null) {
-            result = socket.getRegexFromDistributedLayer(layerClass, implName);
+            Publication publication = getInstance().getPublication(layerClass, implName);
+            if (publication != null && publication.regexResolved) {
+                result = publication.regex;
+            } else {
+                result = socket.getRegexFromDistributedLayer(layerClass, implName);
+                getInstance().putPublication(layerClass, implName, publication == null ?
+                        new Publication(null, result, true, getExpirationTime()) : publication.withRegex(result));
+            }
         }
         return result;
     }
@@ -76,7 +163,27 @@ public class NetworkSockets {
     }
 
     /**
-     * Invokes the remote instance of a layer.
+     * Returns the endpoints where the layer is published with the health information of each one. If the network
+     * socket implementation doesn't know the endpoints then the list is empty.
+     * @param layerClass Layer class.
+     * @param implName Layer implementation name.
+     * @return List of endpoints.
+     */
+    public static List<Endpoint> getEndpoints(Class<? extends LayerInterface> layerClass, String implName) {
+        NetworkSocket socket = getInstance().networkSocket;
+        List<Endpoint> result = List.of();
+        if (socket instanceof EndpointNetworkSocket) {
+            result = getInstance().router.getEndpoints((EndpointNetworkSocket) socket, layerClass, implName);
+        }
+        return result;
+    }
+
+    /**
+     * Invokes the remote instance of a layer. If the network socket knows the endpoints of the layer then the
+     * invocation is routed to some healthy endpoint using the load balancing strategy. In the otherwise, if the
+     * batch mode is enabled and the network socket implementation supports it, then the concurrent invocations
+     * of the same remote layer are sent into only one request. The routing takes precedence: a socket that
+     * implements {@link EndpointNetworkSocket} and {@link BatchNetworkSocket} never batches the invocations.
      * @param layerClass Layer interface class.
      * @param implName Implementation name.
      * @param method Method to invoke.
@@ -88,11 +195,62 @@ public class NetworkSockets {
         NetworkSocket socket = getInstance().networkSocket;
         O result;
         if (socket != null) {
-            result = socket.layerInvoke(layerClass, implName, method, parameters);
+            if (socket instanceof EndpointNetworkSocket) {
+                result = getInstance().router.layerInvoke((EndpointNetworkSocket) socket, layerClass, implName, method, parameters);
+            } else if (socket instanceof BatchNetworkSocket &&
+                    SystemProperties.getBoolean(SystemProperties.Layer.DISTRIBUTED_BATCH_ENABLED)) {
+                result = getInstance().batcher.layerInvoke((BatchNetworkSocket) socket, layerClass, implName, method, parameters);
+            } else {
+                result = socket.layerInvoke(layerClass, implName, method, parameters);
+            }
         } else {
             throw new HCJFRuntimeException("Network socket implementation not found");
         }
         return result;
     }
 
+    /**
+     * Cached information about the publication of a layer into the cloud.
+     */
+    private static final class Publication {
+
+        private final Boolean published;
+        private final String regex;
+        private final boolean regexResolved;
+        private final long expirationTime;
+
+        private Publication(Boolean published, String regex, boolean regexResolved, long expirationTime) {
+            this.published = published;
+            this.regex = regex;
+            this.regexResolved = regexResolved;
+            this.expirationTime = expirationTime;
+        }
+
+        private Publication withPublished(boolean published) {
+            return new Publication(published, regex, regexResolved, expirationTime);
+        }
+
+        private Publication withRegex(String regex) {
+            return new Publication(published, regex, true, expirationTime);
+        }
+    }
+
+    /**
+     * This listener receives the notifications of the network socket, updates the publication cache and
+     * forwards the notification to all the registered listeners.
+     */
+    private final class PublicationNotifier implements PublicationListener {
+
+        @Override
+        public void onLayerPublished(Class<? extends LayerInterface> layerClass, String implName, String regex) {
+            putPublication(layerClass, implName, new Publication(true, regex, true, getExpirationTime()));
+            listeners.forEach(L -> L.onLayerPublished(layerClass, implName, regex));
+        }
+
+        @Override
+        public void onLayerUnpublished(Class<? extends LayerInterface> layerClass, String implName) {
+            putPublication(layerClass, implName, new Publication(false, null, true, getExpirationTime()));
+            listeners.forEach(L -> L.onLayerUnpublished(layerClass, implName));
+        }
+    }
 }
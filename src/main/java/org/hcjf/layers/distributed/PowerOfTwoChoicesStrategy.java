@@ -0,0 +1,37 @@
+package org.hcjf.layers.distributed;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Selects two random endpoints and returns the endpoint with less requests in progress, if both have the same
+ * number of requests then returns the endpoint with lower latency. This strategy avoids the herd behavior of
+ * the strategies that always select the best endpoint.
+ * @author javaito
+ */
+public class PowerOfTwoChoicesStrategy implements LoadBalancingStrategy {
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints) {
+        Endpoint result;
+        int size = endpoints.size();
+        if(size == 1) {
+            result = endpoints.get(0);
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int firstIndex = random.nextInt(size);
+            int secondIndex = random.nextInt(size - 1);
+            if(secondIndex >= firstIndex) {
+                secondIndex++;
+            }
+            Endpoint first = endpoints.get(firstIndex);
+            Endpoint second = endpoints.get(secondIndex);
+            if(first.getOutstandingRequests() != second.getOutstandingRequests()) {
+                result = first.getOutstandingRequests() < second.getOutstandingRequests() ? first : second;
+            } else {
+                result = first.getLatency() <= second.getLatency() ? first : second;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,26 @@
+package org.hcjf.layers.distributed;
+
+import org.hcjf.layers.LayerInterface;
+
+/**
+ * Listener of the changes of the distributed layers published into the cloud.
+ * @author javaito
+ */
+public interface PublicationListener {
+
+    /**
+     * This method is called when some layer is published into the cloud.
+     * @param layerClass Layer class.
+     * @param implName Layer implementation name.
+     * @param regex Regex to match the layer, could be null.
+     */
+    void onLayerPublished(Class<? extends LayerInterface> layerClass, String implName, String regex);
+
+    /**
+     * This method is called when some layer is removed from the cloud.
+     * @param layerClass Layer class.
+     * @param implName Layer implementation name.
+     */
+    void onLayerUnpublished(Class<? extends LayerInterface> layerClass, String implName);
+
+}
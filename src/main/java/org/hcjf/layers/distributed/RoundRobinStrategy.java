@@ -0,0 +1,22 @@
+package org.hcjf.layers.distributed;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Selects the endpoints in circular order.
+ * @author javaito
+ */
+public class RoundRobinStrategy implements LoadBalancingStrategy {
+
+    private final AtomicInteger counter;
+
+    public RoundRobinStrategy() {
+        this.counter = new AtomicInteger();
+    }
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints) {
+        return endpoints.get(Math.floorMod(counter.getAndIncrement(), endpoints.size()));
+    }
+}
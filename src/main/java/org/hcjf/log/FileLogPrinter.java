@@ -0,0 +1,315 @@
+package org.hcjf.log;
+
+import org.hcjf.errors.HCJFRuntimeException;
+import org.hcjf.properties.SystemProperties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Log printer that writes the records into files. All the records are written into the main file
+ * (prefix.log) and the groups enabled with the properties {@link SystemProperties.Log#ERROR_FILE},
+ * {@link SystemProperties.Log#WARNING_FILE}, {@link SystemProperties.Log#INFO_FILE} and
+ * {@link SystemProperties.Log#DEBUG_FILE} are written into its own file too (prefix-group.log).
+ * Each batch of records is encoded into a direct buffer and written with one write of the file channel,
+ * and the files are rotated when they reach the max size or the rotation time, the rotated files could be
+ * compressed with gzip.
+ * To use this printer add the name of the class into the property {@link SystemProperties.Log#CONSUMERS}, the
+ * files are closed when the printer is removed from the log or when the log ends.
+ * @author javaito
+ */
+public class FileLogPrinter implements LogPrinter {
+
+    private static final String FILE_EXTENSION = ".log";
+    private static final String COMPRESSED_FILE_EXTENSION = ".gz";
+    private static final String GROUP_SEPARATOR = "-";
+    private static final String ROTATION_SEPARATOR = ".";
+    private static final DateTimeFormatter ROTATION_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneId.systemDefault());
+
+    private final Path path;
+    private final long maxSize;
+    private final long rotationTime;
+    private final boolean compressionEnabled;
+    private final boolean syncEnabled;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder;
+    private final List<LogFile> files;
+    private boolean closed;
+
+    public FileLogPrinter() {
+        this(SystemProperties.getPath(SystemProperties.Log.PATH),
+                SystemProperties.get(SystemProperties.Log.FILE_PREFIX));
+    }
+
+    /**
+     * Constructor.
+     * @param path Directory where the files are written.
+     * @param prefix Prefix of the file names.
+     */
+    public FileLogPrinter(Path path, String prefix) {
+        this.path = path;
+        this.maxSize = SystemProperties.getLong(SystemProperties.Log.FILE_MAX_SIZE);
+        this.rotationTime = SystemProperties.getLong(SystemProperties.Log.FILE_ROTATION_TIME);
+        this.compressionEnabled = SystemProperties.getBoolean(SystemProperties.Log.FILE_COMPRESSION_ENABLED);
+        this.syncEnabled = SystemProperties.getBoolean(SystemProperties.Log.FILE_SYNC_ENABLED);
+        this.buffer = ByteBuffer.allocateDirect(SystemProperties.getInteger(SystemProperties.Log.FILE_BUFFER_SIZE));
+        this.encoder = StandardCharsets.UTF_8.newEncoder().
+                onMalformedInput(CodingErrorAction.REPLACE).
+                onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.files = new ArrayList<>();
+        try {
+            Files.createDirectories(path);
+            files.add(new LogFile(prefix, null));
+            addGroupFile(prefix, Log.LogGroup.ERROR, SystemProperties.Log.ERROR_FILE);
+            addGroupFile(prefix, Log.LogGroup.WARNING, SystemProperties.Log.WARNING_FILE);
+            addGroupFile(prefix, Log.LogGroup.INFO, SystemProperties.Log.INFO_FILE);
+            addGroupFile(prefix, Log.LogGroup.DEBUG, SystemProperties.Log.DEBUG_FILE);
+        } catch (IOException ex) {
+            throw new HCJFRuntimeException("Unable to open the log files: %s", ex, path);
+        }
+    }
+
+    /**
+     * Adds the file of the group if the property is enabled.
+     * @param prefix Prefix of the file names.
+     * @param group Log group.
+     * @param propertyName Name of the property that enables the file.
+     * @throws IOException Exception opening the file.
+     */
+    private void addGroupFile(String prefix, Log.LogGroup group, String propertyName) throws IOException {
+        if(SystemProperties.getBoolean(propertyName)) {
+            files.add(new LogFile(prefix + GROUP_SEPARATOR + group.name().toLowerCase(), group));
+        }
+    }
+
+    /**
+     * Writes the record into the files.
+     * @param record Record to print.
+     */
+    @Override
+    public void print(Log.LogRecord record) {
+        print(List.of(record));
+    }
+
+    /**
+     * Writes all the records of the batch into the files, each file is written once for all the batch.
+     * If some file fails then the batch is written into the other files anyway and the failure is thrown at the end.
+     * @param records Batch of records to print.
+     * @throws HCJFRuntimeException If some file can't be written.
+     */
+    @Override
+    public synchronized void print(List<Log.LogRecord> records) {
+        HCJFRuntimeException exception = null;
+        if(!closed) {
+            for (LogFile file : files) {
+                try {
+                    write(file, records);
+                } catch (IOException ex) {
+                    buffer.clear();
+                    if(exception == null) {
+                        exception = new HCJFRuntimeException("Unable to write the log file: %s", ex, file.name);
+                    } else {
+                        exception.addSuppressed(ex);
+                    }
+                }
+            }
+        }
+        if(exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Writes the records of the file group into the file.
+     * @param file Log file.
+     * @param records Batch of records.
+     * @throws IOException Exception writing the file.
+     */
+    private void write(LogFile file, List<Log.LogRecord> records) throws IOException {
+        if(file.isExpired()) {
+            rotate(file);
+        }
+        for (Log.LogRecord record : records) {
+            if(file.group == null || file.group.equals(record.getGroup())) {
+                encode(file, record.getMessage());
+                encode(file, System.lineSeparator());
+                if(file.size + buffer.position() >= maxSize) {
+                    flush(file);
+                    rotate(file);
+                }
+            }
+        }
+        flush(file);
+        if(syncEnabled) {
+            file.channel.force(false);
+        }
+    }
+
+    /**
+     * Forces the content of the files to the storage and closes them, after that the printer ignores the records.
+     * @throws HCJFRuntimeException If some file can't be closed.
+     */
+    @Override
+    public synchronized void close() {
+        HCJFRuntimeException exception = null;
+        if(!closed) {
+            closed = true;
+            for (LogFile file : files) {
+                try {
+                    if(file.channel.isOpen()) {
+                        file.channel.force(false);
+                    }
+                    file.channel.close();
+                } catch (IOException ex) {
+                    if(exception == null) {
+                        exception = new HCJFRuntimeException("Unable to close the log file: %s", ex, file.name);
+                    } else {
+                        exception.addSuppressed(ex);
+                    }
+                }
+            }
+        }
+        if(exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Encodes the text into the buffer, when the buffer is full then it's written into the file.
+     * @param file Log file.
+     * @param text Text to encode.
+     * @throws IOException Exception writing the file.
+     */
+    private void encode(LogFile file, String text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        CoderResult coderResult = encoder.encode(chars, buffer, true);
+        while (coderResult.isOverflow()) {
+            flush(file);
+            coderResult = encoder.encode(chars, buffer, true);
+        }
+    }
+
+    /**
+     * Writes the content of the buffer into the file.
+     * @param file Log file.
+     * @throws IOException Exception writing the file.
+     */
+    private void flush(LogFile file) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            file.size += file.channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Closes the current file, renames it adding the date of the rotation and opens a new file. If the file
+     * can't be renamed then the current file is opened again.
+     * @param file Log file to rotate.
+     * @throws IOException Exception rotating the file.
+     */
+    private void rotate(LogFile file) throws IOException {
+        file.channel.close();
+        String rotatedName = file.name + ROTATION_SEPARATOR + ROTATION_DATE_FORMAT.format(Instant.now());
+        Path rotatedPath = path.resolve(rotatedName + FILE_EXTENSION);
+        for (int i = 1; Files.exists(rotatedPath); i++) {
+            rotatedPath = path.resolve(rotatedName + ROTATION_SEPARATOR + i + FILE_EXTENSION);
+        }
+        try {
+            Files.move(file.path, rotatedPath);
+        } catch (FileAlreadyExistsException ex) {
+            rotatedPath = null;
+        } catch (IOException ex) {
+            //The rotation is skipped and the records are appended to the current file.
+            ex.printStackTrace();
+            rotatedPath = null;
+        } finally {
+            file.open();
+        }
+        if(compressionEnabled && rotatedPath != null) {
+            Path pathToCompress = rotatedPath;
+            Thread.ofVirtual().name("hcjf-log-compression").start(() -> compress(pathToCompress));
+        }
+    }
+
+    /**
+     * Compress the rotated file with gzip and deletes the original file.
+     * @param rotatedPath Path of the rotated file.
+     */
+    private void compress(Path rotatedPath) {
+        Path compressedPath = rotatedPath.resolveSibling(rotatedPath.getFileName() + COMPRESSED_FILE_EXTENSION);
+        boolean compressed = false;
+        try (InputStream inputStream = Files.newInputStream(rotatedPath);
+             OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(compressedPath))) {
+            inputStream.transferTo(outputStream);
+            compressed = true;
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        if(compressed) {
+            try {
+                Files.delete(rotatedPath);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Current segment of a log file.
+     */
+    private final class LogFile {
+
+        private final String name;
+        private final Path path;
+        private final Log.LogGroup group;
+        private FileChannel channel;
+        private long size;
+        private long openTime;
+
+        private LogFile(String name, Log.LogGroup group) throws IOException {
+            this.name = name;
+            this.path = FileLogPrinter.this.path.resolve(name + FILE_EXTENSION);
+            this.group = group;
+            open();
+        }
+
+        /**
+         * Opens the file in append mode.
+         * @throws IOException Exception opening the file.
+         */
+        private void open() throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            size = channel.size();
+            openTime = System.currentTimeMillis();
+        }
+
+        /**
+         * Verify if the rotation time of the file is reached.
+         * @return True if the file must be rotated.
+         */
+        private boolean isExpired() {
+            return rotationTime > 0 && size > 0 && System.currentTimeMillis() - openTime >= rotationTime;
+        }
+    }
+}
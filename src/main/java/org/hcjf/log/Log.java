@@ -5,11 +5,8 @@ import org.hcjf.service.Service;
 import org.hcjf.service.ServiceSession;
 import org.hcjf.utils.Strings;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -20,7 +17,7 @@ import java.util.stream.Stream;
  * maintain and organize a log file with the same records format
  * The log behavior is affected by the following system properties
  * <br><b>hcfj_log_path</b>: work directory of the log, by default app work directory
- * <br><b>hcfj_log_initial_queue_size</b>: initial size of the internal queue, by default 10000;
+ * <br><b>hcfj_log_ring_buffer_size</b>: capacity of the internal ring buffer, by default 16384;
  * <br><b>hcfj_log_file_prefix</b>: all the log files start with this prefix, by default hcjf
  * <br><b>hcfj_log_error_file</b>: if the property is true then log create a particular file for error group only, by default false
  * <br><b>hcfj_log_warning_file</b>: if the property is true then log create a particular file for warning group only, by default false
@@ -33,6 +30,10 @@ import java.util.stream.Stream;
  */
 public final class Log extends Service<LogPrinter> {
 
+    private static final String LAZY_MESSAGE_FORMAT = "%s";
+    private static final String[] NO_CALL_STACK_INFORMATION =
+            new String[] {Strings.EMPTY_STRING, Strings.EMPTY_STRING, Strings.EMPTY_STRING};
+    private static final StackWalker stackWalker = StackWalker.getInstance();
     private static final Log instance;
 
     static {
@@ -40,9 +41,14 @@ public final class Log extends Service<LogPrinter> {
     }
 
     private List<LogPrinter> printers;
-    private Queue<LogRecord> queue;
-    private Object logMonitor;
-    private Boolean shuttingDown;
+    private RingBuffer<LogRecord> ringBuffer;
+    private int drainBatchSize;
+    private volatile boolean shuttingDown;
+    private volatile int level;
+    private volatile boolean systemOutEnabled;
+    private volatile boolean callerCaptureEnabled;
+    private volatile int callerCaptureLevel;
+    private volatile Set<String> callerCaptureDisabledTags;
 
     /**
      * Private constructor
@@ -50,6 +56,27 @@ public final class Log extends Service<LogPrinter> {
     private Log() {
         super(SystemProperties.get(SystemProperties.Log.SERVICE_NAME),
                 SystemProperties.getInteger(SystemProperties.Log.SERVICE_PRIORITY));
+        //The level, the system out flag and the caller capture configuration are read for each record, then these
+        //values are cached and updated only when the properties change.
+        updateConfiguration();
+        Stream.of(SystemProperties.Log.LEVEL, SystemProperties.Log.SYSTEM_OUT_ENABLED,
+                SystemProperties.Log.CALLER_CAPTURE_ENABLED, SystemProperties.Log.CALLER_CAPTURE_LEVEL,
+                SystemProperties.Log.CALLER_CAPTURE_DISABLED_TAGS,
+                SystemProperties.Log.DATE_FORMAT, SystemProperties.Log.TRUNCATE_TAG,
+                SystemProperties.Log.TRUNCATE_TAG_SIZE).
+                forEach(P -> SystemProperties.addPropertyListener(P, (N, V) -> updateConfiguration()));
+    }
+
+    /**
+     * Updates the cached values of the configuration.
+     */
+    private void updateConfiguration() {
+        level = SystemProperties.getInteger(SystemProperties.Log.LEVEL);
+        systemOutEnabled = SystemProperties.getBoolean(SystemProperties.Log.SYSTEM_OUT_ENABLED);
+        callerCaptureEnabled = SystemProperties.getBoolean(SystemProperties.Log.CALLER_CAPTURE_ENABLED);
+        callerCaptureLevel = SystemProperties.getInteger(SystemProperties.Log.CALLER_CAPTURE_LEVEL);
+        callerCaptureDisabledTags = Set.copyOf(SystemProperties.getList(SystemProperties.Log.CALLER_CAPTURE_DISABLED_TAGS));
+        LogRecordFormatter.configure();
     }
 
     /**
@@ -57,11 +84,12 @@ public final class Log extends Service<LogPrinter> {
      */
     @Override
     protected void init() {
-        this.printers = new ArrayList<>();
-        this.queue = new PriorityBlockingQueue<>(
-                SystemProperties.getInteger(SystemProperties.Log.QUEUE_INITIAL_SIZE),
-                (o1, o2) -> (int)(o1.getDate().getTime() - o2.getDate().getTime()));
-        this.logMonitor = new Object();
+        this.printers = new CopyOnWriteArrayList<>();
+        this.ringBuffer = new RingBuffer<>(
+                SystemProperties.getInteger(SystemProperties.Log.RING_BUFFER_SIZE),
+                RingBuffer.WaitStrategy.valueOf(SystemProperties.get(SystemProperties.Log.WAIT_STRATEGY)),
+                RingBuffer.FullPolicy.valueOf(SystemProperties.get(SystemProperties.Log.FULL_POLICY)));
+        this.drainBatchSize = SystemProperties.getInteger(SystemProperties.Log.DRAIN_BATCH_SIZE);
         this.shuttingDown = false;
         for (int i = 0; i < SystemProperties.getInteger(SystemProperties.Log.LOG_CONSUMERS_SIZE); i++) {
             fork(new LogRunnable());
@@ -78,7 +106,7 @@ public final class Log extends Service<LogPrinter> {
     }
 
     /**
-     * Only valid with the stage is START
+     * In the stage START the consumers are stopped and in the stage END the printers are closed.
      * @param stage Shutdown stage.
      */
     @Override
@@ -86,9 +114,12 @@ public final class Log extends Service<LogPrinter> {
         switch (stage) {
             case START: {
                 shuttingDown = true;
-                synchronized (this.logMonitor) {
-                    this.logMonitor.notifyAll();
-                }
+                ringBuffer.stop();
+                break;
+            }
+            case END: {
+                //The consumers are finished, then the printers are closed.
+                printers.forEach(this::closePrinter);
                 break;
             }
         }
@@ -110,30 +141,56 @@ public final class Log extends Service<LogPrinter> {
 
     @Override
     public void unregisterConsumer(LogPrinter consumer) {
-        printers.remove(consumer);
+        if(printers.remove(consumer)) {
+            closePrinter(consumer);
+        }
     }
 
     /**
-     * Add the record to the queue and notify the consumer thread.
+     * Closes the printer, the errors are printed into the standard error output.
+     * @param printer Printer to close.
+     */
+    private void closePrinter(LogPrinter printer) {
+        try {
+            printer.close();
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Publish the record into the ring buffer, the consumer threads are notified only if they are waiting.
      * @param record Record to add.
+     * @return Id of the record or null if the record was dropped because the buffer is full.
      */
     private UUID addRecord(LogRecord record) {
-        if (instance.queue.add(record)) {
-            synchronized (this.logMonitor) {
-                this.logMonitor.notifyAll();
-            }
+        UUID result = null;
+        if (ringBuffer.offer(record)) {
+            result = record.getId();
         }
-        return record.getId();
+        return result;
     }
 
     /**
      * Returns an array that contains al the call stack information to store into the
      * log record. The array contains the element in the next order [className, methodName, lineNumber]
-     * @return Call stack information.
+     * The caller is found walking only the frames until the first frame outside of this class, and the capture
+     * could be disabled for all the records, for the groups lower than a level or for some tags.
+     * @param group Group of the record.
+     * @param tag Tag of the record.
+     * @return Call stack information, the values are empty if the caller is not captured.
      */
-    private static String[] getCallStackInformation() {
-        StackTraceElement element = Thread.currentThread().getStackTrace()[3];
-        return new String[] {element.getClassName(), element.getMethodName(), Integer.toString(element.getLineNumber())};
+    private static String[] getCallStackInformation(LogGroup group, String tag) {
+        String[] result = NO_CALL_STACK_INFORMATION;
+        if(instance.callerCaptureEnabled && group.getOrder() >= instance.callerCaptureLevel &&
+                !instance.callerCaptureDisabledTags.contains(tag)) {
+            StackWalker.StackFrame frame = stackWalker.walk(S -> S.
+                    dropWhile(F -> F.getClassName().equals(Log.class.getName())).findFirst().orElse(null));
+            if(frame != null) {
+                result = new String[] {frame.getClassName(), frame.getMethodName(), Integer.toString(frame.getLineNumber())};
+            }
+        }
+        return result;
     }
 
     /**
@@ -145,8 +202,52 @@ public final class Log extends Service<LogPrinter> {
         instance.registerConsumer(printer);
     }
 
+    /**
+     * This method unregister a printer.
+     * @param printer Printer.
+     */
+    public static void removePrinter(LogPrinter printer) {
+        instance.unregisterConsumer(printer);
+    }
+
     private boolean verifyPrinters() {
-        return SystemProperties.getBoolean(SystemProperties.Log.SYSTEM_OUT_ENABLED) || instance.printers.size() > 0;
+        return systemOutEnabled || instance.printers.size() > 0;
+    }
+
+    /**
+     * Verify if the records of the group are written, this method is called before creating the record in order to
+     * avoid all the cost of the records that are discarded.
+     * @param group Group of the record.
+     * @return True if the record must be created.
+     */
+    private boolean isLoggable(LogGroup group) {
+        return group.getOrder() >= level && verifyPrinters();
+    }
+
+    /**
+     * Verify if the records of the group are written.
+     * @param group Log group.
+     * @return True if the group is enabled.
+     */
+    public static boolean isEnabled(LogGroup group) {
+        return instance.isLoggable(group);
+    }
+
+    /**
+     * Verify if the debug records are written, this method is useful to avoid the creation of the parameters of
+     * the debug records when they are discarded.
+     * @return True if the debug group is enabled.
+     */
+    public static boolean isDebugEnabled() {
+        return instance.isLoggable(LogGroup.DEBUG);
+    }
+
+    /**
+     * Verify if the info records are written.
+     * @return True if the info group is enabled.
+     */
+    public static boolean isInfoEnabled() {
+        return instance.isLoggable(LogGroup.INFO);
     }
 
     /**
@@ -161,9 +262,9 @@ public final class Log extends Service<LogPrinter> {
      */
     public static UUID d(String tag, String message, Object... params) {
         UUID result = null;
-        if(instance.verifyPrinters()) {
+        if(instance.isLoggable(LogGroup.DEBUG)) {
             result = instance.addRecord(new LogRecord(LogGroup.DEBUG, tag, message,
-                    getCallStackInformation(), params));
+                    getCallStackInformation(LogGroup.DEBUG, tag), params));
         }
         return result;
     }
@@ -181,9 +282,9 @@ public final class Log extends Service<LogPrinter> {
      */
     public static UUID d(String tag, String message, Throwable throwable, Object... params) {
         UUID result = null;
-        if(instance.verifyPrinters()) {
+        if(instance.isLoggable(LogGroup.DEBUG)) {
             result = instance.addRecord(new LogRecord(LogGroup.DEBUG, tag, message,
-                    getCallStackInformation(), throwable, params));
+                    getCallStackInformation(LogGroup.DEBUG, tag), throwable, params));
         }
         return result;
     }
@@ -202,9 +303,26 @@ public final class Log extends Service<LogPrinter> {
      */
     public static UUID d(String tag, String message, Boolean printThrowable, Throwable throwable, Object... params) {
         UUID result = null;
-        if(instance.verifyPrinters()) {
+        if(instance.isLoggable(LogGroup.DEBUG)) {
             result = instance.addRecord(new LogRecord(LogGroup.DEBUG, tag, message,
-                    getCallStackInformation(), printThrowable, throwable, params));
+                    getCallStackInformation(LogGroup.DEBUG, tag), printThrowable, throwable, params));
+        }
+        return result;
+    }
+
+    /**
+     * Create a record with debug group ("[D]"). The message is created by the supplier only if the record
+     * is written, then the cost of the discarded records is close to zero.
+     * @param tag Tag of the record
+     * @param message Supplier of the message.
+     * @return Returns the id assigned to the log record created, this id could be null
+     * if the service does not generate any log records
+     */
+    public static UUID d(String tag, Supplier<String> message) {
+        UUID result = null;
+        if(instance.isLoggable(LogGroup.DEBUG)) {
+            result = instance.addRecord(new LogRecord(LogGroup.DEBUG, tag, LAZY_MESSAGE_FORMAT,
+                    getCallStackInformation(LogGroup.DEBUG, tag), message.get()));
         }
         return result;
     }
@@ -221,9 +339,26 @@ public final class Log extends Service<LogPrinter> {
      */
     public static UUID i(String tag, String message, Object... params) {
         UUID result = null;
-        if(instance.verifyPrinters()) {
+        if(instance.isLoggable(LogGroup.INFO)) {
             result = instance.addRecord(new LogRecord(LogGroup.INFO, tag, message,
-                    getCallStackInformation(), params));
+                    getCallStackInformation(LogGroup.INFO, tag), params));
+        }
+        return result;
+    }
+
+    /**
+     * Create a record with info group ("[I]"). The message is created by the supplier only if the record
+     * is written, then the cost of the discarded records is close to zero.
+     * @param tag Tag of the record
+     * @param message Supplier of the message.
+     * @return Returns the id assigned to the log record created, this id could be null
+     * if the service does not generate any log records
+     */
+    public static UUID i(String tag, Supplier<String> message) {
+        UUID result = null;
+        if(instance.isLoggable(LogGroup.INFO)) {
+            result = instance.addRecord(new LogRecord(LogGroup.INFO, tag, LAZY_MESSAGE_FORMAT,
+                    getCallStackInformation(LogGroup.INFO, tag), message.get()));
         }
         return result;
     }
@@ -240,9 +375,9 @@ public final class Log extends Service<LogPrinter> {
      */
     public static UUID in(String tag, String message, Object... params) {
         UUID result = null;
-        if(instance.verifyPrinters()) {
+        if(instance.isLoggable(LogGroup.INPUT)) {
             result = instance.addRecord(new LogRecord(LogGroup.INPUT, tag, message,
-                    getCallStackInformation(), params));
+                    getCallStackInformation(LogGroup.INPUT, tag), params));
         }
         return result;
     }
@@ -259,9 +394,9 @@ public final class Log extends Service<LogPrinter> {
      */
     public static UUID out(String tag, String message, Object... params) {
         UUID result = null;
-        if(instance.verifyPrinters()) {
+        if(instance.isLoggable(LogGroup.OUTPUT)) {
             result = instance.addRecord(new LogRecord(LogGroup.OUTPUT, tag, message,
-                    getCallStackInformation(), params));
+                    getCallStackInformation(LogGroup.OUTPUT, tag), params));
         }
         return result;
     }
@@ -278,9 +413,9 @@ public final class Log extends Service<LogPrinter> {
      */
     public static UUID w(String tag, String message, Object... params) {
         UUID result = null;
-        if(instance.verifyPrinters()) {
+        if(instance.isLoggable(LogGroup.WARNING)) {
             result = instance.addRecord(new LogRecord(LogGroup.WARNING, tag, message,
-                    getCallStackInformation(), params));
+                    getCallStackInformation(LogGroup.WARNING, tag), params));
         }
         return result;
     }
@@ -298,9 +433,9 @@ public final class Log extends Service<LogPrinter> {
      */
     public static UUID w(String tag, String message, Throwable throwable, Object... params) {
         UUID result = null;
-        if(instance.verifyPrinters()) {
+        if(instance.isLoggable(LogGroup.WARNING)) {
             result = instance.addRecord(new LogRecord(LogGroup.WARNING, tag, message,
-                    getCallStackInformation(), throwable, params));
+                    getCallStackInformation(LogGroup.WARNING, tag), throwable, params));
         }
         return result;
     }
@@ -319,9 +454,26 @@ public final class Log extends Service<LogPrinter> {
      */
     public static UUID w(String tag, String message, Boolean printThrowable, Throwable throwable, Object... params) {
         UUID result = null;
-        if(instance.verifyPrinters()) {
+        if(instance.isLoggable(LogGroup.WARNING)) {
             result = instance.addRecord(new LogRecord(LogGroup.WARNING, tag, message,
-                    getCallStackInformation(), printThrowable, throwable, params));
+                    getCallStackInformation(LogGroup.WARNING, tag), printThrowable, throwable, params));
+        }
+        return result;
+    }
+
+    /**
+     * Create a record with warning group ("[W]"). The message is created by the supplier only if the record
+     * is written, then the cost of the discarded records is close to zero.
+     * @param tag Tag of the record
+     * @param message Supplier of the message.
+     * @return Returns the id assigned to the log record created, this id could be null
+     * if the service does not generate any log records
+     */
+    public static UUID w(String tag, Supplier<String> message) {
+        UUID result = null;
+        if(instance.isLoggable(LogGroup.WARNING)) {
+            result = instance.addRecord(new LogRecord(LogGroup.WARNING, tag, LAZY_MESSAGE_FORMAT,
+                    getCallStackInformation(LogGroup.WARNING, tag), message.get()));
         }
         return result;
     }
@@ -338,9 +490,9 @@ public final class Log extends Service<LogPrinter> {
      */
     public static UUID e(String tag, String message, Object... params) {
         UUID result = null;
-        if(instance.verifyPrinters()) {
+        if(instance.isLoggable(LogGroup.ERROR)) {
             result = instance.addRecord(new LogRecord(LogGroup.ERROR, tag, message,
-                    getCallStackInformation(), params));
+                    getCallStackInformation(LogGroup.ERROR, tag), params));
         }
         return result;
     }
@@ -358,9 +510,9 @@ public final class Log extends Service<LogPrinter> {
      */
     public static UUID e(String tag, String message, Throwable throwable, Object... params) {
         UUID result = null;
-        if(instance.verifyPrinters()) {
+        if(instance.isLoggable(LogGroup.ERROR)) {
             result = instance.addRecord(new LogRecord(LogGroup.ERROR, tag, message,
-                    getCallStackInformation(), throwable, params));
+                    getCallStackInformation(LogGroup.ERROR, tag), throwable, params));
         }
         return result;
     }
@@ -379,9 +531,26 @@ public final class Log extends Service<LogPrinter> {
      */
     public static UUID e(String tag, String message, Boolean printThrowable, Throwable throwable, Object... params) {
         UUID result = null;
-        if(instance.verifyPrinters()) {
+        if(instance.isLoggable(LogGroup.ERROR)) {
             result = instance.addRecord(new LogRecord(LogGroup.ERROR, tag, message,
-                    getCallStackInformation(), printThrowable, throwable, params));
+                    getCallStackInformation(LogGroup.ERROR, tag), printThrowable, throwable, params));
+        }
+        return result;
+    }
+
+    /**
+     * Create a record with error group ("[E]"). The message is created by the supplier only if the record
+     * is written, then the cost of the discarded records is close to zero.
+     * @param tag Tag of the record
+     * @param message Supplier of the message.
+     * @return Returns the id assigned to the log record created, this id could be null
+     * if the service does not generate any log records
+     */
+    public static UUID e(String tag, Supplier<String> message) {
+        UUID result = null;
+        if(instance.isLoggable(LogGroup.ERROR)) {
+            result = instance.addRecord(new LogRecord(LogGroup.ERROR, tag, LAZY_MESSAGE_FORMAT,
+                    getCallStackInformation(LogGroup.ERROR, tag), message.get()));
         }
         return result;
     }
@@ -391,69 +560,131 @@ public final class Log extends Service<LogPrinter> {
      * @return Size of the log queue.
      */
     public static Integer getLogQueueSize() {
-        return instance.queue.size();
+        return instance.ringBuffer.size();
+    }
+
+    /**
+     * Return the capacity of the log queue.
+     * @return Capacity of the log queue.
+     */
+    public static Integer getLogQueueCapacity() {
+        return instance.ringBuffer.getCapacity();
+    }
+
+    /**
+     * Return the number of records dropped because the log queue was full.
+     * @return Number of dropped records.
+     */
+    public static Long getDroppedRecords() {
+        return instance.ringBuffer.getDroppedElements();
     }
 
     private class LogRunnable implements Runnable {
 
         /**
-         * Wait to found a recor to print.
+         * Wait to found records to print and drains them in batches, when the log is shutting down the pending
+         * records are printed before ending.
          */
         @Override
         public void run() {
+            List<LogRecord> batch = new ArrayList<>(drainBatchSize);
+            //The records created by the printers or by the code that runs into the consumer are dropped if the
+            //buffer is full, because the consumer can't wait for itself.
+            ringBuffer.registerConsumer();
             try {
-                while(!shuttingDown) {
-                    if(instance.queue.isEmpty()) {
-                        synchronized (Log.this.logMonitor) {
-                            Log.this.logMonitor.wait();
+                while(!shuttingDown || !ringBuffer.isEmpty()) {
+                    if(ringBuffer.drainTo(batch, drainBatchSize) == 0) {
+                        if(!shuttingDown) {
+                            ringBuffer.await();
                         }
+                    } else {
+                        writeRecords(batch);
+                        batch.clear();
                     }
+                }
+            } catch (InterruptedException e) {
+            } finally {
+                ringBuffer.unregisterConsumer();
+            }
+        }
 
-                    try {
-                        writeRecord(instance.queue.remove());
-                    } catch (Exception ex) {}
+        /**
+         * Print the records of the batch in the same order that they were published. The consecutive records of
+         * the same session are printed together into the scope of the session.
+         * @param batch Records to print.
+         */
+        private void writeRecords(List<LogRecord> batch) {
+            batch.removeIf(R -> R.getGroup().getOrder() < level);
+            int start = 0;
+            while (start < batch.size()) {
+                ServiceSession session = batch.get(start).getCurrentSession();
+                int end = start + 1;
+                while (end < batch.size() && batch.get(end).getCurrentSession() == session) {
+                    end++;
                 }
-            } catch (InterruptedException e) {}
+                List<LogRecord> records = batch.subList(start, end);
+                try {
+                    ServiceSession.runAs(() -> printRecords(records), session);
+                } catch (Exception ex) {}
+                start = end;
+            }
         }
 
         /**
-         * Print the record in all the printers registered and the
+         * Print the records in all the printers registered and the
          * syste out printer.
-         * @param record Record to print.
+         * @param records Records to print.
          */
-        private void writeRecord(LogRecord record) {
-            ServiceSession.runAs(() -> {
-                if (record.getGroup().getOrder() >= SystemProperties.getInteger(SystemProperties.Log.LEVEL)) {
-                    printers.forEach(printer -> printer.print(record));
-
-                    if (SystemProperties.getBoolean(SystemProperties.Log.SYSTEM_OUT_ENABLED)) {
-                        if (SystemProperties.getBoolean(SystemProperties.Log.JAVA_STANDARD_LOGGER_ENABLED)) {
-                            Supplier<String> message = () -> String.format(record.getOriginalMessage(), record.getParams());
-                            if (record.getThrowable() != null) {
-                                Logger.getGlobal().logp(record.getGroup().getStandardLevel(),
-                                        record.getClassName(), record.getMethodName(), record.getThrowable(), message);
-                            } else {
-                                Logger.getGlobal().logp(record.getGroup().getStandardLevel(),
-                                        record.getClassName(), record.getMethodName(), message);
-                            }
+        private void printRecords(List<LogRecord> records) {
+            for (LogPrinter printer : printers) {
+                try {
+                    printer.print(records);
+                } catch (Exception ex) {
+                    //The failures of the printers can't be written with the log.
+                    ex.printStackTrace();
+                }
+            }
+
+            if (systemOutEnabled) {
+                if (SystemProperties.getBoolean(SystemProperties.Log.JAVA_STANDARD_LOGGER_ENABLED)) {
+                    for (LogRecord record : records) {
+                        Supplier<String> message = () -> String.format(record.getOriginalMessage(), record.getParams());
+                        if (record.getThrowable() != null) {
+                            Logger.getGlobal().logp(record.getGroup().getStandardLevel(),
+                                    record.getClassName(), record.getMethodName(), record.getThrowable(), message);
                         } else {
-                            if(record.getThrowable() != null) {
-                                System.err.println(record.toString());
-                                System.err.flush();
-                            } else {
-                                System.out.println(record.toString());
+                            Logger.getGlobal().logp(record.getGroup().getStandardLevel(),
+                                    record.getClassName(), record.getMethodName(), message);
+                        }
+                    }
+                } else {
+                    //The records are printed together and the streams are flushed once for all the records.
+                    StringBuilder out = new StringBuilder();
+                    for (LogRecord record : records) {
+                        if(record.getThrowable() != null) {
+                            if(out.length() > 0) {
+                                System.out.print(out);
                                 System.out.flush();
+                                out.setLength(0);
                             }
+                            System.err.println(record.toString());
+                        } else {
+                            out.append(record.toString()).append(System.lineSeparator());
                         }
                     }
+                    System.err.flush();
+                    if(out.length() > 0) {
+                        System.out.print(out);
+                        System.out.flush();
+                    }
                 }
-            }, record.getCurrentSession());
+            }
         }
     }
 
     /**
      * This class contains all the information to write a record in the log.
-     * The instances of this class will be queued sorted chronologically waiting for
+     * The instances of this class will be queued in order of publication waiting for
      * be written
      */
     public static final class LogRecord {
@@ -467,7 +698,6 @@ public final class Log extends Service<LogPrinter> {
         private final String className;
         private final String methodName;
         private final String lineNumber;
-        private final SimpleDateFormat dateFormat;
         private final Object[] params;
         private final Throwable throwable;
         private final Boolean printThrowable;
@@ -487,7 +717,6 @@ public final class Log extends Service<LogPrinter> {
             this.date = new Date();
             this.group = group;
             this.tag = tag;
-            this.dateFormat = new SimpleDateFormat(SystemProperties.get(SystemProperties.Log.DATE_FORMAT));
             this.originalMessage = message;
             this.className = callStackInformation[0];
             this.methodName = callStackInformation[1];
@@ -536,70 +765,7 @@ public final class Log extends Service<LogPrinter> {
          * @return Return the last version of the message.
          */
         private String createMessage() {
-            StringWriter stringWriter = new StringWriter();
-            PrintWriter printWriter = new PrintWriter(stringWriter);
-
-            String group = getGroup().getGroup();
-            String tag = getTag();
-            if(SystemProperties.getBoolean(SystemProperties.Log.TRUNCATE_TAG)) {
-                int truncateSize = SystemProperties.getInteger(SystemProperties.Log.TRUNCATE_TAG_SIZE);
-                if(truncateSize > tag.length()) {
-                    tag = Strings.rightPad(tag, truncateSize);
-                } else if(truncateSize < tag.length()) {
-                    tag = tag.substring(0, truncateSize);
-                }
-            }
-
-            if (getGroup().equals(LogGroup.ERROR)) {
-                printWriter.print(Strings.StandardOutput.RED_BOLD);
-            } else if (getGroup().equals(LogGroup.WARNING)) {
-                printWriter.print(Strings.StandardOutput.YELLOW_BOLD);
-            } else if (getGroup().equals(LogGroup.DEBUG)) {
-                printWriter.print(Strings.StandardOutput.PURPLE_BOLD);
-            } else {
-                printWriter.print(Strings.StandardOutput.GREEN_BOLD);
-            }
-
-            printWriter.print(dateFormat.format(getDate()));
-
-            printWriter.print(Strings.StandardOutput.RESET);
-
-            printWriter.print(" [");
-
-            if (getGroup().equals(LogGroup.ERROR)) {
-                printWriter.print(Strings.StandardOutput.RED_BOLD);
-            } else if (getGroup().equals(LogGroup.WARNING)) {
-                printWriter.print(Strings.StandardOutput.YELLOW_BOLD);
-            } else if (getGroup().equals(LogGroup.DEBUG)) {
-                printWriter.print(Strings.StandardOutput.PURPLE_BOLD);
-            } else {
-                printWriter.print(Strings.StandardOutput.GREEN_BOLD);
-            }
-
-            printWriter.print(group);
-
-            printWriter.print(Strings.StandardOutput.RESET);
-
-            printWriter.print("][");
-            printWriter.print(tag);
-            printWriter.print("][");
-            printWriter.print(getClassName());
-            printWriter.print("][");
-            printWriter.print(getMethodName());
-            printWriter.print("][");
-            printWriter.print(getLineNumber());
-            printWriter.print("] ");
-            printWriter.printf(originalMessage, params);
-
-            if(throwable != null && printThrowable) {
-                printWriter.print("\r\n");
-                throwable.printStackTrace(printWriter);
-            }
-
-            printWriter.flush();
-            printWriter.close();
-
-            return stringWriter.toString();
+            return LogRecordFormatter.format(this);
         }
 
         /**
@@ -670,6 +836,14 @@ public final class Log extends Service<LogPrinter> {
             return params;
         }
 
+        /**
+         * Returns the flag to indicate if the record must print the throwable instance or not.
+         * @return Print throwable flag.
+         */
+        public Boolean getPrintThrowable() {
+            return printThrowable;
+        }
+
         /**
          * Returns the throwable instance of the record.
          * @return Throwable instance.
@@ -2,6 +2,8 @@ package org.hcjf.log;
 
 import org.hcjf.service.ServiceConsumer;
 
+import java.util.List;
+
 /**
  * This class porvide the interface to write the records of
  * the log in different places.
@@ -17,4 +19,23 @@ public interface LogPrinter extends ServiceConsumer {
      */
     public void print(Log.LogRecord record);
 
+    /**
+     * This method print a batch of records, the records are in the same order that they were published.
+     * The printers that write into files, sockets or any other expensive destiny should override this method
+     * in order to write all the batch together.
+     * @param records Batch of records to print.
+     */
+    default void print(List<Log.LogRecord> records) {
+        for(Log.LogRecord record : records) {
+            print(record);
+        }
+    }
+
+    /**
+     * This method is called when the printer is removed from the log or when the log ends, the printers
+     * that keep open resources should override this method in order to flush and release them.
+     */
+    default void close() {
+    }
+
 }
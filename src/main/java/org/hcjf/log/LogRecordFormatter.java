@@ -0,0 +1,345 @@
+package org.hcjf.log;
+
+import org.hcjf.properties.SystemProperties;
+import org.hcjf.utils.Strings;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.Locale;
+
+/**
+ * Formatter of the log records. Each thread has its own formatter instance, then the formatter reuses the same
+ * string builder for all the records and caches the date rendered for the last millisecond. The configuration
+ * is read once and updated by the log when the properties change.
+ * The messages that only use the conversions %s, %d, %n and %% are formatted without create a
+ * {@link Formatter}, the other messages are formatted using a formatter as the printf method.
+ * @author javaito
+ */
+final class LogRecordFormatter {
+
+    private static final int INITIAL_BUILDER_CAPACITY = 256;
+    private static final int MAX_BUILDER_CAPACITY = 64 * 1024;
+    private static final char FORMAT_SPECIFIER = '%';
+    private static final char STRING_CONVERSION = 's';
+    private static final char INTEGER_CONVERSION = 'd';
+    private static final char LINE_SEPARATOR_CONVERSION = 'n';
+    private static final String NULL = "null";
+    private static final String THROWABLE_SEPARATOR = "\r\n";
+    private static final ThreadLocal<LogRecordFormatter> formatters = ThreadLocal.withInitial(LogRecordFormatter::new);
+    private static volatile Configuration configuration;
+
+    private StringBuilder builder;
+    private Configuration currentConfiguration;
+    private SimpleDateFormat simpleDateFormat;
+    private long lastDateTime;
+    private String lastDate;
+
+    private LogRecordFormatter() {
+        this.builder = new StringBuilder(INITIAL_BUILDER_CAPACITY);
+    }
+
+    /**
+     * Reads the configuration of the formatters from the system properties.
+     */
+    static void configure() {
+        configuration = new Configuration();
+    }
+
+    /**
+     * Creates the message of the record using the formatter of the current thread.
+     * @param record Log record.
+     * @return Message of the record.
+     */
+    static String format(Log.LogRecord record) {
+        return formatters.get().createMessage(record);
+    }
+
+    /**
+     * Creates the message of the record.
+     * @param record Log record.
+     * @return Message of the record.
+     */
+    private String createMessage(Log.LogRecord record) {
+        Configuration configuration = LogRecordFormatter.configuration;
+        if(configuration == null) {
+            configure();
+            configuration = LogRecordFormatter.configuration;
+        }
+        if(configuration != currentConfiguration) {
+            currentConfiguration = configuration;
+            simpleDateFormat = null;
+            lastDate = null;
+        }
+
+        builder.setLength(0);
+        String color = getColor(record.getGroup());
+        builder.append(color);
+        appendDate(record.getDate());
+        builder.append(Strings.StandardOutput.RESET);
+        builder.append(" [").append(color).append(record.getGroup().getGroup());
+        builder.append(Strings.StandardOutput.RESET);
+        builder.append("][");
+        appendTag(record.getTag());
+        builder.append("][").append(record.getClassName());
+        builder.append("][").append(record.getMethodName());
+        builder.append("][").append(record.getLineNumber());
+        builder.append("] ");
+        appendMessage(record.getOriginalMessage(), record.getParams());
+
+        if(record.getThrowable() != null && Boolean.TRUE.equals(record.getPrintThrowable())) {
+            builder.append(THROWABLE_SEPARATOR);
+            PrintWriter printWriter = new PrintWriter(new BuilderWriter(builder));
+            record.getThrowable().printStackTrace(printWriter);
+            printWriter.flush();
+        }
+
+        String result = builder.toString();
+        if(builder.capacity() > MAX_BUILDER_CAPACITY) {
+            //The big builders are not retained by the thread.
+            builder = new StringBuilder(INITIAL_BUILDER_CAPACITY);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the color of the group.
+     * @param group Log group.
+     * @return Color of the group.
+     */
+    private static String getColor(Log.LogGroup group) {
+        String result;
+        switch (group) {
+            case ERROR: {
+                result = Strings.StandardOutput.RED_BOLD;
+                break;
+            }
+            case WARNING: {
+                result = Strings.StandardOutput.YELLOW_BOLD;
+                break;
+            }
+            case DEBUG: {
+                result = Strings.StandardOutput.PURPLE_BOLD;
+                break;
+            }
+            default: {
+                result = Strings.StandardOutput.GREEN_BOLD;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Appends the date, the date is rendered once for each millisecond.
+     * @param date Date of the record.
+     */
+    private void appendDate(Date date) {
+        long dateTime = date.getTime();
+        if(lastDate == null || lastDateTime != dateTime) {
+            if(currentConfiguration.dateFormatter != null) {
+                lastDate = currentConfiguration.dateFormatter.format(Instant.ofEpochMilli(dateTime));
+            } else {
+                if(simpleDateFormat == null) {
+                    simpleDateFormat = new SimpleDateFormat(currentConfiguration.datePattern);
+                }
+                lastDate = simpleDateFormat.format(date);
+            }
+            lastDateTime = dateTime;
+        }
+        builder.append(lastDate);
+    }
+
+    /**
+     * Appends the tag, truncated or padded if the configuration says that.
+     * @param tag Tag of the record.
+     */
+    private void appendTag(String tag) {
+        if(currentConfiguration.truncateTag) {
+            int truncateSize = currentConfiguration.truncateTagSize;
+            if(truncateSize < tag.length()) {
+                builder.append(tag, 0, truncateSize);
+            } else {
+                builder.append(tag);
+                for (int i = tag.length(); i < truncateSize; i++) {
+                    builder.append(' ');
+                }
+            }
+        } else {
+            builder.append(tag);
+        }
+    }
+
+    /**
+     * Appends the message replacing the places with the parameters.
+     * @param message Message with the syntax of the class {@link Formatter}.
+     * @param params Parameters of the message.
+     */
+    private void appendMessage(String message, Object[] params) {
+        int start = builder.length();
+        if(params == null || !appendSimpleMessage(message, params)) {
+            builder.setLength(start);
+            new Formatter(builder).format(message, params);
+        }
+    }
+
+    /**
+     * Appends the message without formatter if the message only contains the conversions %s, %d, %n and %%,
+     * and the parameters of the conversions are simple values.
+     * @param message Message with the syntax of the class {@link Formatter}.
+     * @param params Parameters of the message.
+     * @return True if the message was appended and false if it needs a formatter.
+     */
+    private boolean appendSimpleMessage(String message, Object[] params) {
+        boolean result = true;
+        int paramIndex = 0;
+        int start = 0;
+        int length = message.length();
+        for (int i = 0; i < length && result; i++) {
+            if(message.charAt(i) == FORMAT_SPECIFIER) {
+                builder.append(message, start, i);
+                char conversion = i + 1 < length ? message.charAt(i + 1) : 0;
+                if(conversion == FORMAT_SPECIFIER) {
+                    builder.append(FORMAT_SPECIFIER);
+                } else if(conversion == LINE_SEPARATOR_CONVERSION) {
+                    builder.append(System.lineSeparator());
+                } else if(conversion == STRING_CONVERSION && paramIndex < params.length &&
+                        !(params[paramIndex] instanceof Formattable)) {
+                    builder.append(params[paramIndex++]);
+                } else if(conversion == INTEGER_CONVERSION && paramIndex < params.length &&
+                        currentConfiguration.simpleNumbers && (params[paramIndex] instanceof Integer || params[paramIndex] instanceof Long ||
+                                params[paramIndex] instanceof Short || params[paramIndex] instanceof Byte)) {
+                    builder.append(((Number) params[paramIndex++]).longValue());
+                } else if(conversion == INTEGER_CONVERSION && paramIndex < params.length && params[paramIndex] == null) {
+                    builder.append(NULL);
+                    paramIndex++;
+                } else {
+                    result = false;
+                }
+                i++;
+                start = i + 1;
+            }
+        }
+        if(result) {
+            builder.append(message, start, length);
+        }
+        return result;
+    }
+
+    /**
+     * Configuration of the formatters, the instances are immutable and replaced when some property changes.
+     */
+    private static final class Configuration {
+
+        private final String datePattern;
+        private final DateTimeFormatter dateFormatter;
+        private final boolean truncateTag;
+        private final int truncateTagSize;
+        private final boolean simpleNumbers;
+
+        private Configuration() {
+            datePattern = SystemProperties.get(SystemProperties.Log.DATE_FORMAT);
+            DateTimeFormatter formatter = null;
+            if(isJavaTimeCompatible(datePattern)) {
+                try {
+                    formatter = DateTimeFormatter.ofPattern(datePattern).withZone(ZoneId.systemDefault());
+                } catch (IllegalArgumentException ex) {
+                    formatter = null;
+                }
+            }
+            dateFormatter = formatter;
+            truncateTag = SystemProperties.getBoolean(SystemProperties.Log.TRUNCATE_TAG);
+            truncateTagSize = SystemProperties.getInteger(SystemProperties.Log.TRUNCATE_TAG_SIZE);
+            //The integers are appended without formatter only if the digits of the locale are 0-9.
+            simpleNumbers = DecimalFormatSymbols.getInstance(
+                    Locale.getDefault(Locale.Category.FORMAT)).getZeroDigit() == '0';
+        }
+    }
+
+    /**
+     * The property {@link SystemProperties.Log#DATE_FORMAT} is a pattern of {@link SimpleDateFormat}, a lot of
+     * patterns are valid for java.time too but they are rendered in other way (for example 'u', 'Y', 'S', 'Z' or
+     * 'a'), then only the patterns that are rendered in the same way by both formatters are rendered with java.time:
+     * years (yy, yyyy), numeric months (M, MM), days, hours, minutes and seconds (one or two letters), milliseconds
+     * (SSS) and literals.
+     * @param pattern Date pattern.
+     * @return True if the pattern could be rendered with java.time.
+     */
+    private static boolean isJavaTimeCompatible(String pattern) {
+        boolean result = true;
+        boolean quoted = false;
+        int length = pattern.length();
+        for (int i = 0; i < length && result; i++) {
+            char character = pattern.charAt(i);
+            if(character == '\'') {
+                quoted = !quoted;
+            } else if(!quoted) {
+                if((character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z')) {
+                    int count = 1;
+                    while (i + 1 < length && pattern.charAt(i + 1) == character) {
+                        count++;
+                        i++;
+                    }
+                    switch (character) {
+                        case 'y': {
+                            result = count == 2 || count == 4;
+                            break;
+                        }
+                        case 'S': {
+                            result = count == 3;
+                            break;
+                        }
+                        case 'M': case 'd': case 'H': case 'h': case 'm': case 's': {
+                            result = count <= 2;
+                            break;
+                        }
+                        default: {
+                            result = false;
+                        }
+                    }
+                } else {
+                    //These characters are reserved by java.time.
+                    result = character != '[' && character != ']' && character != '{' &&
+                            character != '}' && character != '#';
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writer that appends the characters into a string builder, used to print the stack traces.
+     */
+    private static final class BuilderWriter extends Writer {
+
+        private final StringBuilder builder;
+
+        private BuilderWriter(StringBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            builder.append(buffer, offset, length);
+        }
+
+        @Override
+        public void write(String string, int offset, int length) {
+            builder.append(string, offset, offset + length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package org.hcjf.log;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded and preallocated ring buffer for many producers and few consumers. Each slot has a sequence number
+ * that says if the slot is free or published, then the producers claim a slot with a single compare and set
+ * and never take a lock, and the consumers read the slots in the same order that they were claimed.
+ * When the buffer is full the producers drop the element or wait until a slot is free, depending on the
+ * full policy, and the consumers wait for new elements using the configured wait strategy. A consumer thread never
+ * waits for a free slot because only the consumers free the slots, then the elements published by the registered
+ * consumers are dropped when the buffer is full.
+ * @param <E> Type of the elements.
+ * @author javaito
+ */
+final class RingBuffer<E extends Object> {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final long SLEEPING_WAIT_TIME = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int SPIN_TRIES = 100;
+
+    private final AtomicReferenceArray<E> entries;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail;
+    private final AtomicLong head;
+    private final WaitStrategy waitStrategy;
+    private final FullPolicy fullPolicy;
+    private final LongAdder droppedElements;
+    private final AtomicInteger waitingConsumers;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Set<Thread> consumers;
+    private volatile boolean stopped;
+
+    /**
+     * Constructor.
+     * @param capacity Min capacity of the buffer, the capacity is rounded to the next power of two.
+     * @param waitStrategy Strategy used by the consumers to wait new elements.
+     * @param fullPolicy Policy applied when the buffer is full.
+     */
+    RingBuffer(int capacity, WaitStrategy waitStrategy, FullPolicy fullPolicy) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be greater than zero");
+        }
+        int size = capacity >= MAX_CAPACITY ? MAX_CAPACITY : Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.entries = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.tail = new AtomicLong();
+        this.head = new AtomicLong();
+        this.waitStrategy = waitStrategy == null ? WaitStrategy.BLOCKING : waitStrategy;
+        this.fullPolicy = fullPolicy == null ? FullPolicy.BLOCK : fullPolicy;
+        this.droppedElements = new LongAdder();
+        this.waitingConsumers = new AtomicInteger();
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+        this.consumers = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Publishes an element into the buffer, if the buffer is full then the element is dropped or the method waits
+     * until some slot is free, depending on the full policy. The registered consumers never wait.
+     * @param element Element to publish.
+     * @return True if the element was published and false if it was dropped.
+     */
+    boolean offer(E element) {
+        if(element == null) {
+            throw new NullPointerException("Null element");
+        }
+        boolean result = tryOffer(element);
+        if(!result && fullPolicy == FullPolicy.BLOCK && !consumers.contains(Thread.currentThread())) {
+            int tries = 0;
+            while (!result && !stopped) {
+                if(tries++ < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(SLEEPING_WAIT_TIME);
+                }
+                result = tryOffer(element);
+            }
+        }
+        if(result) {
+            if(waitStrategy == WaitStrategy.BLOCKING && waitingConsumers.get() > 0) {
+                lock.lock();
+                try {
+                    notEmpty.signal();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } else {
+            droppedElements.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Tries to claim the next free slot and publish the element into it.
+     * @param element Element to publish.
+     * @return True if the element was published or false if the buffer is full.
+     */
+    private boolean tryOffer(E element) {
+        boolean result = false;
+        boolean full = false;
+        long position = tail.get();
+        while (!result && !full) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if(difference == 0) {
+                if(tail.compareAndSet(position, position + 1)) {
+                    entries.set(index, element);
+                    sequences.set(index, position + 1);
+                    result = true;
+                } else {
+                    position = tail.get();
+                }
+            } else if(difference < 0) {
+                full = true;
+            } else {
+                position = tail.get();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the next published element.
+     * @return Next element or null if the buffer is empty.
+     */
+    E poll() {
+        E result = null;
+        boolean empty = false;
+        long position = head.get();
+        while (result == null && !empty) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if(difference == 0) {
+                if(head.compareAndSet(position, position + 1)) {
+                    result = entries.get(index);
+                    entries.set(index, null);
+                    sequences.set(index, position + mask + 1);
+                } else {
+                    position = head.get();
+                }
+            } else if(difference < 0) {
+                empty = true;
+            } else {
+                position = head.get();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes up to max elements and adds them into the collection, in order of publication.
+     * @param collection Collection to store the elements.
+     * @param max Max number of elements to remove.
+     * @return Number of elements removed.
+     */
+    int drainTo(Collection<? super E> collection, int max) {
+        int result = 0;
+        E element = result < max ? poll() : null;
+        while (element != null) {
+            collection.add(element);
+            result++;
+            element = result < max ? poll() : null;
+        }
+        return result;
+    }
+
+    /**
+     * Verify if the buffer hasn't published elements.
+     * @return True if the buffer is empty.
+     */
+    boolean isEmpty() {
+        long position = head.get();
+        return sequences.get((int) position & mask) - (position + 1) < 0;
+    }
+
+    /**
+     * Waits until some element is published or the buffer is stopped, using the wait strategy.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    void await() throws InterruptedException {
+        switch (waitStrategy) {
+            case BLOCKING: {
+                lock.lockInterruptibly();
+                try {
+                    waitingConsumers.incrementAndGet();
+                    try {
+                        while (isEmpty() && !stopped) {
+                            notEmpty.await();
+                        }
+                    } finally {
+                        waitingConsumers.decrementAndGet();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                break;
+            }
+            case SLEEPING: {
+                while (isEmpty() && !stopped) {
+                    LockSupport.parkNanos(SLEEPING_WAIT_TIME);
+                    if(Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                }
+                break;
+            }
+            case YIELDING: {
+                int tries = 0;
+                while (isEmpty() && !stopped) {
+                    if(tries++ < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                    } else {
+                        Thread.yield();
+                    }
+                    if(Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Registers the current thread as consumer of the buffer.
+     */
+    void registerConsumer() {
+        consumers.add(Thread.currentThread());
+    }
+
+    /**
+     * Removes the current thread from the consumers of the buffer.
+     */
+    void unregisterConsumer() {
+        consumers.remove(Thread.currentThread());
+    }
+
+    /**
+     * Stops the buffer: the consumers that are waiting are released and the producers that are waiting for a free
+     * slot drop their elements. The published elements still could be removed.
+     */
+    void stop() {
+        stopped = true;
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of elements published and not removed yet.
+     * @return Size of the buffer.
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    /**
+     * Returns the max number of elements into the buffer.
+     * @return Capacity of the buffer.
+     */
+    int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the number of elements dropped because the buffer was full.
+     * @return Dropped elements.
+     */
+    long getDroppedElements() {
+        return droppedElements.sum();
+    }
+
+    /**
+     * Strategies used by the consumers to wait new elements.
+     */
+    enum WaitStrategy {
+
+        /**
+         * The consumers wait on a condition that is signaled by the producers only when some consumer is waiting.
+         */
+        BLOCKING,
+
+        /**
+         * The consumers sleep a short time between checks, the producers never signal.
+         */
+        SLEEPING,
+
+        /**
+         * The consumers spin and yield the processor between checks, this strategy has the lowest latency but
+         * it uses the processor while the buffer is empty.
+         */
+        YIELDING
+
+    }
+
+    /**
+     * Policies applied when the buffer is full.
+     */
+    enum FullPolicy {
+
+        /**
+         * The producer waits until some slot is free, except if the producer is a consumer of the buffer.
+         */
+        BLOCK,
+
+        /**
+         * The element is dropped and counted.
+         */
+        DROP
+
+    }
+}
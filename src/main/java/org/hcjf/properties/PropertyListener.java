@@ -0,0 +1,16 @@
+package org.hcjf.properties;
+
+/**
+ * This interface define the listeners notified when the value of a property changes.
+ * @author javaito
+ */
+public interface PropertyListener {
+
+    /**
+     * This method is called after the value of the property is updated.
+     * @param propertyName Name of the property.
+     * @param value New value of the property.
+     */
+    void onPropertyChange(String propertyName, String value);
+
+}
@@ -15,6 +15,8 @@ import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Pattern;
 
 /**
@@ -71,6 +73,17 @@ public final class SystemProperties extends Properties {
         public static final String PLUGIN_FILE_ACCESS_GRANT = "hcjf.layers.plugin.file.access.grant";
         public static final String DISTRIBUTED_LAYER_ENABLED = "hcjf.layers.distributed.layer.enabled";
         public static final String NETWORK_SOCKET_IMPLEMENTATION = "hcjf.layers.distributed.layer.network.socket.implementation";
+        public static final String LOOKUP_CACHE_SIZE = "hcjf.layers.lookup.cache.size";
+        public static final String LOOKUP_CACHE_TIME = "hcjf.layers.lookup.cache.time";
+        public static final String DISTRIBUTED_BATCH_ENABLED = "hcjf.layers.distributed.batch.enabled";
+        public static final String DISTRIBUTED_BATCH_WINDOW = "hcjf.layers.distributed.batch.window";
+        public static final String DISTRIBUTED_BATCH_MAX_SIZE = "hcjf.layers.distributed.batch.max.size";
+        public static final String DISTRIBUTED_BATCH_TIMEOUT = "hcjf.layers.distributed.batch.timeout";
+        public static final String DISTRIBUTED_LOAD_BALANCING_STRATEGY = "hcjf.layers.distributed.load.balancing.strategy";
+        public static final String DISTRIBUTED_ENDPOINTS_REFRESH_TIME = "hcjf.layers.distributed.endpoints.refresh.time";
+        public static final String DISTRIBUTED_CIRCUIT_BREAKER_FAILURES = "hcjf.layers.distributed.circuit.breaker.failures";
+        public static final String DISTRIBUTED_CIRCUIT_BREAKER_OPEN_TIME = "hcjf.layers.distributed.circuit.breaker.open.time";
+        public static final String DISTRIBUTED_PUBLICATION_CACHE_TIME = "hcjf.layers.distributed.publication.cache.time";
     }
 
     public static final class Log {
@@ -90,6 +103,19 @@ public final class SystemProperties extends Properties {
         public static final String TRUNCATE_TAG = "hcjf.log.truncate.tag";
         public static final String TRUNCATE_TAG_SIZE = "hcjf.log.truncate.tag.size";
         public static final String LOG_CONSUMERS_SIZE = "hcjf.log.consumers.size";
+        public static final String PATH = "hcjf.log.path";
+        public static final String FILE_BUFFER_SIZE = "hcjf.log.file.buffer.size";
+        public static final String FILE_MAX_SIZE = "hcjf.log.file.max.size";
+        public static final String FILE_ROTATION_TIME = "hcjf.log.file.rotation.time";
+        public static final String FILE_COMPRESSION_ENABLED = "hcjf.log.file.compression.enabled";
+        public static final String FILE_SYNC_ENABLED = "hcjf.log.file.sync.enabled";
+        public static final String RING_BUFFER_SIZE = "hcjf.log.ring.buffer.size";
+        public static final String WAIT_STRATEGY = "hcjf.log.wait.strategy";
+        public static final String FULL_POLICY = "hcjf.log.full.policy";
+        public static final String DRAIN_BATCH_SIZE = "hcjf.log.drain.batch.size";
+        public static final String CALLER_CAPTURE_ENABLED = "hcjf.log.caller.capture.enabled";
+        public static final String CALLER_CAPTURE_LEVEL = "hcjf.log.caller.capture.level";
+        public static final String CALLER_CAPTURE_DISABLED_TAGS = "hcjf.log.caller.capture.disabled.tags";
     }
 
     public static final class Service {
@@ -109,6 +135,14 @@ public final class SystemProperties extends Properties {
         public static final String MAX_ALLOCATED_MEMORY_FOR_THREAD = "max.allocated.memory.for.thread";
         public static final String MAX_EXECUTION_TIME_FOR_THREAD = "max.execution.time.for.thread";
         public static final String MAX_ALLOCATED_MEMORY_EXCEEDED_THROWS_EXCEPTION = "max.allocated.memory.exceeded.throws.exception";
+        public static final String THREAD_ACCOUNTING_SAMPLE_RATE = "hcjf.service.thread.accounting.sample.rate";
+        public static final String THREAD_BUDGET_ENABLED = "hcjf.service.thread.budget.enabled";
+        public static final String PRIORITY_SCHEDULER_ENABLED = "hcjf.service.priority.scheduler.enabled";
+        public static final String PRIORITY_SCHEDULER_QUEUE_LATENCY_TARGET = "hcjf.service.priority.scheduler.queue.latency.target";
+        public static final String BOUNDED_EXECUTOR_ENABLED = "hcjf.service.bounded.executor.enabled";
+        public static final String BOUNDED_EXECUTOR_QUEUE_SIZE = "hcjf.service.bounded.executor.queue.size";
+        public static final String BOUNDED_EXECUTOR_REJECTION_POLICY = "hcjf.service.bounded.executor.rejection.policy";
+        public static final String MAX_EXECUTION_TIME_EXCEEDED_THROWS_EXCEPTION = "max.execution.time.exceeded.throws.exception";
     }
 
     private static final String PROPERTY_PACKAGE = "org.hcjf.properties";
@@ -134,12 +168,14 @@ public final class SystemProperties extends Properties {
     }
 
     private final Map<String, Object> instancesCache;
+    private final transient Map<String, List<PropertyListener>> listeners;
     private final Gson gson;
 
 
     private SystemProperties() {
         super(new Properties());
         instancesCache = new HashMap<>();
+        listeners = new ConcurrentHashMap<>();
         gson = new Gson();
 
         defaults.put(HCJF_DEFAULT_DATE_FORMAT, "yyyy-MM-dd HH:mm:ss");
@@ -174,6 +210,17 @@ public final class SystemProperties extends Properties {
         defaults.put(Layer.READABLE_ALL_LAYER_IMPLEMENTATION_NAME, "system_layer");
         defaults.put(Layer.READABLE_LAYER_IMPLEMENTATION_NAME, "system_readable_layer");
         defaults.put(Layer.DISTRIBUTED_LAYER_ENABLED, "false");
+        defaults.put(Layer.LOOKUP_CACHE_SIZE, "10000");
+        defaults.put(Layer.LOOKUP_CACHE_TIME, "5000");
+        defaults.put(Layer.DISTRIBUTED_BATCH_ENABLED, "false");
+        defaults.put(Layer.DISTRIBUTED_BATCH_WINDOW, "500");
+        defaults.put(Layer.DISTRIBUTED_BATCH_MAX_SIZE, "64");
+        defaults.put(Layer.DISTRIBUTED_BATCH_TIMEOUT, "30000");
+        defaults.put(Layer.DISTRIBUTED_LOAD_BALANCING_STRATEGY, "org.hcjf.layers.distributed.PowerOfTwoChoicesStrategy");
+        defaults.put(Layer.DISTRIBUTED_ENDPOINTS_REFRESH_TIME, "5000");
+        defaults.put(Layer.DISTRIBUTED_CIRCUIT_BREAKER_FAILURES, "5");
+        defaults.put(Layer.DISTRIBUTED_CIRCUIT_BREAKER_OPEN_TIME, "5000");
+        defaults.put(Layer.DISTRIBUTED_PUBLICATION_CACHE_TIME, "10000");
 
         defaults.put(Log.SERVICE_NAME, "LogService");
         defaults.put(Log.SERVICE_PRIORITY, "0");
@@ -190,7 +237,20 @@ public final class SystemProperties extends Properties {
         defaults.put(Log.QUEUE_INITIAL_SIZE, "10000");
         defaults.put(Log.TRUNCATE_TAG, "false");
         defaults.put(Log.TRUNCATE_TAG_SIZE, "35");
-        defaults.put(Log.LOG_CONSUMERS_SIZE, "50");
+        defaults.put(Log.LOG_CONSUMERS_SIZE, "1");
+        defaults.put(Log.PATH, ".");
+        defaults.put(Log.FILE_BUFFER_SIZE, "1048576");
+        defaults.put(Log.FILE_MAX_SIZE, "104857600");
+        defaults.put(Log.FILE_ROTATION_TIME, "0");
+        defaults.put(Log.FILE_COMPRESSION_ENABLED, "false");
+        defaults.put(Log.FILE_SYNC_ENABLED, "false");
+        defaults.put(Log.RING_BUFFER_SIZE, "16384");
+        defaults.put(Log.WAIT_STRATEGY, "BLOCKING");
+        defaults.put(Log.FULL_POLICY, "DROP");
+        defaults.put(Log.DRAIN_BATCH_SIZE, "256");
+        defaults.put(Log.CALLER_CAPTURE_ENABLED, "true");
+        defaults.put(Log.CALLER_CAPTURE_LEVEL, "0");
+        defaults.put(Log.CALLER_CAPTURE_DISABLED_TAGS, "[]");
 
         defaults.put(Service.STATIC_VIRTUAL_THREAD_POOL, "true");
         defaults.put(Service.STATIC_THREAD_NAME, "StaticServiceThread");
@@ -207,7 +267,15 @@ public final class SystemProperties extends Properties {
         defaults.put(Service.MAX_ALLOCATED_MEMORY_EXPRESSED_IN_PERCENTAGE, "true");
         defaults.put(Service.MAX_ALLOCATED_MEMORY_EXCEEDED_THROWS_EXCEPTION, "false");
         defaults.put(Service.MAX_ALLOCATED_MEMORY_FOR_THREAD, "15");
-        defaults.put(Service.MAX_EXECUTION_TIME_FOR_THREAD, Long.toString(10*1000*1000*1000));
+        defaults.put(Service.MAX_EXECUTION_TIME_FOR_THREAD, Long.toString(10L*1000*1000*1000));
+        defaults.put(Service.MAX_EXECUTION_TIME_EXCEEDED_THROWS_EXCEPTION, "false");
+        defaults.put(Service.THREAD_ACCOUNTING_SAMPLE_RATE, "1");
+        defaults.put(Service.THREAD_BUDGET_ENABLED, "false");
+        defaults.put(Service.PRIORITY_SCHEDULER_ENABLED, "false");
+        defaults.put(Service.PRIORITY_SCHEDULER_QUEUE_LATENCY_TARGET, "500");
+        defaults.put(Service.BOUNDED_EXECUTOR_ENABLED, "false");
+        defaults.put(Service.BOUNDED_EXECUTOR_QUEUE_SIZE, "1000");
+        defaults.put(Service.BOUNDED_EXECUTOR_REJECTION_POLICY, "REJECT");
 
         Properties system = System.getProperties();
         putAll(system);
@@ -254,13 +322,47 @@ public final class SystemProperties extends Properties {
             instancesCache.remove(key);
         }
 
-        try {
-            //TODO: Create listeners
-        } catch (Exception ex){}
+        List<PropertyListener> propertyListeners = listeners.get(key);
+        if(propertyListeners != null) {
+            for(PropertyListener listener : propertyListeners) {
+                try {
+                    listener.onPropertyChange(key, value);
+                } catch (Exception ex){}
+            }
+        }
 
         return result;
     }
 
+    /**
+     * Add a listener to be notified each time that the value of the property is updated.
+     * @param propertyName Name of the property.
+     * @param listener Listener instance.
+     */
+    public static void addPropertyListener(String propertyName, PropertyListener listener) {
+        if(propertyName == null) {
+            throw new NullPointerException("Invalid property name null");
+        }
+
+        if(listener == null) {
+            throw new NullPointerException("Invalid listener null");
+        }
+
+        instance.listeners.computeIfAbsent(propertyName, K -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Removes a listener of the property.
+     * @param propertyName Name of the property.
+     * @param listener Listener instance.
+     */
+    public static void removePropertyListener(String propertyName, PropertyListener listener) {
+        List<PropertyListener> propertyListeners = instance.listeners.get(propertyName);
+        if(propertyListeners != null) {
+            propertyListeners.remove(listener);
+        }
+    }
+
     /**
      * This method return the string value of the system property
      * named like the parameter.
@@ -0,0 +1,319 @@
+package org.hcjf.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This executor runs at most a fixed number of tasks at the same time and queues a limited number of pending
+ * tasks in order of arrival, each running task has its own thread created by the thread factory (usually a
+ * virtual thread factory). When the queue is full the new tasks are rejected or executed by the caller thread,
+ * depending on the rejection policy, then the overload is propagated to the producers instead of accumulating
+ * tasks without limit.
+ * @author javaito
+ */
+public class BoundedExecutorService extends AbstractExecutorService implements ExecutorMetrics {
+
+    private final ThreadFactory threadFactory;
+    private final int maxConcurrency;
+    private final int maxQueueSize;
+    private final RejectionPolicy rejectionPolicy;
+    private final ConcurrentLinkedQueue<QueuedTask> queue;
+    private final AtomicInteger queueSize;
+    private final AtomicInteger activeTasks;
+    private final Set<Thread> workers;
+    private final LongAdder rejectedTasks;
+    private final LongAdder callerRunsTasks;
+    private final LongAdder queuedTasks;
+    private final LongAdder queueTime;
+    private final Object terminationLock;
+    private volatile long queueLatency;
+    private volatile boolean shutdown;
+
+    /**
+     * Constructor.
+     * @param threadFactory Factory of the threads to execute the tasks.
+     * @param maxConcurrency Max number of tasks running at the same time.
+     * @param maxQueueSize Max number of pending tasks.
+     * @param rejectionPolicy Policy applied when the queue is full.
+     */
+    public BoundedExecutorService(ThreadFactory threadFactory, int maxConcurrency, int maxQueueSize,
+                                  RejectionPolicy rejectionPolicy) {
+        if(maxConcurrency <= 0) {
+            throw new IllegalArgumentException("The max concurrency must be greater than zero");
+        }
+        this.threadFactory = threadFactory;
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueueSize = Math.max(maxQueueSize, 0);
+        this.rejectionPolicy = rejectionPolicy == null ? RejectionPolicy.REJECT : rejectionPolicy;
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.queueSize = new AtomicInteger();
+        this.activeTasks = new AtomicInteger();
+        this.workers = ConcurrentHashMap.newKeySet();
+        this.rejectedTasks = new LongAdder();
+        this.callerRunsTasks = new LongAdder();
+        this.queuedTasks = new LongAdder();
+        this.queueTime = new LongAdder();
+        this.terminationLock = new Object();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if(command == null) {
+            throw new NullPointerException("Null command");
+        }
+        if(shutdown) {
+            throw new RejectedExecutionException("Executor shutdown");
+        }
+        if(queueSize.get() == 0 && tryAcquire(activeTasks, maxConcurrency)) {
+            queueLatency = 0;
+            startWorker(command);
+        } else if(tryAcquire(queueSize, maxQueueSize)) {
+            queue.offer(new QueuedTask(command));
+            dispatch();
+        } else if(rejectionPolicy == RejectionPolicy.CALLER_RUNS) {
+            callerRunsTasks.increment();
+            command.run();
+        } else {
+            rejectedTasks.increment();
+            throw new RejectedExecutionException("Bounded executor saturated");
+        }
+    }
+
+    /**
+     * Increments the counter if the value is lower than the limit.
+     * @param counter Counter instance.
+     * @param limit Max value of the counter.
+     * @return True if the counter was incremented.
+     */
+    private static boolean tryAcquire(AtomicInteger counter, int limit) {
+        boolean result = false;
+        int current = counter.get();
+        while (current < limit && !result) {
+            result = counter.compareAndSet(current, current + 1);
+            if(!result) {
+                current = counter.get();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts new workers while there are pending tasks and the max concurrency is not reached.
+     */
+    private void dispatch() {
+        while (!queue.isEmpty() && tryAcquire(activeTasks, maxConcurrency)) {
+            Runnable task = pollTask();
+            if(task == null) {
+                release();
+            } else {
+                startWorker(task);
+            }
+        }
+    }
+
+    /**
+     * Starts a new worker with the task.
+     * @param task First task of the worker.
+     */
+    private void startWorker(Runnable task) {
+        Thread worker = threadFactory.newThread(() -> work(task));
+        if(worker == null) {
+            release();
+            throw new RejectedExecutionException("Unable to create worker thread");
+        }
+        worker.start();
+    }
+
+    /**
+     * Returns the next pending task and updates the queue gauges.
+     * @return Next task or null if the queue is empty.
+     */
+    private Runnable pollTask() {
+        Runnable result = null;
+        QueuedTask queuedTask = queue.poll();
+        if(queuedTask != null) {
+            queueSize.decrementAndGet();
+            long latency = System.nanoTime() - queuedTask.enqueueTime;
+            queueLatency = latency;
+            queueTime.add(latency);
+            queuedTasks.increment();
+            result = queuedTask.task;
+        }
+        return result;
+    }
+
+    /**
+     * Executes the task and then the next tasks of the queue until the queue is empty.
+     * @param firstTask First task of the worker.
+     */
+    private void work(Runnable firstTask) {
+        Thread currentThread = Thread.currentThread();
+        workers.add(currentThread);
+        try {
+            Runnable task = firstTask;
+            while (task != null) {
+                task.run();
+                Thread.interrupted();
+                task = pollTask();
+            }
+        } finally {
+            workers.remove(currentThread);
+            release();
+            dispatch();
+        }
+    }
+
+    /**
+     * Decrements the number of active tasks and notifies the termination if the executor is shutdown.
+     */
+    private void release() {
+        if(activeTasks.decrementAndGet() == 0 && shutdown) {
+            synchronized (terminationLock) {
+                terminationLock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    /**
+     * Returns the max number of pending tasks.
+     * @return Max queue size.
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    @Override
+    public int getActiveTasks() {
+        return activeTasks.get();
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public long getQueueLatency() {
+        return queueLatency;
+    }
+
+    /**
+     * Returns the mean of the time that the tasks waited into the queue, the tasks started without wait are not
+     * included.
+     * @return Mean queue latency in nanoseconds.
+     */
+    public double getMeanQueueLatency() {
+        long count = queuedTasks.sum();
+        return count == 0 ? 0 : queueTime.sum() / (double) count;
+    }
+
+    @Override
+    public long getRejectedTasks() {
+        return rejectedTasks.sum();
+    }
+
+    /**
+     * Returns the number of tasks executed by the caller thread because the queue was full.
+     * @return Caller runs tasks.
+     */
+    public long getCallerRunsTasks() {
+        return callerRunsTasks.sum();
+    }
+
+    /**
+     * Returns the rejection policy of the executor.
+     * @return Rejection policy.
+     */
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        synchronized (terminationLock) {
+            terminationLock.notifyAll();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        List<Runnable> result = new ArrayList<>();
+        Runnable task = pollTask();
+        while (task != null) {
+            result.add(task);
+            task = pollTask();
+        }
+        workers.forEach(Thread::interrupt);
+        return result;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && activeTasks.get() == 0 && queue.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (terminationLock) {
+            long remaining = deadline - System.nanoTime();
+            while (!isTerminated() && remaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(terminationLock, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        }
+        return isTerminated();
+    }
+
+    /**
+     * Policies applied when the queue of the executor is full.
+     */
+    public enum RejectionPolicy {
+
+        /**
+         * The task is rejected with a {@link RejectedExecutionException}.
+         */
+        REJECT,
+
+        /**
+         * The task is executed by the thread that submits it.
+         */
+        CALLER_RUNS
+
+    }
+
+    /**
+     * Pending task with the time when it was queued.
+     */
+    private static final class QueuedTask {
+
+        private final Runnable task;
+        private final long enqueueTime;
+
+        private QueuedTask(Runnable task) {
+            this.task = task;
+            this.enqueueTime = System.nanoTime();
+        }
+    }
+}
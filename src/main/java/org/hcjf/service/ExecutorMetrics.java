@@ -0,0 +1,39 @@
+package org.hcjf.service;
+
+/**
+ * Gauges of the executors that queue the tasks when the max concurrency is reached.
+ * @author javaito
+ */
+public interface ExecutorMetrics {
+
+    /**
+     * Returns the number of tasks waiting to start.
+     * @return Queue size.
+     */
+    int getQueueSize();
+
+    /**
+     * Returns the number of tasks running.
+     * @return Active tasks.
+     */
+    int getActiveTasks();
+
+    /**
+     * Returns the max number of tasks running at the same time.
+     * @return Max concurrency.
+     */
+    int getMaxConcurrency();
+
+    /**
+     * Returns the time that the last task started waited into the queue.
+     * @return Queue latency in nanoseconds.
+     */
+    long getQueueLatency();
+
+    /**
+     * Returns the number of tasks rejected by the executor.
+     * @return Rejected tasks.
+     */
+    long getRejectedTasks();
+
+}
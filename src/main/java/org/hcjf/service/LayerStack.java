@@ -0,0 +1,68 @@
+package org.hcjf.service;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Array-backed stack of the layers invoked by a thread. The stack is confined to its thread, then it doesn't
+ * need any lock, and it's viewed as a list where the index zero is the head of the stack.
+ * @author javaito
+ */
+final class LayerStack extends AbstractList<ServiceSession.LayerStackElement> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private ServiceSession.LayerStackElement[] elements;
+    private int size;
+
+    LayerStack() {
+        this.elements = new ServiceSession.LayerStackElement[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Puts an element on the head of the stack.
+     * @param element Layer stack element.
+     */
+    void push(ServiceSession.LayerStackElement element) {
+        if(size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = element;
+    }
+
+    /**
+     * Removes the head of the stack, if the stack is empty then nothing happens.
+     */
+    void pop() {
+        if(size > 0) {
+            elements[--size] = null;
+        }
+    }
+
+    /**
+     * Removes all the elements of the stack.
+     */
+    void reset() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the element in the position from the head of the stack.
+     * @param index Position from the head, zero is the head.
+     * @return Layer stack element.
+     */
+    @Override
+    public ServiceSession.LayerStackElement get(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return elements[size - 1 - index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
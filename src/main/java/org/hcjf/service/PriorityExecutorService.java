@@ -0,0 +1,356 @@
+package org.hcjf.service;
+
+import org.hcjf.errors.HCJFServiceTimeoutException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This executor runs at most a fixed number of tasks at the same time, and the pending tasks are sorted by
+ * priority lane ({@link TaskPriority}) and inside each lane by deadline (earliest deadline first), the tasks
+ * without deadline are executed in order of arrival after the tasks with deadline.
+ * The executor includes an admission control: when the time that the tasks wait into the queue is greater than
+ * the target latency, the new tasks with priority lower than {@link TaskPriority#HIGH} are rejected, and the tasks
+ * whose deadline is reached before starting are shed (the future ends with a {@link HCJFServiceTimeoutException}).
+ * @author javaito
+ */
+public class PriorityExecutorService extends AbstractExecutorService implements ExecutorMetrics {
+
+    private final ThreadFactory threadFactory;
+    private final int maxConcurrency;
+    private final long queueLatencyTarget;
+    private final PriorityBlockingQueue<PriorityTask<?>> queue;
+    private final AtomicInteger activeTasks;
+    private final AtomicLong sequence;
+    private final Set<Thread> workers;
+    private final LongAdder rejectedTasks;
+    private final LongAdder shedTasks;
+    private final Object terminationLock;
+    private volatile long queueLatency;
+    private volatile boolean shutdown;
+
+    /**
+     * Constructor.
+     * @param threadFactory Factory of the threads to execute the tasks.
+     * @param maxConcurrency Max number of tasks running at the same time.
+     * @param queueLatencyTarget Target of the time into the queue in milliseconds, if the value is lower or equals
+     *                           than zero then the admission control is disabled.
+     */
+    public PriorityExecutorService(ThreadFactory threadFactory, int maxConcurrency, long queueLatencyTarget) {
+        if(maxConcurrency <= 0) {
+            throw new IllegalArgumentException("The max concurrency must be greater than zero");
+        }
+        this.threadFactory = threadFactory;
+        this.maxConcurrency = maxConcurrency;
+        this.queueLatencyTarget = TimeUnit.MILLISECONDS.toNanos(queueLatencyTarget);
+        this.queue = new PriorityBlockingQueue<>();
+        this.activeTasks = new AtomicInteger();
+        this.sequence = new AtomicLong();
+        this.workers = ConcurrentHashMap.newKeySet();
+        this.rejectedTasks = new LongAdder();
+        this.shedTasks = new LongAdder();
+        this.terminationLock = new Object();
+    }
+
+    /**
+     * Submits a callable with priority and deadline.
+     * @param callable Callable instance.
+     * @param priority Priority lane of the task.
+     * @param deadline Max time in milliseconds to start the execution of the task, if the value is lower or equals
+     *                 than zero then the task hasn't deadline.
+     * @param <T> Expected result type.
+     * @return Future of the task.
+     * @throws RejectedExecutionException If the executor is shutdown or the task is rejected by the admission control.
+     */
+    public <T> Future<T> submit(Callable<T> callable, TaskPriority priority, long deadline) {
+        PriorityTask<T> task = new PriorityTask<>(callable, priority, deadline);
+        execute(task);
+        return task;
+    }
+
+    /**
+     * Submits a runnable with priority and deadline.
+     * @param runnable Runnable instance.
+     * @param priority Priority lane of the task.
+     * @param deadline Max time in milliseconds to start the execution of the task, if the value is lower or equals
+     *                 than zero then the task hasn't deadline.
+     * @return Future of the task.
+     * @throws RejectedExecutionException If the executor is shutdown or the task is rejected by the admission control.
+     */
+    public Future<?> submit(Runnable runnable, TaskPriority priority, long deadline) {
+        PriorityTask<Object> task = new PriorityTask<>(runnable, null, priority, deadline);
+        execute(task);
+        return task;
+    }
+
+    @Override
+    protected <T> FutureTask<T> newTaskFor(Runnable runnable, T value) {
+        return new PriorityTask<>(runnable, value, TaskPriority.NORMAL, 0);
+    }
+
+    @Override
+    protected <T> FutureTask<T> newTaskFor(Callable<T> callable) {
+        return new PriorityTask<>(callable, TaskPriority.NORMAL, 0);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        PriorityTask<?> task;
+        if(command instanceof PriorityTask) {
+            task = (PriorityTask<?>) command;
+        } else {
+            task = new PriorityTask<>(command, null, TaskPriority.NORMAL, 0);
+        }
+        if(shutdown) {
+            throw new RejectedExecutionException("Executor shutdown");
+        }
+        if(task.priority.compareTo(TaskPriority.HIGH) > 0 && isOverloaded()) {
+            rejectedTasks.increment();
+            throw new RejectedExecutionException("Queue latency target exceeded");
+        }
+        queue.offer(task);
+        dispatch();
+    }
+
+    /**
+     * Verify if the time into the queue is greater than the target, the time is estimated using the latency
+     * of the last task started and the time that the head of the queue is waiting.
+     * @return True if the executor is overloaded.
+     */
+    private boolean isOverloaded() {
+        boolean result = false;
+        if(queueLatencyTarget > 0) {
+            long latency = queueLatency;
+            PriorityTask<?> head = queue.peek();
+            if(head != null) {
+                latency = Math.max(latency, System.nanoTime() - head.enqueueTime);
+            }
+            result = latency > queueLatencyTarget;
+        }
+        return result;
+    }
+
+    /**
+     * Starts new workers while there are pending tasks and the max concurrency is not reached.
+     */
+    private void dispatch() {
+        while (!queue.isEmpty()) {
+            int current = activeTasks.get();
+            if(current >= maxConcurrency) {
+                break;
+            }
+            if(activeTasks.compareAndSet(current, current + 1)) {
+                PriorityTask<?> task = queue.poll();
+                if(task == null) {
+                    release();
+                } else {
+                    Thread worker = threadFactory.newThread(() -> work(task));
+                    if(worker == null) {
+                        queue.offer(task);
+                        release();
+                        throw new RejectedExecutionException("Unable to create worker thread");
+                    }
+                    worker.start();
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes the task and then the next tasks of the queue until the queue is empty.
+     * @param firstTask First task of the worker.
+     */
+    private void work(PriorityTask<?> firstTask) {
+        Thread currentThread = Thread.currentThread();
+        workers.add(currentThread);
+        try {
+            PriorityTask<?> task = firstTask;
+            while (task != null) {
+                runTask(task);
+                Thread.interrupted();
+                task = queue.poll();
+            }
+            queueLatency = 0;
+        } finally {
+            workers.remove(currentThread);
+            release();
+            dispatch();
+        }
+    }
+
+    /**
+     * Runs the task or sheds it if its deadline was reached.
+     * @param task Task to run.
+     */
+    private void runTask(PriorityTask<?> task) {
+        long currentTime = System.nanoTime();
+        queueLatency = currentTime - task.enqueueTime;
+        if(task.deadline < currentTime) {
+            shedTasks.increment();
+            task.shed();
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Decrements the number of active tasks and notifies the termination if the executor is shutdown.
+     */
+    private void release() {
+        if(activeTasks.decrementAndGet() == 0 && shutdown) {
+            synchronized (terminationLock) {
+                terminationLock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public int getActiveTasks() {
+        return activeTasks.get();
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public long getQueueLatency() {
+        return queueLatency;
+    }
+
+    @Override
+    public long getRejectedTasks() {
+        return rejectedTasks.sum();
+    }
+
+    /**
+     * Returns the number of tasks shed because its deadline was reached before starting.
+     * @return Shed tasks.
+     */
+    public long getShedTasks() {
+        return shedTasks.sum();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        synchronized (terminationLock) {
+            terminationLock.notifyAll();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        List<Runnable> result = new ArrayList<>();
+        queue.drainTo(result);
+        workers.forEach(Thread::interrupt);
+        return result;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && activeTasks.get() == 0 && queue.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (terminationLock) {
+            long remaining = deadline - System.nanoTime();
+            while (!isTerminated() && remaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(terminationLock, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        }
+        return isTerminated();
+    }
+
+    /**
+     * Task sorted by priority lane, deadline and order of arrival.
+     * @param <V> Result type.
+     */
+    private final class PriorityTask<V> extends FutureTask<V> implements Comparable<PriorityTask<?>> {
+
+        private final TaskPriority priority;
+        private final long deadline;
+        private final long sequenceNumber;
+        private final long enqueueTime;
+
+        private PriorityTask(Callable<V> callable, TaskPriority priority, long deadline) {
+            super(callable);
+            this.priority = priority == null ? TaskPriority.NORMAL : priority;
+            this.enqueueTime = System.nanoTime();
+            this.deadline = getDeadline(enqueueTime, deadline);
+            this.sequenceNumber = sequence.getAndIncrement();
+        }
+
+        private PriorityTask(Runnable runnable, V value, TaskPriority priority, long deadline) {
+            super(runnable, value);
+            this.priority = priority == null ? TaskPriority.NORMAL : priority;
+            this.enqueueTime = System.nanoTime();
+            this.deadline = getDeadline(enqueueTime, deadline);
+            this.sequenceNumber = sequence.getAndIncrement();
+        }
+
+        /**
+         * Returns the deadline of the task.
+         * @param enqueueTime Time when the task was created, in nanoseconds.
+         * @param deadline Max time in milliseconds to start the task.
+         * @return Deadline in nanoseconds or {@link Long#MAX_VALUE} if the task hasn't deadline.
+         */
+        private long getDeadline(long enqueueTime, long deadline) {
+            long result = Long.MAX_VALUE;
+            if(deadline > 0) {
+                result = enqueueTime + TimeUnit.MILLISECONDS.toNanos(deadline);
+                if(result < enqueueTime) {
+                    result = Long.MAX_VALUE;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Ends the task without execution.
+         */
+        private void shed() {
+            setException(new HCJFServiceTimeoutException("Task deadline reached before the execution (%s)", priority));
+        }
+
+        @Override
+        public int compareTo(PriorityTask<?> other) {
+            int result = priority.compareTo(other.priority);
+            if(result == 0) {
+                result = Long.compare(deadline, other.deadline);
+            }
+            if(result == 0) {
+                result = Long.compare(sequenceNumber, other.sequenceNumber);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.hcjf.service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Open-addressed map (linear probing) for the session properties of a thread. The map is confined to its thread,
+ * then it doesn't need any lock, and the keys and values are stored into a single array to avoid the allocation
+ * of an entry for each property.
+ * @author javaito
+ */
+final class PropertyMap extends AbstractMap<String, Object> {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Object[] table;
+    private int size;
+
+    PropertyMap() {
+        this.table = new Object[INITIAL_CAPACITY * 2];
+    }
+
+    /**
+     * Returns the slot of the key or the empty slot where the key must be stored.
+     * @param table Table of keys and values.
+     * @param key Property name.
+     * @return Index of the key into the table.
+     */
+    private static int indexOf(Object[] table, Object key) {
+        int mask = (table.length >> 1) - 1;
+        int slot = spread(key.hashCode()) & mask;
+        while (table[slot << 1] != null && !table[slot << 1].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot << 1;
+    }
+
+    /**
+     * Spreads the bits of the hash code to reduce the collisions in the lower bits.
+     * @param hashCode Hash code of the key.
+     * @return Spread hash.
+     */
+    private static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object result = null;
+        if(key != null) {
+            int index = indexOf(table, key);
+            if(table[index] != null) {
+                result = table[index + 1];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && table[indexOf(table, key)] != null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if(key == null) {
+            throw new NullPointerException("Null property name");
+        }
+        Object result = null;
+        int index = indexOf(table, key);
+        if(table[index] != null) {
+            result = table[index + 1];
+            table[index + 1] = value;
+        } else {
+            table[index] = key;
+            table[index + 1] = value;
+            size++;
+            //The load factor is 0.5 in order to keep the probe sequences short.
+            if(size * 4 > table.length) {
+                resize();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        Object result = null;
+        if(key != null) {
+            int index = indexOf(table, key);
+            if(table[index] != null) {
+                result = table[index + 1];
+                delete(index);
+                size--;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the slot and shifts back the following keys of the same probe sequence.
+     * @param index Index of the slot to remove.
+     */
+    private void delete(int index) {
+        int mask = table.length - 1;
+        int gap = index;
+        int next = (gap + 2) & mask;
+        while (table[next] != null) {
+            int ideal = (spread(table[next].hashCode()) & ((table.length >> 1) - 1)) << 1;
+            //The key is moved to the gap if its ideal slot isn't between the gap and its current slot.
+            if(((next - ideal) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                table[gap + 1] = table[next + 1];
+                gap = next;
+            }
+            next = (next + 2) & mask;
+        }
+        table[gap] = null;
+        table[gap + 1] = null;
+    }
+
+    /**
+     * Duplicates the capacity of the table.
+     */
+    private void resize() {
+        Object[] newTable = new Object[table.length * 2];
+        for (int i = 0; i < table.length; i += 2) {
+            if(table[i] != null) {
+                int index = indexOf(newTable, table[i]);
+                newTable[index] = table[i];
+                newTable[index + 1] = table[i + 1];
+            }
+        }
+        table = newTable;
+    }
+
+    @Override
+    public void clear() {
+        if(size > 0) {
+            Arrays.fill(table, null);
+            size = 0;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Iterator over the used slots of the table.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private int index;
+
+        private EntryIterator() {
+            advance();
+        }
+
+        /**
+         * Moves the index to the next used slot.
+         */
+        private void advance() {
+            while (index < table.length && table[index] == null) {
+                index += 2;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < table.length;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Object> result = new SimpleImmutableEntry<>((String) table[index], table[index + 1]);
+            index += 2;
+            advance();
+            return result;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.hcjf.properties.SystemProperties;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This abstract class contains all the implementations and
@@ -18,6 +19,8 @@ public abstract class Service<C extends ServiceConsumer> {
 
     protected static final String SERVICE_LOG_TAG = "SERVICE";
     private static final String MAIN_EXECUTOR_NAME = "Main Thread Pool %s";
+    private static final String ASYNC_THREAD_NAME = "hcjf-async-";
+    private static final String SHUTDOWN_THREAD_NAME = "hcjf-shutdown-";
 
     private final String serviceName;
     private final ExecutorService serviceExecutor;
@@ -63,7 +66,10 @@ public abstract class Service<C extends ServiceConsumer> {
     }
 
     /**
-     * Creates an instance of executor service
+     * Creates an instance of executor service. If the priority scheduler is enabled then the executor is a
+     * {@link PriorityExecutorService}, and if the bounded executor is enabled then the executor is a
+     * {@link BoundedExecutorService}, in both cases the maximum pool size is the max number of tasks running at
+     * the same time.
      * @param corePoolSize Core pool size
      * @param maximumPoolSize Maximum pool size
      * @param keepAliveTime Keep alive time
@@ -71,7 +77,17 @@ public abstract class Service<C extends ServiceConsumer> {
      */
     protected ExecutorService createExecutorService(Integer corePoolSize, Integer maximumPoolSize, Long keepAliveTime) {
         ExecutorService result;
-        if (!SystemProperties.getBoolean(SystemProperties.Service.VIRTUAL_THREAD_POOL)) {
+        ThreadFactory threadFactory = SystemProperties.getBoolean(SystemProperties.Service.VIRTUAL_THREAD_POOL) ?
+                Thread.ofVirtual().factory() : Executors.defaultThreadFactory();
+        if (SystemProperties.getBoolean(SystemProperties.Service.PRIORITY_SCHEDULER_ENABLED)) {
+            result = new PriorityExecutorService(threadFactory, maximumPoolSize,
+                    SystemProperties.getLong(SystemProperties.Service.PRIORITY_SCHEDULER_QUEUE_LATENCY_TARGET));
+        } else if (SystemProperties.getBoolean(SystemProperties.Service.BOUNDED_EXECUTOR_ENABLED)) {
+            result = new BoundedExecutorService(threadFactory, maximumPoolSize,
+                    SystemProperties.getInteger(SystemProperties.Service.BOUNDED_EXECUTOR_QUEUE_SIZE),
+                    BoundedExecutorService.RejectionPolicy.valueOf(
+                            SystemProperties.get(SystemProperties.Service.BOUNDED_EXECUTOR_REJECTION_POLICY)));
+        } else if (!SystemProperties.getBoolean(SystemProperties.Service.VIRTUAL_THREAD_POOL)) {
             ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) Executors.newCachedThreadPool();
             threadPoolExecutor.setCorePoolSize(corePoolSize);
             threadPoolExecutor.setMaximumPoolSize(maximumPoolSize);
@@ -102,6 +118,49 @@ public abstract class Service<C extends ServiceConsumer> {
         return fork(callable, null, getServiceExecutor());
     }
 
+    /**
+     * This method execute any callable over service thread with a service session, using the priority and the
+     * deadline to schedule the execution. The priority and the deadline are ignored if the service executor is
+     * not a {@link PriorityExecutorService}.
+     * @param callable Callable to execute.
+     * @param priority Priority lane of the task.
+     * @param deadline Max time in milliseconds to start the execution, if the value is lower or equals than zero
+     *                 then the task hasn't deadline.
+     * @param <R> Expected result.
+     * @return Callable's future.
+     */
+    protected final <R extends Object> Future<R> fork(Callable<R> callable, TaskPriority priority, long deadline) {
+        Future<R> result;
+        CallableWrapper<R> callableWrapper = new CallableWrapper<>(callable, getSession(), getInvokerProperties());
+        if(getServiceExecutor() instanceof PriorityExecutorService) {
+            result = ((PriorityExecutorService)getServiceExecutor()).submit(callableWrapper, priority, deadline);
+        } else {
+            result = getServiceExecutor().submit(callableWrapper);
+        }
+        return result;
+    }
+
+    /**
+     * This method execute any runnable over service thread with a service session, using the priority and the
+     * deadline to schedule the execution. The priority and the deadline are ignored if the service executor is
+     * not a {@link PriorityExecutorService}.
+     * @param runnable Runnable to execute.
+     * @param priority Priority lane of the task.
+     * @param deadline Max time in milliseconds to start the execution, if the value is lower or equals than zero
+     *                 then the task hasn't deadline.
+     * @return Runnable's future.
+     */
+    protected final Future<?> fork(Runnable runnable, TaskPriority priority, long deadline) {
+        Future<?> result;
+        RunnableWrapper runnableWrapper = new RunnableWrapper(runnable, getSession(), getInvokerProperties());
+        if(getServiceExecutor() instanceof PriorityExecutorService) {
+            result = ((PriorityExecutorService)getServiceExecutor()).submit(runnableWrapper, priority, deadline);
+        } else {
+            result = getServiceExecutor().submit(runnableWrapper);
+        }
+        return result;
+    }
+
     /**
      * This method register a new thread pool executor into the service instance.
      * @param executorName Executor name.
@@ -134,11 +193,14 @@ public abstract class Service<C extends ServiceConsumer> {
     }
 
     /**
-     * Returns the invoker properties.
+     * Returns a copy of the invoker properties, the copy is only created if the invoker has some property.
      * @return Invoker properties.
      */
     private Map<String,Object> getInvokerProperties() {
         Map<String,Object> result = getSession().getProperties();
+        if(!result.isEmpty()) {
+            result = new HashMap<>(result);
+        }
         return result;
     }
 
@@ -186,6 +248,34 @@ public abstract class Service<C extends ServiceConsumer> {
         return serviceName;
     }
 
+    /**
+     * Returns the gauges of the service executor.
+     * @return Executor metrics or null if the service executor doesn't expose metrics.
+     */
+    public final ExecutorMetrics getExecutorMetrics() {
+        ExecutorMetrics result = null;
+        if(serviceExecutor instanceof ExecutorMetrics) {
+            result = (ExecutorMetrics) serviceExecutor;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the gauges of the executors of all the registered services.
+     * @return Executor metrics indexed by service name, only the services whose executor exposes metrics
+     * are included.
+     */
+    public static Map<String, ExecutorMetrics> getServicesExecutorMetrics() {
+        Map<String, ExecutorMetrics> result = new TreeMap<>();
+        for (Service<?> service : SystemServices.instance.getServices()) {
+            ExecutorMetrics executorMetrics = service.getExecutorMetrics();
+            if(executorMetrics != null) {
+                result.put(service.getServiceName(), executorMetrics);
+            }
+        }
+        return result;
+    }
+
     /**
      * Return the service priority.
      * @return Service priority.
@@ -213,33 +303,30 @@ public abstract class Service<C extends ServiceConsumer> {
      * @param executor Thread pool threadPoolExecutor to finalize.
      */
     protected void shutdownExecutor(ExecutorService executor) {
+        terminateExecutor(executor);
+    }
+
+    /**
+     * Shutdowns the executor and waits for the running tasks until the shutdown timeout, if some task doesn't
+     * end then the executor is interrupted and the method waits again until the shutdown timeout.
+     * @param executor Executor to finalize.
+     */
+    private static void terminateExecutor(ExecutorService executor) {
         long shutdownTimeout = SystemProperties.getLong(SystemProperties.Service.SHUTDOWN_TIME_OUT);
 
         //In the first attempt the shutdown procedure wait for all the thread
         //ends naturally.
         executor.shutdown();
-        long startTime = System.currentTimeMillis();
-        while (!executor.isTerminated() && (System.currentTimeMillis() - startTime) < shutdownTimeout) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                break;
+        try {
+            if (!executor.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+                //If some threads do not end naturally then the shutdown procedure
+                //send the interrupt signal for all the pool.
+                executor.shutdownNow();
+                executor.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS);
             }
-        }
-
-        if(!executor.isTerminated()) {
-            //If some threads do not end naturally then the shutdown procedure
-            //send the interrupt signal for all the pool.
+        } catch (InterruptedException ex) {
             executor.shutdownNow();
-            startTime = System.currentTimeMillis();
-            while (!executor.isTerminated() &&
-                    (System.currentTimeMillis() - startTime) < shutdownTimeout) {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    break;
-                }
-            }
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -339,6 +426,153 @@ public abstract class Service<C extends ServiceConsumer> {
         return result;
     }
 
+    /**
+     * This method executes the callable over a virtual thread and returns a completable future without wait for the
+     * response. The callable is executed with the session, the invoker properties and the layer stack of the caller.
+     * If the returned future is cancelled then the execution thread is interrupted.
+     * @param callable Callable instance.
+     * @param <O> Expected response.
+     * @return Completable future of the result.
+     */
+    public static final <O extends Object> CompletableFuture<O> async(Callable<O> callable) {
+        return async(callable, 0);
+    }
+
+    /**
+     * This method executes the callable over a virtual thread and returns a completable future without wait for the
+     * response. The callable is executed with the session, the invoker properties and the layer stack of the caller.
+     * If the returned future is cancelled or the timeout is reached then the execution thread is interrupted.
+     * @param callable Callable instance.
+     * @param timeout Max time for the execution in milliseconds, if the value is lower or equals than 0 then
+     *                there isn't timeout.
+     * @param <O> Expected response.
+     * @return Completable future of the result, the future ends with a {@link TimeoutException} if the timeout
+     * is reached.
+     */
+    public static final <O extends Object> CompletableFuture<O> async(Callable<O> callable, long timeout) {
+        CallableWrapper<O> callableWrapper = wrapWithCurrentContext(callable);
+        CompletableFuture<O> result = new CompletableFuture<>();
+        Future<?> future = SystemServices.instance.asyncExecutor.submit(() -> {
+            try {
+                result.complete(callableWrapper.call());
+            } catch (Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+        });
+        if(timeout > 0) {
+            result.orTimeout(timeout, TimeUnit.MILLISECONDS);
+        }
+        result.whenComplete((R, T) -> {
+            if(T != null) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Executes all the callables over virtual threads and waits for all the results. If some callable fails then the
+     * other callables are cancelled. The callables are executed with the session, the invoker properties and
+     * the layer stack of the caller.
+     * @param callables Collection of callables.
+     * @param timeout Max time for the execution in milliseconds, if the value is lower or equals than 0 then
+     *                there isn't timeout.
+     * @param <O> Expected response.
+     * @return List of results in the same order that the callables.
+     * @throws HCJFServiceTimeoutException If the timeout is reached, all the callables are cancelled.
+     * @throws HCJFRuntimeException If some callable fails.
+     */
+    public static final <O extends Object> List<O> allSuccess(Collection<? extends Callable<O>> callables, long timeout) {
+        return allSuccess(callables, 0, timeout);
+    }
+
+    /**
+     * Executes all the callables over virtual threads and waits for all the results. If some callable fails then the
+     * other callables are cancelled. The callables are executed with the session, the invoker properties and
+     * the layer stack of the caller.
+     * @param callables Collection of callables.
+     * @param maxConcurrency Max number of callables running at the same time, if the value is lower or equals than
+     *                       0 then all the callables run at the same time.
+     * @param timeout Max time for the execution in milliseconds, if the value is lower or equals than 0 then
+     *                there isn't timeout.
+     * @param <O> Expected response.
+     * @return List of results in the same order that the callables.
+     * @throws HCJFServiceTimeoutException If the timeout is reached, all the callables are cancelled.
+     * @throws HCJFRuntimeException If some callable fails.
+     */
+    public static final <O extends Object> List<O> allSuccess(Collection<? extends Callable<O>> callables,
+                                                              int maxConcurrency, long timeout) {
+        try (ServiceTaskScope<O> scope = createScope(callables, maxConcurrency)) {
+            return scope.allSuccess(timeout);
+        }
+    }
+
+    /**
+     * Executes all the callables over virtual threads and returns the result of the first callable that ends
+     * successfully, the other callables are cancelled. The callables are executed with the session, the invoker
+     * properties and the layer stack of the caller.
+     * @param callables Collection of callables.
+     * @param timeout Max time for the execution in milliseconds, if the value is lower or equals than 0 then
+     *                there isn't timeout.
+     * @param <O> Expected response.
+     * @return Result of the first successful callable.
+     * @throws HCJFServiceTimeoutException If the timeout is reached, all the callables are cancelled.
+     * @throws HCJFRuntimeException If all the callables fail.
+     */
+    public static final <O extends Object> O anySuccess(Collection<? extends Callable<O>> callables, long timeout) {
+        try (ServiceTaskScope<O> scope = createScope(callables, 0)) {
+            return scope.anySuccess(timeout);
+        }
+    }
+
+    /**
+     * Executes all the callables over virtual threads and waits until all of them end, the failure of some
+     * callable doesn't cancel the others. The callables are executed with the session, the invoker properties and
+     * the layer stack of the caller.
+     * @param callables Collection of callables.
+     * @param maxConcurrency Max number of callables running at the same time, if the value is lower or equals than
+     *                       0 then all the callables run at the same time.
+     * @param timeout Max time for the execution in milliseconds, if the value is lower or equals than 0 then
+     *                there isn't timeout.
+     * @param <O> Expected response.
+     * @return List of completed futures in the same order that the callables, the callables that don't end before
+     * the timeout are cancelled.
+     */
+    public static final <O extends Object> List<Future<O>> forkAll(Collection<? extends Callable<O>> callables,
+                                                                   int maxConcurrency, long timeout) {
+        try (ServiceTaskScope<O> scope = createScope(callables, maxConcurrency)) {
+            return scope.joinAll(timeout);
+        }
+    }
+
+    /**
+     * Creates a scope with all the callables wrapped with the context of the current thread.
+     * @param callables Collection of callables.
+     * @param maxConcurrency Max number of callables running at the same time.
+     * @param <O> Expected response.
+     * @return Task scope instance.
+     */
+    private static <O extends Object> ServiceTaskScope<O> createScope(Collection<? extends Callable<O>> callables,
+                                                                      int maxConcurrency) {
+        List<CallableWrapper<O>> callableWrappers = new ArrayList<>(callables.size());
+        for (Callable<O> callable : callables) {
+            callableWrappers.add(wrapWithCurrentContext(callable));
+        }
+        return new ServiceTaskScope<>(SystemServices.instance.asyncExecutor, callableWrappers, maxConcurrency);
+    }
+
+    /**
+     * Wraps the callable with the session, the invoker properties and the layer stack of the current thread.
+     * @param callable Callable instance.
+     * @param <O> Expected response.
+     * @return Callable wrapper.
+     */
+    private static <O extends Object> CallableWrapper<O> wrapWithCurrentContext(Callable<O> callable) {
+        ServiceSession session = ServiceThread.getServiceThreadInstance().getSession();
+        return new CallableWrapper<>(callable, session,
+                new HashMap<>(session.getProperties()), new ArrayList<>(session.getLayerStack()));
+    }
+
     /**
      * This internal class contains all the services registered
      * in the system.
@@ -352,7 +586,8 @@ public abstract class Service<C extends ServiceConsumer> {
         }
 
         private final ThreadPoolExecutor serviceExecutor;
-        private final Map<String, Service> services;
+        private final ExecutorService asyncExecutor;
+        private final Map<String, Service<?>> services;
         private Log log;
 
         /**
@@ -367,6 +602,7 @@ public abstract class Service<C extends ServiceConsumer> {
             } else {
                 this.serviceExecutor = (ThreadPoolExecutor) Executors.newVirtualThreadPerTaskExecutor();
             }
+            this.asyncExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(ASYNC_THREAD_NAME, 0).factory());
             services = new HashMap<>();
 
             //Adding service shutdown hook
@@ -386,11 +622,23 @@ public abstract class Service<C extends ServiceConsumer> {
          * map indexed by the name of the service.
          * @param service Instance of the service.
          */
-        private void register(Service service) {
-            services.put(service.getServiceName(), service);
+        private void register(Service<?> service) {
+            synchronized (services) {
+                services.put(service.getServiceName(), service);
+            }
             Log.i(Service.SERVICE_LOG_TAG, "Service registered: %s", service.getServiceName());
         }
 
+        /**
+         * Returns a copy of the registered services.
+         * @return Collection of services.
+         */
+        private Collection<Service<?>> getServices() {
+            synchronized (services) {
+                return new ArrayList<>(services.values());
+            }
+        }
+
         /**
          * Return true if the service name exist in the registered services.
          * @param serviceName Name of the service.
@@ -401,63 +649,83 @@ public abstract class Service<C extends ServiceConsumer> {
         }
 
         /**
-         * Start the shutdown process for all the services registered
+         * Start the shutdown process for all the services registered, the services are finalized in order of
+         * priority and the services with the same priority are finalized in parallel.
          */
         private void shutdown() {
-            Set<Service> sortedServices = new TreeSet<>((s1, s2) -> {
-                int result = s1.getPriority() - s2.getPriority();
+            long startTime = System.currentTimeMillis();
+            AtomicInteger errors = new AtomicInteger();
+            Log.i(Service.SERVICE_LOG_TAG, "Starting shutdown");
 
-                if(result == 0) {
-                    result = s1.hashCode() - s2.hashCode();
+            Map<Integer, List<Service<?>>> servicesByPriority = new TreeMap<>(Comparator.reverseOrder());
+            for (Service<?> service : getServices()) {
+                servicesByPriority.computeIfAbsent(service.getPriority(), K -> new ArrayList<>()).add(service);
+            }
+            for (List<Service<?>> services : servicesByPriority.values()) {
+                List<Thread> threads = new ArrayList<>();
+                for (Service<?> service : services) {
+                    threads.add(Thread.ofVirtual().name(SHUTDOWN_THREAD_NAME + service.getServiceName()).
+                            start(() -> shutdown(service, errors)));
+                }
+                for (Thread thread : threads) {
+                    try {
+                        thread.join();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
                 }
+            }
 
-                return result * -1;
-            });
+            Log.i(Service.SERVICE_LOG_TAG, "Ending static executor");
+            terminateExecutor(serviceExecutor);
+            Log.i(Service.SERVICE_LOG_TAG, "Ending async executor");
+            asyncExecutor.shutdownNow();
 
-            int errors = 0;
-            Log.i(Service.SERVICE_LOG_TAG, "Starting shutdown");
-            sortedServices.addAll(services.values());
-            for(Service<?> service : sortedServices) {
-                Log.i(Service.SERVICE_LOG_TAG, "Starting service shutdown (%s)", service.getServiceName());
-                Log.i(Service.SERVICE_LOG_TAG, "Starting service shutdown custom process");
-                try {
-                    service.shutdown(ShutdownStage.START);
-                    Log.i(Service.SERVICE_LOG_TAG, "Start stage: Shutdown custom process done");
-                } catch (Exception ex) {
-                    Log.i(Service.SERVICE_LOG_TAG, "Start stage: Shutdown custom process done with errors", ex);
-                    errors++;
-                }
+            try {
+                ((Service)log).shutdown(ShutdownStage.START);
+                log.shutdownExecutor(((Service)log).serviceExecutor);
+                ((Service)log).shutdown(ShutdownStage.END);
+            } catch (Exception ex) {
+                errors.incrementAndGet();
+            }
 
-                Log.i(Service.SERVICE_LOG_TAG, "Ending custom executors");
-                service.registeredExecutors.values().forEach(service::shutdownExecutor);
-                Log.i(Service.SERVICE_LOG_TAG, "Custom executors finalized");
+            System.out.printf("Shutdown completed in %d ms! See you%n", System.currentTimeMillis() - startTime);
+            Runtime.getRuntime().halt(errors.get());
+        }
 
-                try {
-                    service.shutdown(ShutdownStage.END);
-                    Log.i(Service.SERVICE_LOG_TAG, "End stage: Shutdown custom process done");
-                } catch (Exception ex) {
-                    Log.i(Service.SERVICE_LOG_TAG, "End stage: Shutdown custom process done with errors", ex);
-                    errors++;
-                }
+        /**
+         * Finalize one service: custom process, custom executors and the executor of the service.
+         * @param service Service to finalize.
+         * @param errors Counter of errors.
+         */
+        private void shutdown(Service<?> service, AtomicInteger errors) {
+            long startTime = System.currentTimeMillis();
+            Log.i(Service.SERVICE_LOG_TAG, "Starting service shutdown (%s)", service.getServiceName());
+            try {
+                service.shutdown(ShutdownStage.START);
+                Log.i(Service.SERVICE_LOG_TAG, "Start stage: Shutdown custom process done (%s)", service.getServiceName());
+            } catch (Exception ex) {
+                Log.e(Service.SERVICE_LOG_TAG, "Start stage: Shutdown custom process done with errors (%s)", ex, service.getServiceName());
+                errors.incrementAndGet();
+            }
 
-                Log.i(Service.SERVICE_LOG_TAG, "Ending main service threadPoolExecutor");
-                service.shutdownExecutor(serviceExecutor);
-                Log.i(Service.SERVICE_LOG_TAG, "Main service threadPoolExecutor finalized");
+            List<ExecutorService> executors;
+            synchronized (service) {
+                executors = new ArrayList<>(service.registeredExecutors.values());
             }
+            executors.forEach(service::shutdownExecutor);
 
             try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {}
-            try {
-                ((Service)log).shutdown(ShutdownStage.START);
-                log.shutdownExecutor(serviceExecutor);
-                ((Service)log).shutdown(ShutdownStage.END);
+                service.shutdown(ShutdownStage.END);
+                Log.i(Service.SERVICE_LOG_TAG, "End stage: Shutdown custom process done (%s)", service.getServiceName());
             } catch (Exception ex) {
-                errors++;
+                Log.e(Service.SERVICE_LOG_TAG, "End stage: Shutdown custom process done with errors (%s)", ex, service.getServiceName());
+                errors.incrementAndGet();
             }
 
-            System.out.println("Shutdown completed! See you");
-            Runtime.getRuntime().halt(errors);
+            service.shutdownExecutor(service.serviceExecutor);
+            Log.i(Service.SERVICE_LOG_TAG, "Service shutdown (%s) done in %d ms",
+                    service.getServiceName(), System.currentTimeMillis() - startTime);
         }
 
     }
@@ -502,7 +770,7 @@ public abstract class Service<C extends ServiceConsumer> {
         private final long creationTime;
 
         public RunnableWrapper(Runnable runnable, ServiceSession session) {
-            this(runnable, session, new HashMap<>());
+            this(runnable, session, Collections.emptyMap());
         }
 
         public RunnableWrapper(Runnable runnable, ServiceSession session, Map<String, Object> invokerProperties) {
@@ -518,7 +786,8 @@ public abstract class Service<C extends ServiceConsumer> {
 
         @Override
         public void run() {
-
+            //If the task runs in the caller thread then the context of the caller is restored at the end.
+            ServiceThread callerInstance = ServiceThread.suspendServiceThreadInstance();
             try {
                 ServiceThread.getServiceThreadInstance().setSession(session);
                 if(invokerProperties != null) {
@@ -526,7 +795,8 @@ public abstract class Service<C extends ServiceConsumer> {
                 }
                 runnable.run();
             } finally {
-                ServiceThread.getServiceThreadInstance().setSession(null);
+                ServiceThread.releaseServiceThreadInstance();
+                ServiceThread.resumeServiceThreadInstance(callerInstance);
             }
         }
 
@@ -541,14 +811,21 @@ public abstract class Service<C extends ServiceConsumer> {
         private final Callable<O> callable;
         private final ServiceSession session;
         private final Map<String, Object> invokerProperties;
+        private final List<ServiceSession.LayerStackElement> layerStack;
 
         public CallableWrapper(Callable<O> callable, ServiceSession session) {
-            this(callable, session, new HashMap<>());
+            this(callable, session, Collections.emptyMap());
         }
 
         public CallableWrapper(Callable<O> callable, ServiceSession session, Map<String, Object> invokerProperties) {
+            this(callable, session, invokerProperties, null);
+        }
+
+        public CallableWrapper(Callable<O> callable, ServiceSession session, Map<String, Object> invokerProperties,
+                               List<ServiceSession.LayerStackElement> layerStack) {
             this.callable = callable;
             this.invokerProperties = invokerProperties;
+            this.layerStack = layerStack;
             if(session != null) {
                 this.session = session;
             } else {
@@ -558,14 +835,23 @@ public abstract class Service<C extends ServiceConsumer> {
 
         @Override
         public O call() throws Exception {
+            //If the task runs in the caller thread then the context of the caller is restored at the end.
+            ServiceThread callerInstance = ServiceThread.suspendServiceThreadInstance();
             try {
                 ServiceThread.getServiceThreadInstance().setSession(session);
                 if(invokerProperties != null) {
                     session.putAll(invokerProperties);
                 }
+                if(layerStack != null) {
+                    //The elements are added from the bottom of the stack to the top.
+                    for (int i = layerStack.size() - 1; i >= 0; i--) {
+                        session.putLayer(layerStack.get(i));
+                    }
+                }
                 return callable.call();
             } finally {
-                ServiceThread.getServiceThreadInstance().setSession(null);
+                ServiceThread.releaseServiceThreadInstance();
+                ServiceThread.resumeServiceThreadInstance(callerInstance);
             }
         }
 
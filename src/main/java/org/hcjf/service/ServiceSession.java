@@ -8,6 +8,7 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class must be implemented for all implementation
@@ -31,38 +32,34 @@ public class ServiceSession implements Comparable {
 
     private final UUID id;
     private String sessionName;
-    private final Map<Long, List<LayerStackElement>> layerStack;
-    private final Map<Long, Map<String, Object>> properties;
     private final Map<Long, Long> systemTimeByThread;
     private final ThreadMXBean threadMXBean;
     private final List<ServiceSession> identities;
-    private final Set<Grants.Grant> grants;
+    private final Map<String, Grants.Grant> grants;
+    private volatile long[] grantOrdinals;
     private Locale locale;
     private String timezone;
 
     public ServiceSession(UUID id) {
         this.id = id;
-        properties = new HashMap<>();
-        layerStack = Collections.synchronizedMap(new HashMap<>());
-        systemTimeByThread = new HashMap<>();
+        systemTimeByThread = new ConcurrentHashMap<>();
         threadMXBean = ManagementFactory.getThreadMXBean();
         locale = SystemProperties.getLocale();
         identities = new ArrayList<>();
-        grants = new HashSet<>();
+        grants = new ConcurrentHashMap<>();
+        grantOrdinals = new long[0];
         timezone = DEFAULT_TIME_ZONE;
     }
 
     protected ServiceSession(ServiceSession serviceSession) {
         this.id = serviceSession.id;
         this.sessionName = serviceSession.sessionName;
-        this.properties = new HashMap<>();
-        layerStack = Collections.synchronizedMap(new HashMap<>());
-        systemTimeByThread = new HashMap<>();
+        systemTimeByThread = new ConcurrentHashMap<>();
         threadMXBean = ManagementFactory.getThreadMXBean();
         this.locale = serviceSession.locale;
         identities = new ArrayList<>();
-        this.grants = new HashSet<>();
-        this.grants.addAll(serviceSession.grants);
+        this.grants = new ConcurrentHashMap<>(serviceSession.grants);
+        this.grantOrdinals = serviceSession.grantOrdinals;
         this.timezone = serviceSession.timezone;
     }
 
@@ -173,11 +170,18 @@ public class ServiceSession implements Comparable {
     /**
      * Start some thread over this session.
      */
-    public final synchronized void startThread() {
-        systemTimeByThread.put(Thread.currentThread().threadId(),
-                threadMXBean.getCurrentThreadCpuTime());
-        layerStack.put(Thread.currentThread().threadId(), new ArrayList<>());
-        properties.put(Thread.currentThread().threadId(), new HashMap<>());
+    public final void startThread() {
+        startThread(true);
+    }
+
+    /**
+     * Start some thread over this session.
+     * @param accounted If this value is true then the cpu time of the thread is accounted for the session.
+     */
+    public final void startThread(boolean accounted) {
+        if(accounted) {
+            systemTimeByThread.put(Thread.currentThread().threadId(), threadMXBean.getCurrentThreadCpuTime());
+        }
         onStartThread();
     }
 
@@ -189,12 +193,12 @@ public class ServiceSession implements Comparable {
     /**
      * End some thread over this session.
      */
-    public final synchronized void endThread() {
-        layerStack.remove(Thread.currentThread().threadId());
-        properties.remove(Thread.currentThread().threadId());
+    public final void endThread() {
         onEndThread();
-        addThreadTime(threadMXBean.getCurrentThreadCpuTime() -
-                systemTimeByThread.remove(Thread.currentThread().threadId()));
+        Long systemTime = systemTimeByThread.remove(Thread.currentThread().threadId());
+        if(systemTime != null) {
+            addThreadTime(threadMXBean.getCurrentThreadCpuTime() - systemTime);
+        }
     }
 
     /**
@@ -203,14 +207,18 @@ public class ServiceSession implements Comparable {
     protected void onEndThread(){}
 
     /**
-     * Return the properties name of the session.
+     * Return the properties name of the session. The properties and the layer stack of the session are stored
+     * into the context of the current thread, then all the instances (sessions and identities) access to the
+     * state of the session attached to the current thread.
      * @return Unmodifiable properties map.
      */
     public final Map<String, Object> getProperties() {
-        Map<String, Object> result = null;
-        //Verify if this instance is a current session of is a identity
-        if (ServiceSession.getCurrentSession().properties.containsKey(Thread.currentThread().threadId())) {
-            result = Collections.unmodifiableMap(ServiceSession.getCurrentSession().properties.get(Thread.currentThread().threadId()));
+        Map<String, Object> result;
+        Map<String, Object> threadProperties = ServiceThread.getServiceThreadInstance().getProperties(false);
+        if (threadProperties != null) {
+            result = Collections.unmodifiableMap(threadProperties);
+        } else {
+            result = Collections.emptyMap();
         }
         return result;
     }
@@ -220,8 +228,9 @@ public class ServiceSession implements Comparable {
      * @param properties Properties.
      */
     public final void putAll(Map<String, Object> properties) {
-        //Verify if this instance is a current session of is a identity
-        ServiceSession.getCurrentSession().properties.get(Thread.currentThread().threadId()).putAll(properties);
+        if(!properties.isEmpty()) {
+            ServiceThread.getServiceThreadInstance().getProperties(true).putAll(properties);
+        }
     }
 
     /**
@@ -230,8 +239,7 @@ public class ServiceSession implements Comparable {
      * @param propertyValue Property value.
      */
     public final void put(String propertyName, Object propertyValue) {
-        //Verify if this instance is a current session of is a identity
-        ServiceSession.getCurrentSession().properties.get(Thread.currentThread().threadId()).put(propertyName, propertyValue);
+        ServiceThread.getServiceThreadInstance().getProperties(true).put(propertyName, propertyValue);
     }
 
     /**
@@ -241,8 +249,12 @@ public class ServiceSession implements Comparable {
      * @return Session value.
      */
     public final <O extends Object> O get(String propertyName) {
-        //Verify if this instance is a current session of is a identity
-        return (O)ServiceSession.getCurrentSession().properties.get(Thread.currentThread().threadId()).get(propertyName);
+        O result = null;
+        Map<String, Object> threadProperties = ServiceThread.getServiceThreadInstance().getProperties(false);
+        if(threadProperties != null) {
+            result = (O) threadProperties.get(propertyName);
+        }
+        return result;
     }
 
     /**
@@ -252,7 +264,12 @@ public class ServiceSession implements Comparable {
      * @return Session value removed.
      */
     public final <O extends Object> O remove(String propertyName) {
-        return (O)ServiceSession.getCurrentSession().properties.remove(propertyName);
+        O result = null;
+        Map<String, Object> threadProperties = ServiceThread.getServiceThreadInstance().getProperties(false);
+        if(threadProperties != null) {
+            result = (O) threadProperties.remove(propertyName);
+        }
+        return result;
     }
 
     /**
@@ -260,16 +277,14 @@ public class ServiceSession implements Comparable {
      * @param element Layer stack element.
      */
     public final void putLayer(LayerStackElement element) {
-        //Verify if this instance is a current session of is a identity
-        ServiceSession.getCurrentSession().layerStack.get(Thread.currentThread().threadId()).add(0, element);
+        ServiceThread.getServiceThreadInstance().putLayer(element);
     }
 
     /**
      * Removes the head of the layer stack.
      */
     public final void removeLayer() {
-        //Verify if this instance is a current session of is a identity
-        ServiceSession.getCurrentSession().layerStack.get(Thread.currentThread().threadId()).remove(0);
+        ServiceThread.getServiceThreadInstance().removeLayer();
     }
 
     /**
@@ -277,9 +292,7 @@ public class ServiceSession implements Comparable {
      * @return Layer stack.
      */
     public final Collection<LayerStackElement> getLayerStack() {
-        //Verify if this instance is a current session of is an identity
-
-        return Collections.unmodifiableCollection(ServiceSession.getCurrentSession().layerStack.get(Thread.currentThread().threadId()));
+        return ServiceThread.getServiceThreadInstance().getLayerStack();
     }
 
     /**
@@ -287,13 +300,7 @@ public class ServiceSession implements Comparable {
      * @return Current layer.
      */
     public final LayerStackElement getCurrentLayer() {
-        LayerStackElement result = null;
-        //Verify if this instance is a current session of is a identity
-        if (ServiceSession.getCurrentSession().layerStack.containsKey(Thread.currentThread().threadId()) &&
-                ServiceSession.getCurrentSession().layerStack.get(Thread.currentThread().threadId()).size() > 0) {
-            result = ServiceSession.getCurrentSession().layerStack.get(Thread.currentThread().threadId()).get(0);
-        }
-        return result;
+        return ServiceThread.getServiceThreadInstance().getLayer(0);
     }
 
     /**
@@ -301,12 +308,7 @@ public class ServiceSession implements Comparable {
      * @return Invoker layer.
      */
     public final LayerStackElement getInvokerLayer() {
-        LayerStackElement result = null;
-        //Verify if this instance is a current session of is a identity
-        if (ServiceSession.getCurrentSession().layerStack.get(Thread.currentThread().threadId()).size() > 1) {
-            result = ServiceSession.getCurrentSession().layerStack.get(Thread.currentThread().threadId()).get(1);
-        }
-        return result;
+        return ServiceThread.getServiceThreadInstance().getLayer(1);
     }
 
     /**
@@ -367,7 +369,10 @@ public class ServiceSession implements Comparable {
      * @param grant Grant instance.
      */
     public final void addGrant(Grants.Grant grant) {
-        grants.add(grant);
+        synchronized (grants) {
+            grants.put(grant.getPermissionId(), grant);
+            updateGrantOrdinals(Grants.getOrdinal(grant), true);
+        }
     }
 
     /**
@@ -375,7 +380,28 @@ public class ServiceSession implements Comparable {
      * @param grant Grant instance.
      */
     public final void removeGrant(Grants.Grant grant) {
-        grants.remove(grant);
+        synchronized (grants) {
+            if(grants.remove(grant.getPermissionId()) != null) {
+                updateGrantOrdinals(Grants.getOrdinal(grant), false);
+            }
+        }
+    }
+
+    /**
+     * Creates a new copy of the bitset of grant ordinals with the bit of the ordinal updated, the bitset is
+     * replaced instead of modified in order to read it without locks.
+     * @param ordinal Ordinal of the grant.
+     * @param value Value of the bit.
+     */
+    private void updateGrantOrdinals(int ordinal, boolean value) {
+        int word = ordinal >>> 6;
+        long[] newGrantOrdinals = Arrays.copyOf(grantOrdinals, Math.max(grantOrdinals.length, word + 1));
+        if(value) {
+            newGrantOrdinals[word] |= 1L << ordinal;
+        } else {
+            newGrantOrdinals[word] &= ~(1L << ordinal);
+        }
+        grantOrdinals = newGrantOrdinals;
     }
 
     /**
@@ -383,16 +409,30 @@ public class ServiceSession implements Comparable {
      * @return Grants set.
      */
     public final Set<Grants.Grant> getGrants() {
-        return Collections.unmodifiableSet(grants);
+        return Set.copyOf(grants.values());
     }
 
+    /**
+     * Verify if the session contains the grant.
+     * @param grantId Id of the grant.
+     * @return True if the session contains the grant.
+     */
     public final boolean containsGrant(String grantId) {
+        return grantId != null && grants.containsKey(grantId);
+    }
+
+    /**
+     * Verify if the session contains the grant using the ordinal of the grant, this method doesn't need to
+     * compare the grant id.
+     * @param grant Grant instance.
+     * @return True if the session contains the grant.
+     */
+    public final boolean containsGrant(Grants.Grant grant) {
         boolean result = false;
-        for(Grants.Grant grant : grants) {
-            result = grant.getPermissionId().equals(grantId);
-            if(result){
-                break;
-            }
+        if(grant != null) {
+            long[] currentGrantOrdinals = grantOrdinals;
+            int word = Grants.getOrdinal(grant) >>> 6;
+            result = word < currentGrantOrdinals.length && (currentGrantOrdinals[word] & (1L << Grants.getOrdinal(grant))) != 0;
         }
         return result;
     }
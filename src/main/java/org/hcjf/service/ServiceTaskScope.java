@@ -0,0 +1,178 @@
+package org.hcjf.service;
+
+import org.hcjf.errors.HCJFRuntimeException;
+import org.hcjf.errors.HCJFServiceTimeoutException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class groups a set of subtasks forked together: the subtasks run over the executor with a bounded number
+ * of concurrent executions, and when the scope is closed all the subtasks that still running are cancelled and
+ * interrupted, then no subtask outlives the scope that creates it.
+ * @param <O> Result type of the subtasks.
+ * @author javaito
+ */
+final class ServiceTaskScope<O extends Object> implements AutoCloseable {
+
+    private final List<CompletableFuture<O>> results;
+    private final List<Future<?>> executions;
+
+    /**
+     * Forks all the callables over the executor.
+     * @param executor Executor to run the subtasks.
+     * @param callables Subtasks of the scope.
+     * @param maxConcurrency Max number of subtasks running at the same time, if the value is lower or equals than
+     *                       zero then all the subtasks run at the same time.
+     */
+    ServiceTaskScope(ExecutorService executor, Collection<? extends Callable<O>> callables, int maxConcurrency) {
+        this.results = new ArrayList<>(callables.size());
+        this.executions = new ArrayList<>(callables.size());
+        Semaphore semaphore = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+        for (Callable<O> callable : callables) {
+            CompletableFuture<O> result = new CompletableFuture<>();
+            results.add(result);
+            executions.add(executor.submit(() -> {
+                try {
+                    if (semaphore != null) {
+                        semaphore.acquire();
+                    }
+                    try {
+                        result.complete(callable.call());
+                    } finally {
+                        if (semaphore != null) {
+                            semaphore.release();
+                        }
+                    }
+                } catch (Throwable throwable) {
+                    result.completeExceptionally(throwable);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Waits for all the subtasks, if some subtask fails then the other subtasks are cancelled.
+     * @param timeout Max time to wait in milliseconds, if the value is lower or equals than zero then there isn't
+     *                timeout.
+     * @return List with the results of the subtasks, in the same order that the callables.
+     * @throws HCJFServiceTimeoutException If the timeout is reached.
+     * @throws HCJFRuntimeException If some subtask fails.
+     */
+    List<O> allSuccess(long timeout) {
+        CompletableFuture<Void> all = new CompletableFuture<>();
+        for (CompletableFuture<O> result : results) {
+            result.whenComplete((R, T) -> {
+                if (T != null) {
+                    all.completeExceptionally(T);
+                }
+            });
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).whenComplete((R, T) -> all.complete(null));
+        await(all, timeout);
+        List<O> values = new ArrayList<>(results.size());
+        for (CompletableFuture<O> result : results) {
+            values.add(result.join());
+        }
+        return values;
+    }
+
+    /**
+     * Waits for the first successful subtask and cancels the others.
+     * @param timeout Max time to wait in milliseconds, if the value is lower or equals than zero then there isn't
+     *                timeout.
+     * @return Result of the first successful subtask.
+     * @throws HCJFServiceTimeoutException If the timeout is reached.
+     * @throws HCJFRuntimeException If all the subtasks fail.
+     */
+    O anySuccess(long timeout) {
+        CompletableFuture<O> any = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        HCJFRuntimeException allFailed = new HCJFRuntimeException("All the service tasks fail");
+        for (CompletableFuture<O> result : results) {
+            result.whenComplete((R, T) -> {
+                if (T == null) {
+                    any.complete(R);
+                } else {
+                    synchronized (allFailed) {
+                        allFailed.addSuppressed(T);
+                    }
+                    if (failures.incrementAndGet() == results.size()) {
+                        any.completeExceptionally(allFailed);
+                    }
+                }
+            });
+        }
+        if (results.isEmpty()) {
+            any.completeExceptionally(allFailed);
+        }
+        return await(any, timeout);
+    }
+
+    /**
+     * Waits for all the subtasks without fail if some subtask fails, the subtasks that don't end before the
+     * timeout are cancelled.
+     * @param timeout Max time to wait in milliseconds, if the value is lower or equals than zero then there isn't
+     *                timeout.
+     * @return List of completed futures, in the same order that the callables.
+     */
+    List<Future<O>> joinAll(long timeout) {
+        try {
+            await(CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])), timeout);
+        } catch (HCJFServiceTimeoutException ex) {
+            close();
+        } catch (HCJFRuntimeException ex) {
+            //The failures are returned into the futures.
+        }
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * Waits for the future.
+     * @param future Future instance.
+     * @param timeout Max time to wait in milliseconds.
+     * @param <R> Expected result type.
+     * @return Result of the future.
+     */
+    private <R extends Object> R await(CompletableFuture<R> future, long timeout) {
+        R result;
+        try {
+            if (timeout > 0) {
+                result = future.get(timeout, TimeUnit.MILLISECONDS);
+            } else {
+                result = future.get();
+            }
+        } catch (TimeoutException ex) {
+            throw new HCJFServiceTimeoutException("Service task scope timeout", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new HCJFRuntimeException("Service task scope interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new HCJFRuntimeException("Service task fail", ex.getCause());
+        }
+        return result;
+    }
+
+    /**
+     * Cancels all the subtasks that still running.
+     */
+    @Override
+    public void close() {
+        for (int i = 0; i < results.size(); i++) {
+            if (!results.get(i).isDone()) {
+                executions.get(i).cancel(true);
+                results.get(i).cancel(true);
+            }
+        }
+    }
+}
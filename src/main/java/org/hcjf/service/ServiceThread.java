@@ -9,8 +9,9 @@ import org.hcjf.utils.LruMap;
 import java.lang.management.ManagementFactory;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * These are the thread created by the factory in the
@@ -20,10 +21,14 @@ import java.util.Map;
  */
 public class ServiceThread {
 
-    private static final Map<Long,ServiceThread> serviceThreadInstances;
+    private static final ThreadLocal<ServiceThread> serviceThreadInstance;
+    private static volatile int accountingSampleRate;
 
     static {
-        serviceThreadInstances = new HashMap<>();
+        serviceThreadInstance = new ThreadLocal<>();
+        updateAccountingSampleRate();
+        SystemProperties.addPropertyListener(SystemProperties.Service.THREAD_ACCOUNTING_SAMPLE_RATE,
+                (N, V) -> updateAccountingSampleRate());
     }
 
     private final Long threadId;
@@ -32,6 +37,11 @@ public class ServiceThread {
     private Long maxAllocatedMemory;
     private Long initialTime;
     private Long maxExecutionTime;
+    private long attachTime;
+    private boolean memoryExceeded;
+    private boolean executionTimeExceeded;
+    private LayerStack layerStack;
+    private PropertyMap properties;
 
     public ServiceThread(ServiceThread serviceThread) {
         this.threadId = serviceThread.threadId;
@@ -40,6 +50,11 @@ public class ServiceThread {
         this.maxAllocatedMemory = serviceThread.maxAllocatedMemory;
         this.initialTime = serviceThread.initialTime;
         this.maxExecutionTime = serviceThread.maxExecutionTime;
+        this.attachTime = serviceThread.attachTime;
+        this.memoryExceeded = serviceThread.memoryExceeded;
+        this.executionTimeExceeded = serviceThread.executionTimeExceeded;
+        this.layerStack = serviceThread.layerStack;
+        this.properties = serviceThread.properties;
     }
 
     public ServiceThread() {
@@ -51,22 +66,52 @@ public class ServiceThread {
      * @param element Layer stack element.
      */
     public final void putLayer(ServiceSession.LayerStackElement element) {
-        getSession().putLayer(element);
+        if(layerStack == null) {
+            layerStack = new LayerStack();
+        }
+        layerStack.push(element);
     }
 
     /**
      * Remove the head of the layer stack.
      */
     public final void removeLayer() {
-        getSession().removeLayer();
+        if(layerStack != null) {
+            layerStack.pop();
+        }
     }
 
     /**
-     * This method return the stack of layer of the session.
-     * @return Layer stack.
+     * This method return the stack of layer of the session, the first element is the head of the stack.
+     * @return Unmodifiable view of the layer stack.
      */
     public Collection<ServiceSession.LayerStackElement> getLayerStack() {
-        return getSession().getLayerStack();
+        return layerStack == null ? Collections.emptyList() : Collections.unmodifiableList(layerStack);
+    }
+
+    /**
+     * Returns the element of the layer stack in the position from the head.
+     * @param index Position from the head of the stack.
+     * @return Layer stack element or null if the stack hasn't enough elements.
+     */
+    final ServiceSession.LayerStackElement getLayer(int index) {
+        ServiceSession.LayerStackElement result = null;
+        if(layerStack != null && layerStack.size() > index) {
+            result = layerStack.get(index);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the session properties of the thread.
+     * @param create If this value is true then the properties are created if they don't exist.
+     * @return Properties of the thread or null if they don't exist and the create parameter is false.
+     */
+    final Map<String, Object> getProperties(boolean create) {
+        if(properties == null && create) {
+            properties = new PropertyMap();
+        }
+        return properties;
     }
 
     /**
@@ -143,10 +188,35 @@ public class ServiceThread {
 
     /**
      * Returns the accumulated time into the current thread.
-     * @return Accumulated time.
+     * @return Accumulated time or null if the resources of the current session are not accounted.
      */
     public final Long getAccumulatedTime() {
-        return ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime() - getInitialTime();
+        Long result = null;
+        if(isAccounted()) {
+            result = ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime() - getInitialTime();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the memory allocated by the current thread since the current session was attached.
+     * @return Allocated memory or null if the resources of the current session are not accounted.
+     */
+    public final Long getAllocatedMemory() {
+        Long result = null;
+        if(isAccounted()) {
+            result = ((ThreadMXBean)ManagementFactory.getThreadMXBean()).
+                    getThreadAllocatedBytes(Thread.currentThread().threadId()) - getInitialAllocatedMemory();
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if the cpu time and the allocated memory are accounted for the current session of the thread.
+     * @return Accounted flag.
+     */
+    public final boolean isAccounted() {
+        return initialTime != null;
     }
 
     /**
@@ -159,25 +229,90 @@ public class ServiceThread {
             this.session.endThread();
         }
 
+        //The layer stack and the properties are cleared and reused by the new session.
+        if(layerStack != null) {
+            layerStack.reset();
+        }
+        if(properties != null) {
+            properties.clear();
+        }
+
         if(session != null) {
+            //The budget needs the counters of all the sessions.
+            boolean budgeted = ThreadBudget.isEnabled();
+            boolean accounted = budgeted || isAccountingSampled();
+
             //Start the status of the current thread into the new session.
-            session.startThread();
+            session.startThread(accounted);
 
             //Init the counters
-            setInitialAllocatedMemory(((ThreadMXBean)ManagementFactory.getThreadMXBean()).
-                    getThreadAllocatedBytes(Thread.currentThread().threadId()));
-            setInitialTime(ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime());
+            if(accounted) {
+                setInitialAllocatedMemory(((ThreadMXBean)ManagementFactory.getThreadMXBean()).
+                        getThreadAllocatedBytes(Thread.currentThread().threadId()));
+                setInitialTime(ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime());
+            } else {
+                setInitialAllocatedMemory(null);
+                setInitialTime(null);
+            }
+
+            //Init the limits
+            if(budgeted) {
+                setMaxAllocatedMemory(ThreadBudget.getMaxAllocatedMemory());
+                setMaxExecutionTime(ThreadBudget.getMaxExecutionTime());
+            } else {
+                setMaxAllocatedMemory(null);
+                setMaxExecutionTime(null);
+            }
+            attachTime = System.nanoTime();
+            memoryExceeded = false;
+            executionTimeExceeded = false;
         }
 
         this.session = session;
     }
 
     /**
-     * Returns service thread instance for the current thread.
+     * Decides if the resources of the session attached are accounted, reading the thread counters is expensive
+     * compared with small tasks, then the accounting is sampled using the configured rate. The value zero disables
+     * the accounting, one accounts all the sessions and the value N accounts one of each N sessions in average.
+     * @return True if the resources must be accounted.
+     */
+    private static boolean isAccountingSampled() {
+        boolean result;
+        int sampleRate = accountingSampleRate;
+        if(sampleRate <= 0) {
+            result = false;
+        } else if(sampleRate == 1) {
+            result = true;
+        } else {
+            result = ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+        }
+        return result;
+    }
+
+    /**
+     * Updates the cached value of the accounting sample rate, the rate is read for each session attached then
+     * the value is cached and updated when the property changes.
+     */
+    private static void updateAccountingSampleRate() {
+        accountingSampleRate = SystemProperties.getInteger(SystemProperties.Service.THREAD_ACCOUNTING_SAMPLE_RATE);
+    }
+
+    /**
+     * Returns service thread instance for the current thread. The instance is stored into a thread local, then
+     * this method doesn't need any lock and the instance is released together with the thread.
      * @return Service thread instance.
      */
-    public static synchronized ServiceThread getServiceThreadInstance() {
-        return getServiceThreadInstance(ServiceThread.class);
+    public static ServiceThread getServiceThreadInstance() {
+        ServiceThread instance = serviceThreadInstance.get();
+        if (instance == null) {
+            instance = new ServiceThread();
+            serviceThreadInstance.set(instance);
+        }
+        if (instance.getSession() == null) {
+            instance.setSession(ServiceSession.getGuestSession());
+        }
+        return instance;
     }
 
     /**
@@ -186,28 +321,26 @@ public class ServiceThread {
      * @return Service thread instance.
      * @param <S> Expected service thread instance.
      */
-    public static synchronized <S extends ServiceThread> S getServiceThreadInstance(Class<S> serviceThreadClass) {
-        Long threadId = Thread.currentThread().threadId();
-        ServiceThread instance = serviceThreadInstances.get(threadId);
+    public static <S extends ServiceThread> S getServiceThreadInstance(Class<S> serviceThreadClass) {
+        ServiceThread instance = serviceThreadInstance.get();
         if (instance == null) {
             // In this case there aren't any instance for this thread then we need to create a base instance for this
-            // thread id.
+            // thread.
             try {
                 instance = serviceThreadClass.getConstructor().newInstance();
             } catch (Exception e) {
                 throw new HCJFRuntimeException("Unable to create service thread instance (%s)", serviceThreadClass.getName());
             }
-            serviceThreadInstances.put(threadId, instance);
-        } else if (!instance.getClass().equals(serviceThreadClass)) {
+            serviceThreadInstance.set(instance);
+        } else if (!serviceThreadClass.isInstance(instance)) {
             // In this case the instance of service thread is not the same that we need then we need to create a new
             // service thread instance using previous instance as base.
             try {
                 instance = serviceThreadClass.getConstructor(ServiceThread.class).newInstance(instance);
             } catch (Exception e) {
-                e.printStackTrace();
-                throw new HCJFRuntimeException("Unable to create service thread instance (%s)", serviceThreadClass.getName());
+                throw new HCJFRuntimeException("Unable to create service thread instance (%s)", e, serviceThreadClass.getName());
             }
-            serviceThreadInstances.put(threadId, instance);
+            serviceThreadInstance.set(instance);
         }
         if (instance.getSession() == null) {
             instance.setSession(ServiceSession.getGuestSession());
@@ -216,10 +349,78 @@ public class ServiceThread {
     }
 
     /**
-     * Verify if the current thread is interrupted.
+     * Ends the session of the current thread and removes the service thread instance, this method is called
+     * when a service task ends in order to release the context of the thread.
+     */
+    static void releaseServiceThreadInstance() {
+        ServiceThread instance = serviceThreadInstance.get();
+        if (instance != null) {
+            instance.setSession(null);
+            serviceThreadInstance.remove();
+        }
+    }
+
+    /**
+     * Removes the service thread instance of the current thread without end its session, this method is called
+     * before run a service task in a thread that could already have a context (for example the caller thread
+     * when the executor is saturated), then the context is restored when the task ends.
+     * @return Previous service thread instance or null if the thread hasn't context.
+     */
+    static ServiceThread suspendServiceThreadInstance() {
+        ServiceThread result = serviceThreadInstance.get();
+        if (result != null) {
+            serviceThreadInstance.remove();
+        }
+        return result;
+    }
+
+    /**
+     * Restores the service thread instance suspended before run a service task.
+     * @param instance Suspended instance, if it's null then nothing is restored.
+     */
+    static void resumeServiceThreadInstance(ServiceThread instance) {
+        if (instance != null) {
+            serviceThreadInstance.set(instance);
+        }
+    }
+
+    /**
+     * Verify if the thread exceeds the max allocated memory or the max execution time of the current session.
+     * The limits are only set when the budget is enabled. The thread counters are not supported for virtual
+     * threads, in this case the allocated memory is not verified and the execution time is the elapsed time
+     * since the session was attached.
+     */
+    private void checkBudget() {
+        if(maxAllocatedMemory != null && isAccounted() && getInitialAllocatedMemory() >= 0) {
+            long allocatedMemory = getAllocatedMemory();
+            if(allocatedMemory > maxAllocatedMemory) {
+                boolean firstBreach = !memoryExceeded;
+                memoryExceeded = true;
+                ThreadBudget.onMemoryExceeded(allocatedMemory, maxAllocatedMemory, firstBreach);
+            }
+        }
+        if(maxExecutionTime != null && isAccounted()) {
+            long executionTime = getInitialTime() >= 0 ? getAccumulatedTime() : System.nanoTime() - attachTime;
+            if(executionTime > maxExecutionTime) {
+                boolean firstBreach = !executionTimeExceeded;
+                executionTimeExceeded = true;
+                ThreadBudget.onExecutionTimeExceeded(executionTime, maxExecutionTime, firstBreach);
+            }
+        }
+    }
+
+    /**
+     * Verify if the current thread is interrupted, before that the budget of the thread is verified and if it's
+     * exceeded then the thread is interrupted or this method throws an exception.
      * @throws InterruptedException Throws this exception if the current thread is interrupted.
+     * @throws org.hcjf.errors.HCJFThreadBudgetExceededException If the budget of the thread is exceeded and the
+     * breach is configured to throw exceptions.
      */
     public static void checkInterruptedThread() throws InterruptedException {
+        ServiceThread instance = serviceThreadInstance.get();
+        if(instance != null) {
+            instance.checkBudget();
+        }
         if(Thread.currentThread().isInterrupted()) {
             throw new InterruptedException("Service thread interrupted");
         }
@@ -0,0 +1,30 @@
+package org.hcjf.service;
+
+/**
+ * Priority lanes of the tasks executed by a {@link PriorityExecutorService}, the lanes are sorted from the highest
+ * to the lowest priority.
+ * @author javaito
+ */
+public enum TaskPriority {
+
+    /**
+     * Latency critical tasks, these tasks are never rejected by the admission control.
+     */
+    CRITICAL,
+
+    /**
+     * High priority tasks, these tasks are never rejected by the admission control.
+     */
+    HIGH,
+
+    /**
+     * Default priority of the tasks.
+     */
+    NORMAL,
+
+    /**
+     * Background tasks.
+     */
+    LOW
+
+}
@@ -0,0 +1,157 @@
+package org.hcjf.service;
+
+import org.hcjf.errors.HCJFThreadBudgetExceededException;
+import org.hcjf.log.Log;
+import org.hcjf.properties.SystemProperties;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * This class contains the resource budget of the service threads: the memory allocated and the cpu time consumed
+ * by a thread since the current session was attached. The budget is enabled using the property
+ * {@link SystemProperties.Service#THREAD_BUDGET_ENABLED} and it's verified each time that the thread calls
+ * {@link ServiceThread#checkInterruptedThread()}, that includes the start of each layer invocation.
+ * When some limit is exceeded the thread is interrupted or the verification fails with a
+ * {@link HCJFThreadBudgetExceededException}, and the breach is counted into the budget metrics.
+ * The configuration of the budget is cached and updated when some of the properties changes.
+ * @author javaito
+ */
+public final class ThreadBudget {
+
+    private static final LongAdder memoryBreaches;
+    private static final LongAdder executionTimeBreaches;
+    private static volatile boolean enabled;
+    private static volatile long maxAllocatedMemory;
+    private static volatile long maxExecutionTime;
+    private static volatile boolean memoryExceededThrowsException;
+    private static volatile boolean executionTimeExceededThrowsException;
+
+    static {
+        memoryBreaches = new LongAdder();
+        executionTimeBreaches = new LongAdder();
+        updateConfiguration();
+        Stream.of(SystemProperties.Service.THREAD_BUDGET_ENABLED,
+                SystemProperties.Service.MAX_ALLOCATED_MEMORY_FOR_THREAD,
+                SystemProperties.Service.MAX_ALLOCATED_MEMORY_EXPRESSED_IN_PERCENTAGE,
+                SystemProperties.Service.MAX_EXECUTION_TIME_FOR_THREAD,
+                SystemProperties.Service.MAX_ALLOCATED_MEMORY_EXCEEDED_THROWS_EXCEPTION,
+                SystemProperties.Service.MAX_EXECUTION_TIME_EXCEEDED_THROWS_EXCEPTION).
+                forEach(P -> SystemProperties.addPropertyListener(P, (N, V) -> updateConfiguration()));
+    }
+
+    private ThreadBudget() {
+    }
+
+    /**
+     * Updates the cached values of the configuration.
+     */
+    private static synchronized void updateConfiguration() {
+        enabled = SystemProperties.getBoolean(SystemProperties.Service.THREAD_BUDGET_ENABLED);
+        long memory = SystemProperties.getLong(SystemProperties.Service.MAX_ALLOCATED_MEMORY_FOR_THREAD);
+        if(SystemProperties.getBoolean(SystemProperties.Service.MAX_ALLOCATED_MEMORY_EXPRESSED_IN_PERCENTAGE)) {
+            memory = Runtime.getRuntime().maxMemory() / 100 * memory;
+        }
+        maxAllocatedMemory = memory;
+        maxExecutionTime = SystemProperties.getLong(SystemProperties.Service.MAX_EXECUTION_TIME_FOR_THREAD);
+        memoryExceededThrowsException = SystemProperties.getBoolean(
+                SystemProperties.Service.MAX_ALLOCATED_MEMORY_EXCEEDED_THROWS_EXCEPTION);
+        executionTimeExceededThrowsException = SystemProperties.getBoolean(
+                SystemProperties.Service.MAX_EXECUTION_TIME_EXCEEDED_THROWS_EXCEPTION);
+    }
+
+    /**
+     * Returns true if the budget of the threads is enabled.
+     * @return Enabled flag.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the max number of bytes that a thread can allocate into the same session, the value is
+     * configured in bytes or as a percentage of the max memory of the runtime.
+     * @return Max allocated memory in bytes.
+     */
+    public static long getMaxAllocatedMemory() {
+        return maxAllocatedMemory;
+    }
+
+    /**
+     * Returns the max cpu time that a thread can consume into the same session.
+     * @return Max execution time in nanoseconds.
+     */
+    public static long getMaxExecutionTime() {
+        return maxExecutionTime;
+    }
+
+    /**
+     * Returns the number of times that some thread exceeded the max allocated memory.
+     * @return Number of memory breaches.
+     */
+    public static long getMemoryBreaches() {
+        return memoryBreaches.sum();
+    }
+
+    /**
+     * Returns the number of times that some thread exceeded the max execution time.
+     * @return Number of execution time breaches.
+     */
+    public static long getExecutionTimeBreaches() {
+        return executionTimeBreaches.sum();
+    }
+
+    /**
+     * This method is called when the current thread exceeds the max allocated memory.
+     * @param allocatedMemory Memory allocated by the thread.
+     * @param maxAllocatedMemory Max allocated memory.
+     * @param firstBreach True if it's the first time that the breach is detected for the current session.
+     */
+    static void onMemoryExceeded(long allocatedMemory, long maxAllocatedMemory, boolean firstBreach) {
+        if(firstBreach) {
+            memoryBreaches.increment();
+        }
+        onBudgetExceeded(firstBreach,
+                memoryExceededThrowsException,
+                "Max allocated memory exceeded by the thread %s: %d bytes (max %d bytes)",
+                allocatedMemory, maxAllocatedMemory);
+    }
+
+    /**
+     * This method is called when the current thread exceeds the max execution time.
+     * @param executionTime Cpu time consumed by the thread.
+     * @param maxExecutionTime Max execution time.
+     * @param firstBreach True if it's the first time that the breach is detected for the current session.
+     */
+    static void onExecutionTimeExceeded(long executionTime, long maxExecutionTime, boolean firstBreach) {
+        if(firstBreach) {
+            executionTimeBreaches.increment();
+        }
+        onBudgetExceeded(firstBreach,
+                executionTimeExceededThrowsException,
+                "Max execution time exceeded by the thread %s: %d ns (max %d ns)",
+                executionTime, maxExecutionTime);
+    }
+
+    /**
+     * Logs the first breach and applies the configured policy: throws an exception each time that the budget is
+     * verified or interrupts the thread only once.
+     * @param firstBreach True if it's the first time that the breach is detected for the current session.
+     * @param throwsException True if the breach must throw an exception.
+     * @param message Breach message.
+     * @param used Amount of resource used.
+     * @param max Max amount of resource.
+     * @throws HCJFThreadBudgetExceededException If the policy is to throw an exception.
+     */
+    private static void onBudgetExceeded(boolean firstBreach, boolean throwsException, String message, long used, long max) {
+        String threadName = Thread.currentThread().getName();
+        if(firstBreach) {
+            Log.w(Service.SERVICE_LOG_TAG, message, threadName, used, max);
+        }
+        if(throwsException) {
+            throw new HCJFThreadBudgetExceededException(message, threadName, used, max);
+        } else if(firstBreach) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.hcjf.service.security;
 import org.hcjf.utils.bson.BsonParcelable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Grants singleton.
@@ -12,26 +13,32 @@ public final class Grants {
 
     private static final Map<String, Grant> grantsById;
     private static final Map<String, Map<String,Grant>> grants;
+    private static int nextOrdinal;
 
     static {
-        grantsById = new HashMap<>();
-        grants = new HashMap<>();
+        grantsById = new ConcurrentHashMap<>();
+        grants = new ConcurrentHashMap<>();
     }
 
     /**
-     * Publish the new grant associated to the permission as parameter.
+     * Publish the new grant associated to the permission as parameter. Each grant has an ordinal number assigned
+     * in the publication, if the permission is published again then the grant keeps the same ordinal.
      * @param permission Permission instance as parameter.
+     * @return Grant instance published.
      */
-    public synchronized static void publishGrant(SecurityPermissions.SecurityPermission permission) {
+    public synchronized static Grant publishGrant(SecurityPermissions.SecurityPermission permission) {
+        Grant publishedGrant = grantsById.get(permission.getName());
+        int ordinal = publishedGrant == null ? nextOrdinal++ : publishedGrant.ordinal;
         Grant grant = new Grant(permission.getName(), permission.getTargetClassName(), permission.getTitle(),
-                permission.getPermissionName(), permission.getDescription(), permission.getTags());
+                permission.getPermissionName(), permission.getDescription(), permission.getTags(), ordinal);
         Map<String, Grant> grantsByClass = grants.get(permission.getTargetClassName());
         if(grantsByClass == null) {
-            grantsByClass = new HashMap<>();
+            grantsByClass = new ConcurrentHashMap<>();
             grants.put(permission.getTargetClassName(), grantsByClass);
         }
         grantsByClass.put(grant.getGrantName(), grant);
         grantsById.put(grant.permissionId, grant);
+        return grant;
     }
 
     /**
@@ -70,6 +77,17 @@ public final class Grants {
         return result;
     }
 
+    /**
+     * Returns the ordinal number assigned to the grant when it was published, this number is unique for each
+     * permission id and it's used to index the grants of the sessions. The ordinal depends on the publication
+     * order of the current instance, then it's not a property of the grant and it's not serialized.
+     * @param grant Grant instance.
+     * @return Ordinal number of the grant.
+     */
+    public static int getOrdinal(Grant grant) {
+        return grant.ordinal;
+    }
+
     /**
      * System grant representation.
      * @author javaito
@@ -82,15 +100,17 @@ public final class Grants {
         private final String title;
         private final String description;
         private final List<String> tags;
+        private final int ordinal;
 
         private Grant(String permissionId, String targetClassName,
-                      String grantName, String title, String description, List<String> tags) {
+                      String grantName, String title, String description, List<String> tags, int ordinal) {
             this.permissionId = permissionId;
             this.targetClassName = targetClassName;
             this.grantName = grantName;
             this.title = title;
             this.description = description;
             this.tags = tags;
+            this.ordinal = ordinal;
         }
 
         /**
@@ -153,19 +173,28 @@ public final class Grants {
         /**
          * Verify if the instance if equals to other grant instance.
          * @param obj Objet to compare.
-         * @return If the object to compare is instance of the grant call the super
-         * implementation of the method, but if the object to compare is instance of
-         * string then compare the object with the id of the grant.
+         * @return If the object to compare is instance of the grant then compare the ids of
+         * both grants, but if the object to compare is instance of string then compare the
+         * object with the id of the grant.
          */
         @Override
         public boolean equals(Object obj) {
             boolean result = false;
             if(obj instanceof Grant) {
-                result = super.equals(obj);
+                result = Objects.equals(getPermissionId(), ((Grant)obj).getPermissionId());
             } else if(obj instanceof String) {
                 result = Objects.equals(getPermissionId(), obj);
             }
             return result;
         }
+
+        /**
+         * Returns the hash code of the grant id.
+         * @return Hash code of the grant.
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getPermissionId());
+        }
     }
 }
@@ -2,10 +2,9 @@ package org.hcjf.service.security;
 
 import org.hcjf.service.ServiceSession;
 
-import java.security.Permission;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class to represents permissions into the vm
@@ -17,10 +16,10 @@ public class SecurityPermissions {
     private static final String SECURITY_EXCEPTION_MESSAGE = "Security exception";
     private static final String TAG_RESPONSE_CODE = "$@{RESPONSE_CODE}";
     private static final String ID_CONCAT = "@";
-    private static final Map<String,SecurityPermission> permissions;
+    private static final Map<String,Map<String,SecurityPermission>> permissions;
 
     static {
-        permissions = new HashMap<>();
+        permissions = new ConcurrentHashMap<>();
     }
 
     /**
@@ -53,9 +52,8 @@ public class SecurityPermissions {
     private static SecurityPermission createPermission(String className, String permissionName, String title, String description, List<String> tags) {
         String permissionId = createPermissionId(className, permissionName);
         SecurityPermission permission = new SecurityPermission(permissionId, className, title, permissionName, description, tags);
-        permissions.put(permissionId, permission);
-
-        Grants.publishGrant(permission);
+        permission.grant = Grants.publishGrant(permission);
+        permissions.computeIfAbsent(className, K -> new ConcurrentHashMap<>()).put(permissionName, permission);
         return permission;
     }
 
@@ -65,9 +63,16 @@ public class SecurityPermissions {
      * @param permissionName Name of the permission.
      */
     public static void checkPermission(Class targetClass, String permissionName) {
-        Permission permission = SecurityPermissions.getPermission(
-                        targetClass.getName(), permissionName);
-        if(permission instanceof SecurityPermissions.SecurityPermission) {
+        checkPermission(getPermission(targetClass, permissionName));
+    }
+
+    /**
+     * Checks if the current identity contains the grant of the permission, the permission instance is the handle
+     * returned when the permission is published, then the check doesn't need to look up the permission.
+     * @param permission Permission instance, if the permission is null then the check is ignored.
+     */
+    public static void checkPermission(SecurityPermission permission) {
+        if(permission != null) {
             ServiceSession serviceSession;
             try {
                 serviceSession = ServiceSession.getCurrentIdentity();
@@ -75,7 +80,7 @@ public class SecurityPermissions {
                 throw new SecurityException(SECURITY_EXCEPTION_MESSAGE, ex);
             }
             if (!serviceSession.isSystemSession() &&
-                    !serviceSession.containsGrant(permission.getName())) {
+                    !serviceSession.containsGrant(permission.grant)) {
                 String message = String.format(GRANT_NOT_FOUND_TEMPLATE,
                         permission.getName(), serviceSession.getId());
                 Throwable throwable = new Throwable(message, new Throwable(TAG_RESPONSE_CODE.concat("FORBIDDEN")));
@@ -99,13 +104,18 @@ public class SecurityPermissions {
     }
 
     /**
-     * Returns the instance of a permission indexed by the id created for the class name and the permission name.
-     * @param className Name of the class that publish the permission.
+     * Returns the instance of a permission indexed by the class name and the permission name.
+     * @param targetClass Class that publish the permission.
      * @param permissionName Name of the permission.
-     * @return Returns the permission instance.
+     * @return Returns the permission instance or null if the permission is not published.
      */
-    private static SecurityPermission getPermission(String className, String permissionName) {
-        return permissions.get(createPermissionId(className, permissionName));
+    public static SecurityPermission getPermission(Class<?> targetClass, String permissionName) {
+        SecurityPermission result = null;
+        Map<String,SecurityPermission> permissionsByClass = permissions.get(targetClass.getName());
+        if(permissionsByClass != null) {
+            result = permissionsByClass.get(permissionName);
+        }
+        return result;
     }
 
     /**
@@ -118,6 +128,7 @@ public class SecurityPermissions {
         private final String title;
         private final String description;
         private final List<String> tags;
+        private transient Grants.Grant grant;
 
         private SecurityPermission(String name, String targetClassName, String permissionName,
                                    String title, String description, List<String> tags) {
@@ -169,6 +180,14 @@ public class SecurityPermissions {
             return tags;
         }
 
+        /**
+         * Returns the grant published for the permission.
+         * @return Grant instance.
+         */
+        public Grants.Grant getGrant() {
+            return grant;
+        }
+
         @Override
         public boolean implies(java.security.Permission permission) {
             return false;
@@ -0,0 +1,151 @@
+package org.hcjf.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram with log-linear buckets (like the HDR histograms). The values between two consecutive
+ * powers of two are divided into a fixed amount of linear sub-buckets, then the relative error of the percentiles
+ * is bounded (about 3% with the default precision) for all the range of positive long values.
+ * All the record operations are wait-free and none of them allocates memory.
+ * @author javaito
+ */
+public final class LatencyHistogram {
+
+    private static final int DEFAULT_SUB_BUCKET_BITS = 5;
+
+    private final int subBucketBits;
+    private final int subBucketCount;
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    public LatencyHistogram(int subBucketBits) {
+        if(subBucketBits < 1 || subBucketBits > 10) {
+            throw new IllegalArgumentException("The sub bucket bits must be between 1 and 10");
+        }
+        this.subBucketBits = subBucketBits;
+        this.subBucketCount = 1 << subBucketBits;
+        this.buckets = new AtomicLongArray((Long.SIZE - subBucketBits) * subBucketCount);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Long::max, 0);
+    }
+
+    public LatencyHistogram() {
+        this(DEFAULT_SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Records a value into the histogram, the negative values are recorded as zero.
+     * @param value Value to record.
+     */
+    public void record(long value) {
+        if(value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet(getIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     * @return Number of values.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the max recorded value.
+     * @return Max value.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     * @return Mean value or zero if the histogram is empty.
+     */
+    public double getMean() {
+        long currentCount = count.sum();
+        return currentCount == 0 ? 0 : sum.sum() / (double) currentCount;
+    }
+
+    /**
+     * Returns the value at the percentile indicated, the value returned is the middle point of the bucket that
+     * contains the percentile.
+     * @param percentile Percentile between 0 and 100.
+     * @return Value at the percentile or zero if the histogram is empty.
+     */
+    public long getPercentile(double percentile) {
+        long result = 0;
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            total += buckets.get(i);
+        }
+        if(total > 0) {
+            long target = Math.max(1, (long) Math.ceil((Math.min(percentile, 100.0) / 100.0) * total));
+            long accumulated = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                accumulated += buckets.get(i);
+                if(accumulated >= target) {
+                    result = Math.min(getMiddleValue(i), getMax());
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all the recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Returns the bucket index for the value.
+     * @param value Positive value.
+     * @return Bucket index.
+     */
+    private int getIndex(long value) {
+        int result;
+        if(value < subBucketCount) {
+            result = (int) value;
+        } else {
+            int exponent = (Long.SIZE - 1) - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) ((value >>> (exponent - subBucketBits)) & (subBucketCount - 1));
+            result = ((exponent - subBucketBits + 1) << subBucketBits) + subBucket;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the middle point of the values contained into the bucket.
+     * @param index Bucket index.
+     * @return Middle value.
+     */
+    private long getMiddleValue(int index) {
+        long result;
+        if(index < subBucketCount) {
+            result = index;
+        } else {
+            int shift = (index >>> subBucketBits) - 1;
+            long lowerBound = ((long) (subBucketCount + (index & (subBucketCount - 1)))) << shift;
+            result = lowerBound + ((1L << shift) >>> 1);
+        }
+        return result;
+    }
+}
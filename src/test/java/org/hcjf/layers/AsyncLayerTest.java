@@ -0,0 +1,141 @@
+package org.hcjf.layers;
+
+import org.hcjf.service.ServiceSession;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @author javaito
+ */
+public class AsyncLayerTest {
+
+    private static final CountDownLatch interrupted = new CountDownLatch(1);
+
+    @BeforeClass
+    public static void publish() {
+        Layers.publishLayer(FirstAsyncLayer.class);
+        Layers.publishLayer(SecondAsyncLayer.class);
+    }
+
+    @Test
+    public void testCall() throws Exception {
+        CompletableFuture<String> future = Layers.async(AsyncLayerInterface.class, "first").call(L -> L.echo("value"));
+        Assert.assertEquals("first:value", future.get());
+    }
+
+    @Test
+    public void testSessionPropagation() {
+        ServiceSession session = new ServiceSession(UUID.randomUUID());
+        ServiceSession.runAs(() -> {
+            UUID identityId = Layers.async(AsyncLayerInterface.class, "first").call(AsyncLayerInterface::identity).join();
+            Assert.assertEquals(session.getId(), identityId);
+        }, session);
+    }
+
+    @Test
+    public void testLayerStackPropagation() {
+        Integer depth = Layers.get(AsyncLayerInterface.class, "first").asyncStackDepth();
+        Assert.assertEquals(Integer.valueOf(2), depth);
+    }
+
+    @Test
+    public void testException() {
+        try {
+            Layers.async(AsyncLayerInterface.class, "first").run(AsyncLayerInterface::fail).get();
+            Assert.fail();
+        } catch (Exception ex) {
+            Assert.assertTrue(ex instanceof ExecutionException);
+            Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        try {
+            Layers.async(AsyncLayerInterface.class, "first").run(AsyncLayerInterface::block, 100).get();
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof TimeoutException);
+        }
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testGather() {
+        List<String> results = AsyncLayer.gather(Layers.asyncAll(AsyncLayerInterface.class, L -> true),
+                L -> L.echo("value"), 1000).join();
+        Assert.assertEquals(2, results.size());
+        Assert.assertTrue(results.contains("first:value"));
+        Assert.assertTrue(results.contains("second:value"));
+    }
+
+    public interface AsyncLayerInterface extends LayerInterface {
+        String echo(String value);
+        UUID identity();
+        Integer stackDepth();
+        Integer asyncStackDepth();
+        void fail();
+        void block();
+    }
+
+    public static class FirstAsyncLayer extends Layer implements AsyncLayerInterface {
+
+        public FirstAsyncLayer() {
+            this("first");
+        }
+
+        protected FirstAsyncLayer(String implName) {
+            super(implName);
+        }
+
+        @Override
+        public String echo(String value) {
+            return getImplName() + ":" + value;
+        }
+
+        @Override
+        public UUID identity() {
+            return ServiceSession.getCurrentIdentity().getId();
+        }
+
+        @Override
+        public Integer stackDepth() {
+            return ServiceSession.getCurrentSession().getLayerStack().size();
+        }
+
+        @Override
+        public Integer asyncStackDepth() {
+            return Layers.async(AsyncLayerInterface.class, "second").call(AsyncLayerInterface::stackDepth).join();
+        }
+
+        @Override
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+
+        @Override
+        public void block() {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+        }
+    }
+
+    public static class SecondAsyncLayer extends FirstAsyncLayer {
+
+        public SecondAsyncLayer() {
+            super("second");
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.hcjf.layers;
+
+import org.hcjf.service.ServiceSession;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author javaito
+ */
+public class LayerResultCacheTest {
+
+    private static final AtomicInteger counter = new AtomicInteger();
+    private static final AtomicInteger beforeInvocations = new AtomicInteger();
+    private static final AtomicInteger afterInvocations = new AtomicInteger();
+
+    @BeforeClass
+    public static void publish() {
+        Layers.publishLayer(CountingLayer.class);
+    }
+
+    @Test
+    public void testCachedResult() {
+        CountingLayerInterface layer = Layers.get(CountingLayerInterface.class, "counting");
+        Integer first = layer.count("cached");
+        Assert.assertEquals(first, layer.count("cached"));
+        Assert.assertEquals(first, Layers.get(CountingLayerInterface.class, "counting").count("cached"));
+        Assert.assertNotEquals(first, layer.count("other"));
+        Assert.assertNotEquals(layer.uncached("cached"), layer.uncached("cached"));
+    }
+
+    @Test
+    public void testInvalidation() {
+        CountingLayerInterface layer = Layers.get(CountingLayerInterface.class, "counting");
+        Integer first = layer.count("invalidation");
+        layer.invalidate();
+        Integer second = layer.count("invalidation");
+        Assert.assertNotEquals(first, second);
+        Assert.assertEquals(second, layer.count("invalidation"));
+
+        Layers.invalidateResultCache(CountingLayerInterface.class, "counting");
+        Assert.assertNotEquals(second, layer.count("invalidation"));
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+        CountingLayerInterface layer = Layers.get(CountingLayerInterface.class, "counting");
+        Integer first = layer.shortLived("expiration");
+        Assert.assertEquals(first, layer.shortLived("expiration"));
+        Thread.sleep(100);
+        Assert.assertNotEquals(first, layer.shortLived("expiration"));
+    }
+
+    @Test
+    public void testSizeBound() throws Exception {
+        CountingLayerInterface layer = Layers.get(CountingLayerInterface.class, "counting");
+        for (int i = 0; i < 100; i++) {
+            layer.shortLived("size-" + i);
+        }
+        LayerResultCache cache = LayerResultCache.getCache(CountingLayer.class,
+                CountingLayer.class.getMethod("shortLived", String.class));
+        Assert.assertTrue(cache.getSize() <= 10);
+    }
+
+    @Test
+    public void testSessionScoped() {
+        CountingLayerInterface layer = Layers.get(CountingLayerInterface.class, "counting");
+        Integer guestValue = layer.bySession("session");
+        Assert.assertEquals(guestValue, layer.bySession("session"));
+        Integer[] sessionValues = new Integer[2];
+        ServiceSession.runAs(() -> {
+            sessionValues[0] = layer.bySession("session");
+            sessionValues[1] = layer.bySession("session");
+        }, new ServiceSession(UUID.randomUUID()));
+        Assert.assertNotEquals(guestValue, sessionValues[0]);
+        Assert.assertEquals(sessionValues[0], sessionValues[1]);
+    }
+
+    @Test
+    public void testProxyCallbacksArePaired() {
+        CountingLayerInterface layer = Layers.get(CountingLayerInterface.class, "counting");
+        layer.count("paired");
+        int before = beforeInvocations.get();
+        int after = afterInvocations.get();
+        for (int i = 0; i < 10; i++) {
+            layer.count("paired");
+        }
+        Assert.assertEquals(before, beforeInvocations.get());
+        Assert.assertEquals(after, afterInvocations.get());
+    }
+
+    public interface CountingLayerInterface extends LayerInterface {
+        Integer count(String key);
+        Integer uncached(String key);
+        Integer shortLived(String key);
+        Integer bySession(String key);
+        void invalidate();
+    }
+
+    public static class CountingLayer extends Layer implements CountingLayerInterface {
+
+        public CountingLayer() {
+            super("counting", false);
+        }
+
+        @Override
+        @CachedResult
+        public Integer count(String key) {
+            return counter.incrementAndGet();
+        }
+
+        @Override
+        public Integer uncached(String key) {
+            return counter.incrementAndGet();
+        }
+
+        @Override
+        @CachedResult(timeToLive = 50, size = 10)
+        public Integer shortLived(String key) {
+            return counter.incrementAndGet();
+        }
+
+        @Override
+        @CachedResult(sessionScoped = true)
+        public Integer bySession(String key) {
+            return counter.incrementAndGet();
+        }
+
+        @Override
+        public void invalidate() {
+            invalidateResultCache("count");
+        }
+
+        @Override
+        public LayerProxy getProxy() {
+            return new LayerProxy() {
+                @Override
+                public ProxyInterceptor onBeforeInvoke(Method method, Object... params) {
+                    beforeInvocations.incrementAndGet();
+                    return null;
+                }
+
+                @Override
+                public void onAfterInvoke(Method method, Object result, Object... params) {
+                    afterInvocations.incrementAndGet();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package org.hcjf.layers;
+
+import org.hcjf.errors.HCJFRuntimeException;
+import org.hcjf.layers.plugins.PluginLayer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author javaito
+ */
+public class LayersTest {
+
+    static {
+        Layers.publishLayer(StatefulGreetingLayer.class);
+        Layers.publishLayer(StatelessGreetingLayer.class);
+        Layers.publishLayer(RegexGreetingLayer.class);
+        Layers.publishLayer(InterceptedGreetingLayer.class);
+        Layers.publishLayer(DefaultFarewellLayer.class);
+    }
+
+    @Test
+    public void testGetByName() {
+        GreetingLayerInterface layer = Layers.get(GreetingLayerInterface.class, "stateful");
+        Assert.assertEquals("stateful:world", layer.greet("world"));
+        Assert.assertSame(layer, Layers.get(GreetingLayerInterface.class, "stateful"));
+
+        GreetingLayerInterface statelessLayer = Layers.get(GreetingLayerInterface.class, "stateless");
+        Assert.assertEquals("stateless:world", statelessLayer.greet("world"));
+        Assert.assertNotSame(statelessLayer, Layers.get(GreetingLayerInterface.class, "stateless"));
+    }
+
+    @Test
+    public void testGetByAlias() {
+        GreetingLayerInterface layer = Layers.get(GreetingLayerInterface.class, "stateful-alias");
+        Assert.assertEquals("stateful:world", layer.greet("world"));
+    }
+
+    @Test
+    public void testGetByRegex() {
+        GreetingLayerInterface layer = Layers.get(GreetingLayerInterface.class, "tenant-1234");
+        Assert.assertEquals("regex:world", layer.greet("world"));
+    }
+
+    @Test
+    public void testGetDefaultWithNullName() {
+        FarewellLayerInterface layer = Layers.get(FarewellLayerInterface.class, (String) null);
+        Assert.assertEquals("default:world", layer.farewell("world"));
+    }
+
+    @Test(expected = HCJFRuntimeException.class)
+    public void testNotFound() {
+        Layers.get(GreetingLayerInterface.class, "unknown");
+    }
+
+    @Test
+    public void testCachedLookups() {
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("regex:world", Layers.get(GreetingLayerInterface.class, "tenant-42").greet("world"));
+            try {
+                Layers.get(GreetingLayerInterface.class, "unknown-tenant");
+                Assert.fail();
+            } catch (HCJFRuntimeException ex) {
+            }
+        }
+    }
+
+    @Test
+    public void testLookupCacheBounds() {
+        LayerLookupCache lookupCache = new LayerLookupCache(10, 0);
+        for (int i = 0; i < 100; i++) {
+            lookupCache.put(GreetingLayerInterface.class, "name-" + i, LayerLookupCache.NOT_FOUND, false,
+                    lookupCache.getGeneration());
+        }
+        int cached = 0;
+        for (int i = 0; i < 100; i++) {
+            if(lookupCache.get(GreetingLayerInterface.class, "name-" + i) != null) {
+                cached++;
+            }
+        }
+        Assert.assertTrue(cached <= 10);
+        Assert.assertSame(LayerLookupCache.NOT_FOUND, lookupCache.get(GreetingLayerInterface.class, "name-99"));
+    }
+
+    @Test
+    public void testLookupCacheGeneration() {
+        LayerLookupCache lookupCache = new LayerLookupCache(10, 0);
+        long generation = lookupCache.getGeneration();
+        //The cache is cleared while the name is resolved, then the resolution is stale.
+        lookupCache.clear();
+        lookupCache.put(GreetingLayerInterface.class, "name", LayerLookupCache.NOT_FOUND, false, generation);
+        Assert.assertNull(lookupCache.get(GreetingLayerInterface.class, "name"));
+
+        lookupCache.put(GreetingLayerInterface.class, "name", LayerLookupCache.NOT_FOUND, false,
+                lookupCache.getGeneration());
+        Assert.assertSame(LayerLookupCache.NOT_FOUND, lookupCache.get(GreetingLayerInterface.class, "name"));
+    }
+
+    @Test
+    public void testAdaptedAndInterceptedInvocation() {
+        GreetingLayerInterface layer = Layers.get(GreetingLayerInterface.class, "intercepted");
+        Assert.assertEquals("intercepted:WORLD", layer.greet("world"));
+        Assert.assertEquals("cached", layer.greet("cached"));
+    }
+
+    @Test
+    public void testMetrics() {
+        GreetingLayerInterface layer = Layers.get(GreetingLayerInterface.class, "stateless");
+        for (int i = 0; i < 100; i++) {
+            layer.greet("world");
+        }
+        LayerMetrics metrics = Layers.getMetrics().stream().
+                filter(M -> M.getImplName().equals("stateless")).findFirst().orElseThrow();
+        Assert.assertTrue(metrics.getInvocationMetrics().getInvocations() >= 100);
+        Assert.assertEquals(0, metrics.getInvocationMetrics().getErrors());
+        Assert.assertTrue(metrics.getInvocationMetrics().getP99() > 0);
+        Assert.assertTrue(metrics.getMethodMetrics().get("greet(String)").getInvocations() >= 100);
+    }
+
+    @Test
+    public void testPluginMetrics() throws Throwable {
+        Layer statefulPlugin = createPluginWrapper(new StatefulGreetingLayer());
+        Layer statelessPlugin = createPluginWrapper(new StatelessGreetingLayer());
+        Assert.assertSame(statefulPlugin.getClass(), statelessPlugin.getClass());
+
+        Method method = GreetingLayerInterface.class.getMethod("greet", String.class);
+        Assert.assertEquals("stateful:world", statefulPlugin.invoke(null, method, new Object[]{"world"}));
+        Assert.assertEquals("stateless:world", statelessPlugin.invoke(null, method, new Object[]{"world"}));
+
+        Assert.assertNotSame(statefulPlugin.getMetrics(), statelessPlugin.getMetrics());
+        Assert.assertEquals(StatefulGreetingLayer.class.getName(), statefulPlugin.getMetrics().getLayerClassName());
+        Assert.assertEquals("stateful", statefulPlugin.getMetrics().getImplName());
+        Assert.assertEquals(StatelessGreetingLayer.class.getName(), statelessPlugin.getMetrics().getLayerClassName());
+    }
+
+    @Test
+    public void testAdaptablePluginWrapper() throws Throwable {
+        Method method = GreetingLayerInterface.class.getMethod("greet", String.class);
+        Layer plugin = new AdaptablePluginLayer(new StatefulGreetingLayer());
+        Assert.assertEquals("stateful:WORLD", plugin.invoke(null, method, new Object[]{"world"}));
+    }
+
+    private static Layer createPluginWrapper(LayerInterface target) {
+        return new PluginLayer() {
+            @Override
+            protected Object getTarget() {
+                return target;
+            }
+        };
+    }
+
+    @Test
+    public void testGetAll() {
+        Set<GreetingLayerInterface> layers = Layers.getAll(GreetingLayerInterface.class, L -> true);
+        Assert.assertEquals(4, layers.size());
+    }
+
+    @Test
+    public void testConcurrentGet() throws Exception {
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String implName = i % 2 == 0 ? "stateful" : "tenant-" + i;
+            futures.add(executorService.submit(() -> Layers.get(GreetingLayerInterface.class, implName).greet("world")));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            Assert.assertEquals(i % 2 == 0 ? "stateful:world" : "regex:world", futures.get(i).get());
+        }
+        executorService.shutdown();
+    }
+
+    public interface GreetingLayerInterface extends LayerInterface {
+        String greet(String name);
+    }
+
+    public interface FarewellLayerInterface extends LayerInterface {
+        String farewell(String name);
+    }
+
+    @DefaultLayer(FarewellLayerInterface.class)
+    public static class DefaultFarewellLayer extends Layer implements FarewellLayerInterface {
+
+        public DefaultFarewellLayer() {
+            super("default");
+        }
+
+        @Override
+        public String farewell(String name) {
+            return "default:" + name;
+        }
+    }
+
+    public static class AdaptablePluginLayer extends PluginLayer implements AdaptableLayer {
+
+        private final LayerInterface target;
+
+        public AdaptablePluginLayer(LayerInterface target) {
+            this.target = target;
+        }
+
+        @Override
+        protected Object getTarget() {
+            return target;
+        }
+
+        @Override
+        public Object[] adaptArguments(Method method, Object[] args) {
+            return args == null ? null : new Object[]{args[0].toString().toUpperCase()};
+        }
+    }
+
+    public static class StatefulGreetingLayer extends Layer implements GreetingLayerInterface {
+
+        public StatefulGreetingLayer() {
+            super("stateful");
+        }
+
+        @Override
+        public Set<String> getAliases() {
+            return Set.of("stateful-alias");
+        }
+
+        @Override
+        public String greet(String name) {
+            return "stateful:" + name;
+        }
+    }
+
+    public static class StatelessGreetingLayer extends Layer implements GreetingLayerInterface {
+
+        public StatelessGreetingLayer() {
+            super("stateless", false);
+        }
+
+        @Override
+        public String greet(String name) {
+            return "stateless:" + name;
+        }
+    }
+
+    public static class InterceptedGreetingLayer extends Layer implements GreetingLayerInterface, AdaptableLayer {
+
+        public InterceptedGreetingLayer() {
+            super("intercepted");
+        }
+
+        @Override
+        public Object[] adaptArguments(Method method, Object[] args) {
+            return args == null ? null : new Object[]{args[0].toString().toUpperCase()};
+        }
+
+        @Override
+        public LayerProxy getProxy() {
+            return new LayerProxy() {
+                @Override
+                public ProxyInterceptor onBeforeInvoke(Method method, Object... params) {
+                    return params != null && "CACHED".equals(params[0]) ? new ProxyInterceptor(true, "cached") : null;
+                }
+
+                @Override
+                public void onAfterInvoke(Method method, Object result, Object... params) {
+                }
+            };
+        }
+
+        @Override
+        public String greet(String name) {
+            return "intercepted:" + name;
+        }
+    }
+
+    public static class RegexGreetingLayer extends Layer implements GreetingLayerInterface {
+
+        public RegexGreetingLayer() {
+            super("regex");
+        }
+
+        @Override
+        public String getRegex() {
+            return "tenant-[0-9]+";
+        }
+
+        @Override
+        public String greet(String name) {
+            return "regex:" + name;
+        }
+    }
+}
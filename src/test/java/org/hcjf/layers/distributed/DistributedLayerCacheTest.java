@@ -0,0 +1,130 @@
+package org.hcjf.layers.distributed;
+
+import org.hcjf.errors.HCJFRuntimeException;
+import org.hcjf.layers.LayerInterface;
+import org.hcjf.layers.Layers;
+import org.hcjf.properties.SystemProperties;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author javaito
+ */
+public class DistributedLayerCacheTest {
+
+    private NotifyingNetworkSocket socket;
+
+    @Before
+    public void setUp() {
+        socket = new NotifyingNetworkSocket();
+        NetworkSockets.setNetworkSocket(socket);
+        System.setProperty(SystemProperties.Layer.DISTRIBUTED_LAYER_ENABLED, "true");
+    }
+
+    @After
+    public void tearDown() {
+        System.setProperty(SystemProperties.Layer.DISTRIBUTED_LAYER_ENABLED, "false");
+        NetworkSockets.setNetworkSocket(null);
+    }
+
+    @Test
+    public void testPublicationCache() {
+        socket.publish(RemoteLayerInterface.class, "cached-publication");
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(NetworkSockets.isLayerPublished(RemoteLayerInterface.class, "cached-publication"));
+            Assert.assertFalse(NetworkSockets.isLayerPublished(RemoteLayerInterface.class, "unknown"));
+        }
+        //The published layer is cached by the notification, then only the unknown layer is checked.
+        Assert.assertEquals(1, socket.publicationChecks.get());
+
+        socket.unpublish(RemoteLayerInterface.class, "cached-publication");
+        Assert.assertFalse(NetworkSockets.isLayerPublished(RemoteLayerInterface.class, "cached-publication"));
+        Assert.assertEquals(1, socket.publicationChecks.get());
+    }
+
+    @Test
+    public void testIdempotentResponseCache() {
+        socket.publish(RemoteLayerInterface.class, "remote");
+        RemoteLayerInterface layer = Layers.get(RemoteLayerInterface.class, "remote");
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("read:key", layer.read("key"));
+            Assert.assertEquals("write:key", layer.write("key"));
+        }
+        Assert.assertEquals(1, socket.invocations.get("read").get());
+        Assert.assertEquals(10, socket.invocations.get("write").get());
+    }
+
+    @Test
+    public void testUnpublishNotification() {
+        socket.publish(RemoteLayerInterface.class, "temporal");
+        Assert.assertEquals("read:key", Layers.get(RemoteLayerInterface.class, "temporal").read("key"));
+        socket.unpublish(RemoteLayerInterface.class, "temporal");
+        try {
+            Layers.get(RemoteLayerInterface.class, "temporal");
+            Assert.fail();
+        } catch (HCJFRuntimeException ex) {
+        }
+    }
+
+    public interface RemoteLayerInterface extends LayerInterface {
+
+        @Idempotent(cacheTime = 60000)
+        String read(String key);
+
+        String write(String key);
+    }
+
+    /**
+     * In-process socket that notifies the publication changes.
+     */
+    private static class NotifyingNetworkSocket implements NetworkSocket {
+
+        private final Set<String> published = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger publicationChecks = new AtomicInteger();
+        private final ConcurrentHashMap<String, AtomicInteger> invocations = new ConcurrentHashMap<>();
+        private PublicationListener listener;
+
+        private void publish(Class<? extends LayerInterface> layerClass, String implName) {
+            published.add(layerClass.getName() + implName);
+            listener.onLayerPublished(layerClass, implName, null);
+        }
+
+        private void unpublish(Class<? extends LayerInterface> layerClass, String implName) {
+            published.remove(layerClass.getName() + implName);
+            listener.onLayerUnpublished(layerClass, implName);
+        }
+
+        @Override
+        public void setPublicationListener(PublicationListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public boolean isLayerPublished(Class<? extends LayerInterface> layerClass, String implName) {
+            publicationChecks.incrementAndGet();
+            return published.contains(layerClass.getName() + implName);
+        }
+
+        @Override
+        public String getRegexFromDistributedLayer(Class<? extends LayerInterface> layerClass, String implName) {
+            return null;
+        }
+
+        @Override
+        public void publishDistributedLayer(Class<? extends LayerInterface> layerClass, String implName, String regex) {
+        }
+
+        @Override
+        public <O> O layerInvoke(Class<? extends LayerInterface> layerClass, String implName, Method method, Object... parameters) {
+            invocations.computeIfAbsent(method.getName(), K -> new AtomicInteger()).incrementAndGet();
+            return (O) (method.getName() + ":" + parameters[0]);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package org.hcjf.layers.distributed;
+
+import org.hcjf.errors.HCJFRemoteException;
+import org.hcjf.errors.HCJFRemoteInvocationTimeoutException;
+import org.hcjf.layers.LayerInterface;
+import org.hcjf.properties.SystemProperties;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author javaito
+ */
+public class EndpointRouterTest {
+
+    private static final String IMPL_NAME = "echo";
+
+    @After
+    public void tearDown() {
+        NetworkSockets.setNetworkSocket(null);
+        System.setProperty(SystemProperties.Layer.DISTRIBUTED_LOAD_BALANCING_STRATEGY,
+                PowerOfTwoChoicesStrategy.class.getName());
+    }
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        MultiNodeNetworkSocket socket = createSocket(RoundRobinStrategy.class, "node-1", "node-2", "node-3");
+        for (int i = 0; i < 30; i++) {
+            Assert.assertEquals("value", invoke("value"));
+        }
+        for (Node node : socket.nodes.values()) {
+            Assert.assertEquals(10, node.invocations.get());
+        }
+    }
+
+    @Test
+    public void testLeastOutstanding() throws Exception {
+        MultiNodeNetworkSocket socket = createSocket(LeastOutstandingStrategy.class, "node-1", "node-2");
+        socket.nodes.get("node-1").delay = 50;
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(executorService.submit(() -> invoke("value")));
+            Thread.sleep(2);
+        }
+        for (Future<Object> future : futures) {
+            Assert.assertEquals("value", future.get());
+        }
+        executorService.shutdown();
+        Assert.assertTrue(socket.nodes.get("node-1").invocations.get() < socket.nodes.get("node-2").invocations.get());
+    }
+
+    @Test
+    public void testEwmaLatency() throws Exception {
+        MultiNodeNetworkSocket socket = createSocket(EwmaLatencyStrategy.class, "node-1", "node-2", "node-3");
+        socket.nodes.get("node-2").delay = 20;
+        for (int i = 0; i < 30; i++) {
+            Assert.assertEquals("value", invoke("value"));
+        }
+        Assert.assertTrue(socket.nodes.get("node-2").invocations.get() <= 2);
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        MultiNodeNetworkSocket socket = createSocket(RoundRobinStrategy.class, "node-1", "node-2", "node-3");
+        socket.nodes.get("node-3").down = true;
+        int failures = 0;
+        for (int i = 0; i < 100; i++) {
+            try {
+                invoke("value");
+            } catch (HCJFRemoteInvocationTimeoutException ex) {
+                failures++;
+            }
+        }
+        int threshold = SystemProperties.getInteger(SystemProperties.Layer.DISTRIBUTED_CIRCUIT_BREAKER_FAILURES);
+        Assert.assertEquals(threshold, failures);
+        Assert.assertEquals(threshold, socket.nodes.get("node-3").invocations.get());
+
+        Endpoint endpoint = NetworkSockets.getEndpoints(EchoLayerInterface.class, IMPL_NAME).stream().
+                filter(E -> E.getId().equals("node-3")).findFirst().get();
+        Assert.assertTrue(endpoint.isCircuitOpen());
+        Assert.assertEquals(threshold, endpoint.getFailures());
+    }
+
+    @Test
+    public void testPowerOfTwoChoices() throws Exception {
+        MultiNodeNetworkSocket socket = createSocket(PowerOfTwoChoicesStrategy.class, "node-1", "node-2", "node-3");
+        socket.nodes.get("node-1").delay = 20;
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            futures.add(executorService.submit(() -> invoke("value")));
+            Thread.sleep(1);
+        }
+        for (Future<Object> future : futures) {
+            Assert.assertEquals("value", future.get());
+        }
+        executorService.shutdown();
+        Assert.assertTrue(socket.nodes.get("node-1").invocations.get() < 20);
+    }
+
+    @Test(expected = HCJFRemoteException.class)
+    public void testWithoutAvailableEndpoints() throws Exception {
+        MultiNodeNetworkSocket socket = createSocket(RoundRobinStrategy.class, "node-1");
+        socket.nodes.get("node-1").down = true;
+        for (int i = 0; i < 10; i++) {
+            try {
+                invoke("value");
+            } catch (HCJFRemoteInvocationTimeoutException ex) {
+            }
+        }
+    }
+
+    @Test
+    public void testHalfOpenCircuit() {
+        Endpoint endpoint = new Endpoint("node");
+        for (int i = 0; i < 3; i++) {
+            Endpoint.Permit permit = endpoint.tryAcquire(System.currentTimeMillis());
+            Assert.assertNotNull(permit);
+            Assert.assertFalse(permit.isProbe());
+            permit.onFailure(1000, 3, 0);
+        }
+        Assert.assertTrue(endpoint.isCircuitOpen());
+        long currentTime = System.currentTimeMillis() + 1;
+        Endpoint.Permit probe = endpoint.tryAcquire(currentTime);
+        Assert.assertTrue(probe.isProbe());
+        Assert.assertNull(endpoint.tryAcquire(currentTime));
+        probe.onSuccess(1000);
+        Assert.assertFalse(endpoint.isCircuitOpen());
+        Assert.assertNotNull(endpoint.tryAcquire(currentTime));
+    }
+
+    @Test
+    public void testLateCompletionsDoNotChangeTheCircuit() {
+        Endpoint endpoint = new Endpoint("node");
+        List<Endpoint.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            permits.add(endpoint.tryAcquire(System.currentTimeMillis()));
+        }
+        for (int i = 0; i < 3; i++) {
+            permits.get(i).onFailure(1000, 3, 0);
+        }
+        Assert.assertTrue(endpoint.isCircuitOpen());
+
+        //A request started before the circuit was opened doesn't close it.
+        permits.get(3).onSuccess(1000);
+        Assert.assertTrue(endpoint.isCircuitOpen());
+
+        //A request that fails while the probe is in progress doesn't release the probe.
+        long currentTime = System.currentTimeMillis() + 1;
+        Endpoint.Permit probe = endpoint.tryAcquire(currentTime);
+        Assert.assertTrue(probe.isProbe());
+        permits.get(4).onFailure(1000, 3, 0);
+        Assert.assertNull(endpoint.tryAcquire(currentTime));
+        probe.onSuccess(1000);
+        Assert.assertFalse(endpoint.isCircuitOpen());
+    }
+
+    private MultiNodeNetworkSocket createSocket(Class<? extends LoadBalancingStrategy> strategyClass, String... nodes) {
+        System.setProperty(SystemProperties.Layer.DISTRIBUTED_LOAD_BALANCING_STRATEGY, strategyClass.getName());
+        MultiNodeNetworkSocket socket = new MultiNodeNetworkSocket(nodes);
+        NetworkSockets.setNetworkSocket(socket);
+        return socket;
+    }
+
+    private Object invoke(String value) throws Exception {
+        Method method = EchoLayerInterface.class.getMethod("echo", String.class);
+        return NetworkSockets.layerInvoke(EchoLayerInterface.class, IMPL_NAME, method, value);
+    }
+
+    public interface EchoLayerInterface extends LayerInterface {
+        String echo(String value);
+    }
+
+    private static class Node {
+
+        private final AtomicInteger invocations = new AtomicInteger();
+        private volatile long delay;
+        private volatile boolean down;
+    }
+
+    /**
+     * In-memory socket with several nodes publishing the same layer.
+     */
+    private static class MultiNodeNetworkSocket implements EndpointNetworkSocket {
+
+        private final Map<String, Node> nodes;
+
+        private MultiNodeNetworkSocket(String... nodeIds) {
+            this.nodes = new LinkedHashMap<>();
+            for (String nodeId : nodeIds) {
+                nodes.put(nodeId, new Node());
+            }
+        }
+
+        @Override
+        public List<String> getEndpoints(Class<? extends LayerInterface> layerClass, String implName) {
+            return new ArrayList<>(nodes.keySet());
+        }
+
+        @Override
+        public <O> O layerInvoke(String endpoint, Class<? extends LayerInterface> layerClass, String implName,
+                                 Method method, Object... parameters) {
+            Node node = nodes.get(endpoint);
+            node.invocations.incrementAndGet();
+            if(node.down) {
+                throw new HCJFRemoteInvocationTimeoutException("Node %s is down", endpoint);
+            }
+            if(node.delay > 0) {
+                try {
+                    Thread.sleep(node.delay);
+                } catch (InterruptedException ex) {
+                    throw new HCJFRemoteException("Interrupted", ex);
+                }
+            }
+            return (O) parameters[0];
+        }
+
+        @Override
+        public boolean isLayerPublished(Class<? extends LayerInterface> layerClass, String implName) {
+            return true;
+        }
+
+        @Override
+        public String getRegexFromDistributedLayer(Class<? extends LayerInterface> layerClass, String implName) {
+            return null;
+        }
+
+        @Override
+        public void publishDistributedLayer(Class<? extends LayerInterface> layerClass, String implName, String regex) {
+        }
+
+        @Override
+        public <O> O layerInvoke(Class<? extends LayerInterface> layerClass, String implName, Method method, Object... parameters) {
+            return layerInvoke(nodes.keySet().iterator().next(), layerClass, implName, method, parameters);
+        }
+    }
+}
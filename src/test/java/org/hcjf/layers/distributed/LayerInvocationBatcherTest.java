@@ -0,0 +1,238 @@
+package org.hcjf.layers.distributed;
+
+import org.hcjf.errors.HCJFRuntimeException;
+import org.hcjf.layers.Layer;
+import org.hcjf.layers.LayerInterface;
+import org.hcjf.properties.SystemProperties;
+import org.hcjf.service.ServiceSession;
+import org.hcjf.service.ServiceThread;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author javaito
+ */
+public class LayerInvocationBatcherTest {
+
+    private LoopbackNetworkSocket socket;
+
+    @Before
+    public void setUp() {
+        socket = new LoopbackNetworkSocket(new RemoteCalculator());
+        NetworkSockets.setNetworkSocket(socket);
+        System.setProperty(SystemProperties.Layer.DISTRIBUTED_BATCH_ENABLED, "true");
+        System.setProperty(SystemProperties.Layer.DISTRIBUTED_BATCH_WINDOW, "2000");
+        System.setProperty(SystemProperties.Layer.DISTRIBUTED_BATCH_MAX_SIZE, "50");
+    }
+
+    @After
+    public void tearDown() {
+        NetworkSockets.setNetworkSocket(null);
+        System.setProperty(SystemProperties.Layer.DISTRIBUTED_BATCH_ENABLED, "false");
+        System.setProperty(SystemProperties.Layer.DISTRIBUTED_BATCH_TIMEOUT, "30000");
+    }
+
+    @Test
+    public void testConcurrentInvocations() throws Exception {
+        Method method = CalculatorLayerInterface.class.getMethod("square", Integer.class);
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Integer value = i;
+            futures.add(executorService.submit(() ->
+                    NetworkSockets.layerInvoke(CalculatorLayerInterface.class, "calculator", method, value)));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            Assert.assertEquals(Integer.valueOf(i * i), futures.get(i).get());
+        }
+        executorService.shutdown();
+
+        Assert.assertEquals(200, socket.invocations.get());
+        Assert.assertTrue(socket.requests.get() < 200);
+    }
+
+    @Test
+    public void testSingleInvocation() throws Exception {
+        Method method = CalculatorLayerInterface.class.getMethod("square", Integer.class);
+        Integer result = NetworkSockets.layerInvoke(CalculatorLayerInterface.class, "calculator", method, 3);
+        Assert.assertEquals(Integer.valueOf(9), result);
+        Assert.assertEquals(1, socket.requests.get());
+    }
+
+    @Test
+    public void testFailureDemultiplexing() throws Exception {
+        Method method = CalculatorLayerInterface.class.getMethod("inverse", Integer.class);
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Integer value = i;
+            futures.add(executorService.submit(() ->
+                    NetworkSockets.layerInvoke(CalculatorLayerInterface.class, "calculator", method, value)));
+        }
+        try {
+            futures.get(0).get();
+            Assert.fail();
+        } catch (Exception ex) {
+            Assert.assertTrue(ex.getCause() instanceof ArithmeticException);
+        }
+        for (int i = 1; i < futures.size(); i++) {
+            Assert.assertEquals(Integer.valueOf(100 / i), futures.get(i).get());
+        }
+        executorService.shutdown();
+    }
+
+    @Test
+    public void testCallerIdentity() throws Exception {
+        Method method = CalculatorLayerInterface.class.getMethod("identity");
+        ServiceSession firstSession = new ServiceSession(UUID.randomUUID());
+        ServiceSession secondSession = new ServiceSession(UUID.randomUUID());
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<UUID>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ServiceSession session = i % 2 == 0 ? firstSession : secondSession;
+            futures.add(executorService.submit(() -> {
+                ServiceThread.getServiceThreadInstance().setSession(session);
+                try {
+                    return NetworkSockets.layerInvoke(CalculatorLayerInterface.class, "calculator", method);
+                } finally {
+                    ServiceThread.getServiceThreadInstance().setSession(null);
+                }
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            ServiceSession session = i % 2 == 0 ? firstSession : secondSession;
+            Assert.assertEquals(session.getId(), futures.get(i).get());
+        }
+        executorService.shutdown();
+        Assert.assertTrue(socket.requests.get() < 40);
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        NetworkSockets.setNetworkSocket(new LoopbackNetworkSocket(new RemoteCalculator()) {
+            @Override
+            public <O> O layerInvoke(Class<? extends LayerInterface> layerClass, String implName, Method method, Object... parameters) {
+                try {
+                    latch.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.layerInvoke(layerClass, implName, method, parameters);
+            }
+        });
+        System.setProperty(SystemProperties.Layer.DISTRIBUTED_BATCH_TIMEOUT, "200");
+        Method method = CalculatorLayerInterface.class.getMethod("square", Integer.class);
+        try {
+            NetworkSockets.layerInvoke(CalculatorLayerInterface.class, "calculator", method, 3);
+            Assert.fail();
+        } catch (HCJFRuntimeException ex) {
+            Assert.assertTrue(ex.getMessage().contains("timeout"));
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    public interface CalculatorLayerInterface extends LayerInterface {
+        Integer square(Integer value);
+        Integer inverse(Integer value);
+        UUID identity();
+    }
+
+    public static class RemoteCalculator extends Layer implements CalculatorLayerInterface {
+
+        public RemoteCalculator() {
+            super("calculator");
+        }
+
+        @Override
+        public Integer square(Integer value) {
+            return value * value;
+        }
+
+        @Override
+        public Integer inverse(Integer value) {
+            return 100 / value;
+        }
+
+        @Override
+        public UUID identity() {
+            return ServiceSession.getCurrentIdentity().getId();
+        }
+    }
+
+    /**
+     * In-process socket that invokes the target instance and counts the requests.
+     */
+    private static class LoopbackNetworkSocket implements BatchNetworkSocket {
+
+        private final Object target;
+        private final AtomicInteger requests;
+        private final AtomicInteger invocations;
+
+        private LoopbackNetworkSocket(Object target) {
+            this.target = target;
+            this.requests = new AtomicInteger();
+            this.invocations = new AtomicInteger();
+        }
+
+        @Override
+        public boolean isLayerPublished(Class<? extends LayerInterface> layerClass, String implName) {
+            return true;
+        }
+
+        @Override
+        public String getRegexFromDistributedLayer(Class<? extends LayerInterface> layerClass, String implName) {
+            return null;
+        }
+
+        @Override
+        public void publishDistributedLayer(Class<? extends LayerInterface> layerClass, String implName, String regex) {
+        }
+
+        @Override
+        public <O> O layerInvoke(Class<? extends LayerInterface> layerClass, String implName, Method method, Object... parameters) {
+            requests.incrementAndGet();
+            LayerInvocation.Result result = invoke(new LayerInvocation(method, parameters));
+            if(result.isFailure()) {
+                throw (RuntimeException) result.getThrowable();
+            }
+            return (O) result.getValue();
+        }
+
+        @Override
+        public List<LayerInvocation.Result> layerInvoke(Class<? extends LayerInterface> layerClass, String implName,
+                                                        List<LayerInvocation> invocations) {
+            requests.incrementAndGet();
+            List<LayerInvocation.Result> results = new ArrayList<>();
+            invocations.forEach(I -> results.add(invoke(I)));
+            return results;
+        }
+
+        private LayerInvocation.Result invoke(LayerInvocation invocation) {
+            invocations.incrementAndGet();
+            LayerInvocation.Result result;
+            try {
+                result = LayerInvocation.Result.success(invocation.getMethod().invoke(target, invocation.getParameters()));
+            } catch (InvocationTargetException ex) {
+                result = LayerInvocation.Result.failure(ex.getTargetException());
+            } catch (Exception ex) {
+                result = LayerInvocation.Result.failure(new HCJFRuntimeException("Loopback invoke fail", ex));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.hcjf.log;
+
+import org.hcjf.properties.SystemProperties;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author javaito
+ */
+public class FileLogPrinterTest {
+
+    @Test
+    public void testRotation() throws Exception {
+        Path path = Files.createTempDirectory("hcjf-log");
+        String maxSize = SystemProperties.get(SystemProperties.Log.FILE_MAX_SIZE);
+        String compression = SystemProperties.get(SystemProperties.Log.FILE_COMPRESSION_ENABLED);
+        String errorFile = SystemProperties.get(SystemProperties.Log.ERROR_FILE);
+        System.setProperty(SystemProperties.Log.FILE_MAX_SIZE, "1024");
+        System.setProperty(SystemProperties.Log.FILE_COMPRESSION_ENABLED, "true");
+        System.setProperty(SystemProperties.Log.ERROR_FILE, "true");
+        FileLogPrinter printer = new FileLogPrinter(path, "test");
+        Log.addPrinter(printer);
+        try {
+            for (int i = 0; i < 50; i++) {
+                Log.w("FILE_PRINTER", "Warning record %d", i);
+            }
+            Log.e("FILE_PRINTER", "Error record");
+            Path mainFile = path.resolve("test.log");
+            Path errorPath = path.resolve("test-error.log");
+            for (int i = 0; i < 200 && (!Files.exists(errorPath) || Files.size(errorPath) == 0); i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue(Files.readString(mainFile).contains("Error record"));
+            Assert.assertFalse(Files.readString(errorPath).contains("Warning record"));
+            Assert.assertTrue(Files.readString(errorPath).contains("Error record"));
+            Assert.assertTrue(Files.size(mainFile) < 2048);
+
+            List<String> rotated = List.of();
+            for (int i = 0; i < 200 && rotated.isEmpty(); i++) {
+                try (Stream<Path> files = Files.list(path)) {
+                    rotated = files.map(P -> P.getFileName().toString()).
+                            filter(N -> N.startsWith("test.") && N.endsWith(".log.gz")).collect(Collectors.toList());
+                }
+                Thread.sleep(10);
+            }
+            Assert.assertFalse(rotated.isEmpty());
+        } finally {
+            Log.removePrinter(printer);
+            System.setProperty(SystemProperties.Log.FILE_MAX_SIZE, maxSize);
+            System.setProperty(SystemProperties.Log.FILE_COMPRESSION_ENABLED, compression);
+            System.setProperty(SystemProperties.Log.ERROR_FILE, errorFile);
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        Path path = Files.createTempDirectory("hcjf-log");
+        FileLogPrinter printer = new FileLogPrinter(path, "test");
+        Map<UUID, Log.LogRecord> records = new ConcurrentHashMap<>();
+        LogPrinter recordsPrinter = R -> records.put(R.getId(), R);
+        Log.addPrinter(printer);
+        Log.addPrinter(recordsPrinter);
+        try {
+            UUID id = Log.w("FILE_PRINTER", "Record before close");
+            for (int i = 0; i < 200 && !records.containsKey(id); i++) {
+                Thread.sleep(10);
+            }
+        } finally {
+            Log.removePrinter(printer);
+            Log.removePrinter(recordsPrinter);
+        }
+        Path mainFile = path.resolve("test.log");
+        long size = Files.size(mainFile);
+        Assert.assertTrue(size > 0);
+
+        //The printer is closed when it's removed, then the records are ignored.
+        printer.print(List.copyOf(records.values()));
+        Assert.assertEquals(size, Files.size(mainFile));
+        printer.close();
+    }
+
+    @Test
+    public void testFailedRotation() throws Exception {
+        Path path = Files.createTempDirectory("hcjf-log");
+        String maxSize = SystemProperties.get(SystemProperties.Log.FILE_MAX_SIZE);
+        System.setProperty(SystemProperties.Log.FILE_MAX_SIZE, "1024");
+        FileLogPrinter printer;
+        try {
+            printer = new FileLogPrinter(path, "test");
+        } finally {
+            System.setProperty(SystemProperties.Log.FILE_MAX_SIZE, maxSize);
+        }
+        Map<UUID, Log.LogRecord> records = new ConcurrentHashMap<>();
+        LogPrinter recordsPrinter = R -> records.put(R.getId(), R);
+        Log.addPrinter(recordsPrinter);
+        Log.LogRecord record;
+        try {
+            UUID id = Log.w("FILE_PRINTER", "Record of the failed rotation");
+            for (int i = 0; i < 200 && !records.containsKey(id); i++) {
+                Thread.sleep(10);
+            }
+            record = records.get(id);
+        } finally {
+            Log.removePrinter(recordsPrinter);
+        }
+
+        //The file is removed then the rotation can't move it.
+        Path mainFile = path.resolve("test.log");
+        Files.delete(mainFile);
+        try {
+            printer.print(Collections.nCopies(100, record));
+            printer.print(record);
+            Assert.assertTrue(Files.readString(mainFile).contains("Record of the failed rotation"));
+        } finally {
+            printer.close();
+        }
+    }
+}
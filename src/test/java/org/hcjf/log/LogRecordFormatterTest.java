@@ -0,0 +1,75 @@
+package org.hcjf.log;
+
+import org.hcjf.properties.SystemProperties;
+import org.hcjf.utils.Strings;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author javaito
+ */
+public class LogRecordFormatterTest {
+
+    @Test
+    public void testFormat() throws Exception {
+        Map<UUID, Log.LogRecord> records = new ConcurrentHashMap<>();
+        LogPrinter printer = R -> records.put(R.getId(), R);
+        Log.addPrinter(printer);
+        String truncateTag = SystemProperties.get(SystemProperties.Log.TRUNCATE_TAG);
+        try {
+            UUID simple = Log.w("FORMAT", "Simple %s %d %% %s%n", "text", 42L, null);
+            UUID complex = Log.w("FORMAT", "Complex %5d %.2f %S", 7, 1.5, "text");
+            UUID exception = Log.w("FORMAT", "Exception %s", new RuntimeException("Test exception"), "text");
+            for (int i = 0; i < 100 && records.size() < 3; i++) {
+                Thread.sleep(10);
+            }
+
+            Log.LogRecord record = records.get(simple);
+            String date = new SimpleDateFormat(SystemProperties.get(SystemProperties.Log.DATE_FORMAT)).format(record.getDate());
+            Assert.assertTrue(record.getMessage().startsWith(Strings.StandardOutput.YELLOW_BOLD + date));
+            Assert.assertTrue(record.getMessage().contains("][FORMAT]["));
+            Assert.assertTrue(record.getMessage().endsWith("] " + String.format("Simple %s %d %% %s%n", "text", 42L, null)));
+            Assert.assertTrue(records.get(complex).getMessage().endsWith("] " + String.format("Complex %5d %.2f %S", 7, 1.5, "text")));
+            Assert.assertTrue(records.get(exception).getMessage().contains("Exception text\r\njava.lang.RuntimeException: Test exception"));
+
+            System.setProperty(SystemProperties.Log.TRUNCATE_TAG, "true");
+            UUID truncated = Log.w("TRUNCATED_TAG", "Truncated");
+            for (int i = 0; i < 100 && records.size() < 4; i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue(records.get(truncated).getMessage().contains("][TRUNCATED_TAG" + " ".repeat(22) + "]["));
+        } finally {
+            Log.removePrinter(printer);
+            System.setProperty(SystemProperties.Log.TRUNCATE_TAG, truncateTag);
+        }
+    }
+
+    @Test
+    public void testLegacyDatePattern() throws Exception {
+        Map<UUID, Log.LogRecord> records = new ConcurrentHashMap<>();
+        LogPrinter printer = R -> records.put(R.getId(), R);
+        Log.addPrinter(printer);
+        String dateFormat = SystemProperties.get(SystemProperties.Log.DATE_FORMAT);
+        //These letters are valid for java.time too but they are rendered in other way.
+        String legacyPattern = "yyyy-MM-dd u YY HH:mm:ss.S Z a";
+        System.setProperty(SystemProperties.Log.DATE_FORMAT, legacyPattern);
+        try {
+            UUID id = Log.w("FORMAT", "Legacy pattern");
+            for (int i = 0; i < 100 && records.isEmpty(); i++) {
+                Thread.sleep(10);
+            }
+            Log.LogRecord record = records.get(id);
+            String date = new SimpleDateFormat(legacyPattern).format(record.getDate());
+            Assert.assertTrue(record.getMessage().startsWith(Strings.StandardOutput.YELLOW_BOLD + date +
+                    Strings.StandardOutput.RESET));
+        } finally {
+            Log.removePrinter(printer);
+            System.setProperty(SystemProperties.Log.DATE_FORMAT, dateFormat);
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package org.hcjf.log;
 
+import org.hcjf.properties.SystemProperties;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class LogTest {
 
     @Test
@@ -9,4 +16,54 @@ public class LogTest {
         Log.i("TEG", "Text");
     }
 
+    @Test
+    public void testLevelFilter() {
+        String level = SystemProperties.get(SystemProperties.Log.LEVEL);
+        String systemOut = SystemProperties.get(SystemProperties.Log.SYSTEM_OUT_ENABLED);
+        try {
+            System.setProperty(SystemProperties.Log.SYSTEM_OUT_ENABLED, "true");
+            System.setProperty(SystemProperties.Log.LEVEL, "1");
+            Assert.assertFalse(Log.isDebugEnabled());
+            Assert.assertTrue(Log.isInfoEnabled());
+
+            AtomicInteger calls = new AtomicInteger();
+            Assert.assertNull(Log.d("TEG", () -> "Debug " + calls.incrementAndGet()));
+            Assert.assertNull(Log.d("TEG", "Debug %s", calls));
+            Assert.assertEquals(0, calls.get());
+
+            System.setProperty(SystemProperties.Log.LEVEL, "0");
+            Assert.assertTrue(Log.isDebugEnabled());
+            Assert.assertNotNull(Log.d("TEG", () -> "Debug " + calls.incrementAndGet()));
+            Assert.assertEquals(1, calls.get());
+
+            System.setProperty(SystemProperties.Log.LEVEL, "3");
+            Assert.assertFalse(Log.isEnabled(Log.LogGroup.WARNING));
+            Assert.assertTrue(Log.isEnabled(Log.LogGroup.ERROR));
+        } finally {
+            System.setProperty(SystemProperties.Log.LEVEL, level);
+            System.setProperty(SystemProperties.Log.SYSTEM_OUT_ENABLED, systemOut);
+        }
+    }
+
+    @Test
+    public void testCallerCapture() throws Exception {
+        Map<UUID, Log.LogRecord> records = new ConcurrentHashMap<>();
+        LogPrinter printer = R -> records.put(R.getId(), R);
+        Log.addPrinter(printer);
+        try {
+            UUID captured = Log.w("CAPTURED", "Caller captured");
+            System.setProperty(SystemProperties.Log.CALLER_CAPTURE_DISABLED_TAGS, "[\"NOT_CAPTURED\"]");
+            UUID notCaptured = Log.w("NOT_CAPTURED", "Caller not captured");
+            for (int i = 0; i < 100 && records.size() < 2; i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(LogTest.class.getName(), records.get(captured).getClassName());
+            Assert.assertEquals("testCallerCapture", records.get(captured).getMethodName());
+            Assert.assertTrue(records.get(notCaptured).getClassName().isEmpty());
+        } finally {
+            System.setProperty(SystemProperties.Log.CALLER_CAPTURE_DISABLED_TAGS, "[]");
+            Log.removePrinter(printer);
+        }
+    }
+
 }
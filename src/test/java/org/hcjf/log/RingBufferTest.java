@@ -0,0 +1,81 @@
+package org.hcjf.log;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author javaito
+ */
+public class RingBufferTest {
+
+    @Test
+    public void testProducersOrder() throws Exception {
+        int producers = 4;
+        int elements = 50000;
+        RingBuffer<long[]> ringBuffer = new RingBuffer<>(100, RingBuffer.WaitStrategy.BLOCKING, RingBuffer.FullPolicy.BLOCK);
+        Assert.assertEquals(128, ringBuffer.getCapacity());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < producers; i++) {
+            long producer = i;
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (long j = 0; j < elements; j++) {
+                    ringBuffer.offer(new long[]{producer, j});
+                }
+            }));
+        }
+
+        long[] next = new long[producers];
+        List<long[]> batch = new ArrayList<>();
+        int received = 0;
+        while (received < producers * elements) {
+            if(ringBuffer.drainTo(batch, 64) == 0) {
+                ringBuffer.await();
+            }
+            for (long[] element : batch) {
+                Assert.assertEquals(next[(int) element[0]]++, element[1]);
+            }
+            received += batch.size();
+            batch.clear();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(ringBuffer.isEmpty());
+        Assert.assertEquals(0, ringBuffer.getDroppedElements());
+    }
+
+    @Test
+    public void testDropPolicy() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(4, RingBuffer.WaitStrategy.SLEEPING, RingBuffer.FullPolicy.DROP);
+        for (int i = 0; i < 10; i++) {
+            ringBuffer.offer(i);
+        }
+        Assert.assertEquals(4, ringBuffer.size());
+        Assert.assertEquals(6, ringBuffer.getDroppedElements());
+        Assert.assertEquals(Integer.valueOf(0), ringBuffer.poll());
+        Assert.assertTrue(ringBuffer.offer(10));
+        List<Integer> elements = new ArrayList<>();
+        ringBuffer.drainTo(elements, 10);
+        Assert.assertEquals(List.of(1, 2, 3, 10), elements);
+        Assert.assertNull(ringBuffer.poll());
+    }
+
+    @Test
+    public void testConsumerNeverBlocks() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(2, RingBuffer.WaitStrategy.BLOCKING, RingBuffer.FullPolicy.BLOCK);
+        Assert.assertTrue(ringBuffer.offer(1));
+        Assert.assertTrue(ringBuffer.offer(2));
+        ringBuffer.registerConsumer();
+        try {
+            Assert.assertFalse(ringBuffer.offer(3));
+            Assert.assertEquals(1, ringBuffer.getDroppedElements());
+        } finally {
+            ringBuffer.unregisterConsumer();
+        }
+        Assert.assertEquals(Integer.valueOf(1), ringBuffer.poll());
+        Assert.assertTrue(ringBuffer.offer(3));
+    }
+}
@@ -0,0 +1,142 @@
+package org.hcjf.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author javaito
+ */
+public class BoundedExecutorServiceTest {
+
+    @Test
+    public void testReject() throws Exception {
+        BoundedExecutorService executor = new BoundedExecutorService(Thread.ofVirtual().factory(), 2, 3,
+                BoundedExecutorService.RejectionPolicy.REJECT);
+        CountDownLatch latch = new CountDownLatch(1);
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> await(latch));
+        }
+        Assert.assertEquals(2, executor.getActiveTasks());
+        Assert.assertEquals(3, executor.getQueueSize());
+        try {
+            executor.execute(() -> {});
+            Assert.fail();
+        } catch (RejectedExecutionException ex) {
+        }
+        Assert.assertEquals(1, executor.getRejectedTasks());
+
+        Thread.sleep(10);
+        latch.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        Assert.assertEquals(0, executor.getQueueSize());
+        Assert.assertTrue(executor.getQueueLatency() > 0);
+        Assert.assertTrue(executor.getMeanQueueLatency() > 0);
+    }
+
+    @Test
+    public void testCallerRuns() throws Exception {
+        BoundedExecutorService executor = new BoundedExecutorService(Thread.ofVirtual().factory(), 1, 0,
+                BoundedExecutorService.RejectionPolicy.CALLER_RUNS);
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(() -> await(latch));
+        Thread caller = Thread.currentThread();
+        AtomicInteger callerRuns = new AtomicInteger();
+        executor.execute(() -> {
+            if(Thread.currentThread() == caller) {
+                callerRuns.incrementAndGet();
+            }
+        });
+        Assert.assertEquals(1, callerRuns.get());
+        Assert.assertEquals(1, executor.getCallerRunsTasks());
+        latch.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCallerRunsKeepsCallerContext() throws Exception {
+        CallerRunsService service = new CallerRunsService();
+        ServiceSession callerSession = new ServiceSession(UUID.randomUUID());
+        ServiceThread.getServiceThreadInstance().setSession(callerSession);
+        try {
+            callerSession.put("key", "value");
+            callerSession.putLayer(new ServiceSession.LayerStackElement("TestLayer", "caller", false, false));
+            CountDownLatch latch = new CountDownLatch(1);
+            service.execute(() -> await(latch));
+            Thread caller = Thread.currentThread();
+            AtomicBoolean callerRuns = new AtomicBoolean();
+            service.execute(() -> callerRuns.set(Thread.currentThread() == caller));
+            latch.countDown();
+
+            Assert.assertTrue(callerRuns.get());
+            Assert.assertSame(callerSession, ServiceSession.getCurrentSession());
+            Assert.assertEquals("value", callerSession.get("key"));
+            Assert.assertEquals(1, callerSession.getLayerStack().size());
+            Assert.assertEquals("caller", callerSession.getLayerStack().iterator().next().getImplName());
+        } finally {
+            ServiceThread.releaseServiceThreadInstance();
+        }
+    }
+
+    @Test
+    public void testMaxConcurrency() throws Exception {
+        BoundedExecutorService executor = new BoundedExecutorService(Thread.ofVirtual().factory(), 4, 1000,
+                BoundedExecutorService.RejectionPolicy.REJECT);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger executed = new AtomicInteger();
+        for (int i = 0; i < 500; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.yield();
+                running.decrementAndGet();
+                executed.incrementAndGet();
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        Assert.assertEquals(500, executed.get());
+        Assert.assertTrue(maxRunning.get() <= 4);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+        }
+    }
+
+    private static class CallerRunsService extends Service<ServiceConsumer> {
+
+        private CallerRunsService() {
+            super(UUID.randomUUID().toString(), 0);
+        }
+
+        @Override
+        protected ExecutorService createExecutorService() {
+            return new BoundedExecutorService(Thread.ofVirtual().factory(), 1, 0,
+                    BoundedExecutorService.RejectionPolicy.CALLER_RUNS);
+        }
+
+        private void execute(Runnable runnable) {
+            fork(runnable);
+        }
+
+        @Override
+        public void registerConsumer(ServiceConsumer consumer) {
+        }
+
+        @Override
+        public void unregisterConsumer(ServiceConsumer consumer) {
+        }
+    }
+}
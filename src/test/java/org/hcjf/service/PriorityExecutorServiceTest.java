@@ -0,0 +1,116 @@
+package org.hcjf.service;
+
+import org.hcjf.errors.HCJFServiceTimeoutException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author javaito
+ */
+public class PriorityExecutorServiceTest {
+
+    private PriorityExecutorService executorService;
+    private CountDownLatch blocker;
+
+    @Before
+    public void setUp() {
+        executorService = new PriorityExecutorService(Thread.ofVirtual().factory(), 1, 20);
+        blocker = new CountDownLatch(1);
+        executorService.submit(() -> {
+            blocker.await();
+            return null;
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        blocker.countDown();
+        executorService.shutdown();
+        Assert.assertTrue(executorService.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPriorityLanes() throws Exception {
+        List<TaskPriority> order = new CopyOnWriteArrayList<>();
+        Future<?> last = null;
+        for (TaskPriority priority : List.of(TaskPriority.LOW, TaskPriority.NORMAL, TaskPriority.CRITICAL, TaskPriority.HIGH)) {
+            last = executorService.submit(() -> order.add(priority), priority, 0);
+        }
+        blocker.countDown();
+        last.get();
+        executorService.shutdown();
+        Assert.assertTrue(executorService.awaitTermination(1, TimeUnit.SECONDS));
+        Assert.assertEquals(List.of(TaskPriority.CRITICAL, TaskPriority.HIGH, TaskPriority.NORMAL, TaskPriority.LOW), order);
+    }
+
+    @Test
+    public void testEarliestDeadlineFirst() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        executorService.submit(() -> order.add("without deadline"), TaskPriority.NORMAL, 0);
+        executorService.submit(() -> order.add("late"), TaskPriority.NORMAL, 10000);
+        executorService.submit(() -> order.add("early"), TaskPriority.NORMAL, 1000);
+        blocker.countDown();
+        executorService.shutdown();
+        Assert.assertTrue(executorService.awaitTermination(1, TimeUnit.SECONDS));
+        Assert.assertEquals(List.of("early", "late", "without deadline"), order);
+    }
+
+    @Test
+    public void testShedExpiredTask() throws Exception {
+        Future<?> future = executorService.submit(() -> {}, TaskPriority.NORMAL, 10);
+        Thread.sleep(50);
+        blocker.countDown();
+        try {
+            future.get();
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof HCJFServiceTimeoutException);
+        }
+        Assert.assertEquals(1, executorService.getShedTasks());
+    }
+
+    @Test
+    public void testAdmissionControl() throws Exception {
+        executorService.submit(() -> {}, TaskPriority.NORMAL, 0);
+        Thread.sleep(50);
+        try {
+            executorService.submit(() -> {}, TaskPriority.LOW, 0);
+            Assert.fail();
+        } catch (RejectedExecutionException ex) {
+        }
+        Future<?> future = executorService.submit(() -> {}, TaskPriority.HIGH, 0);
+        Assert.assertEquals(1, executorService.getRejectedTasks());
+        Assert.assertEquals(2, executorService.getQueueSize());
+        blocker.countDown();
+        future.get();
+    }
+
+    @Test
+    public void testMaxConcurrency() throws Exception {
+        PriorityExecutorService executor = new PriorityExecutorService(Thread.ofVirtual().factory(), 4, 0);
+        CountDownLatch latch = new CountDownLatch(1);
+        for (int i = 0; i < 20; i++) {
+            executor.submit(() -> {
+                latch.await();
+                return null;
+            });
+        }
+        Thread.sleep(20);
+        Assert.assertEquals(4, executor.getActiveTasks());
+        Assert.assertEquals(16, executor.getQueueSize());
+        latch.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        Assert.assertEquals(0, executor.getActiveTasks());
+    }
+}
@@ -0,0 +1,73 @@
+package org.hcjf.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author javaito
+ */
+public class PropertyMapTest {
+
+    @Test
+    public void testAgainstHashMap() {
+        Random random = new Random(7);
+        PropertyMap propertyMap = new PropertyMap();
+        Map<String, Object> expected = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            String key = "key" + random.nextInt(200);
+            switch (random.nextInt(3)) {
+                case 0:
+                    Assert.assertEquals(expected.remove(key), propertyMap.remove(key));
+                    break;
+                case 1:
+                    Assert.assertEquals(expected.get(key), propertyMap.get(key));
+                    break;
+                default:
+                    Assert.assertEquals(expected.put(key, i), propertyMap.put(key, i));
+            }
+            Assert.assertEquals(expected.size(), propertyMap.size());
+        }
+        Assert.assertEquals(expected, propertyMap);
+        propertyMap.clear();
+        Assert.assertTrue(propertyMap.isEmpty());
+        Assert.assertNull(propertyMap.get("key1"));
+    }
+
+    @Test
+    public void testCollisions() {
+        //"Aa" and "BB" have the same hash code.
+        PropertyMap propertyMap = new PropertyMap();
+        propertyMap.put("Aa", 1);
+        propertyMap.put("BB", 2);
+        propertyMap.put("AaAa", 3);
+        propertyMap.put("BBBB", 4);
+        propertyMap.put("AaBB", 5);
+        Assert.assertEquals(1, propertyMap.remove("Aa"));
+        Assert.assertEquals(2, propertyMap.get("BB"));
+        Assert.assertEquals(3, propertyMap.remove("AaAa"));
+        Assert.assertEquals(4, propertyMap.get("BBBB"));
+        Assert.assertEquals(5, propertyMap.get("AaBB"));
+        Assert.assertEquals(3, propertyMap.size());
+    }
+
+    @Test
+    public void testLayerStackOrder() {
+        LayerStack layerStack = new LayerStack();
+        for (int i = 0; i < 20; i++) {
+            layerStack.push(new ServiceSession.LayerStackElement("TestLayer", "layer" + i, false, false));
+        }
+        Assert.assertEquals(20, layerStack.size());
+        Assert.assertEquals("layer19", layerStack.get(0).getImplName());
+        Assert.assertEquals("layer0", layerStack.get(19).getImplName());
+        layerStack.pop();
+        Assert.assertEquals("layer18", layerStack.get(0).getImplName());
+        layerStack.reset();
+        Assert.assertTrue(layerStack.isEmpty());
+        layerStack.pop();
+        Assert.assertTrue(layerStack.isEmpty());
+    }
+}
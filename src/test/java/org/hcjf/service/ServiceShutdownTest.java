@@ -0,0 +1,69 @@
+package org.hcjf.service;
+
+import org.hcjf.properties.SystemProperties;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author javaito
+ */
+public class ServiceShutdownTest {
+
+    @Test
+    public void testShutdownExecutorWithoutPolling() {
+        TestService service = new TestService();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        executor.submit(() -> {
+            Thread.sleep(20);
+            return null;
+        });
+        long startTime = System.nanoTime();
+        service.shutdownExecutor(executor);
+        long elapsedTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        Assert.assertTrue(executor.isTerminated());
+        Assert.assertTrue(elapsedTime < 90);
+    }
+
+    @Test
+    public void testShutdownExecutorInterruptsTasks() {
+        TestService service = new TestService();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        executor.submit(() -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException ex) {
+                interrupted.set(true);
+            }
+        });
+        System.setProperty(SystemProperties.Service.SHUTDOWN_TIME_OUT, "50");
+        try {
+            service.shutdownExecutor(executor);
+        } finally {
+            System.setProperty(SystemProperties.Service.SHUTDOWN_TIME_OUT, "1000");
+        }
+        Assert.assertTrue(executor.isTerminated());
+        Assert.assertTrue(interrupted.get());
+    }
+
+    private static class TestService extends Service<ServiceConsumer> {
+
+        private TestService() {
+            super(UUID.randomUUID().toString(), 0);
+        }
+
+        @Override
+        public void registerConsumer(ServiceConsumer consumer) {
+        }
+
+        @Override
+        public void unregisterConsumer(ServiceConsumer consumer) {
+        }
+    }
+}
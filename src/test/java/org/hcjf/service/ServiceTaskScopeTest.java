@@ -0,0 +1,128 @@
+package org.hcjf.service;
+
+import org.hcjf.errors.HCJFRuntimeException;
+import org.hcjf.errors.HCJFServiceTimeoutException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author javaito
+ */
+public class ServiceTaskScopeTest {
+
+    @Test
+    public void testAllSuccessWithSession() {
+        ServiceSession session = new ServiceSession(UUID.randomUUID());
+        ServiceThread.getServiceThreadInstance().setSession(session);
+        try {
+            session.put("property", "value");
+            List<String> results = Service.allSuccess(List.<Callable<String>>of(
+                    () -> "first:" + ServiceSession.getCurrentSession().get("property"),
+                    () -> "second:" + ServiceSession.getCurrentSession().getId().equals(session.getId())), 1000);
+            Assert.assertEquals(List.of("first:value", "second:true"), results);
+        } finally {
+            ServiceThread.releaseServiceThreadInstance();
+        }
+    }
+
+    @Test
+    public void testAllSuccessCancelsSiblings() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(2);
+        Callable<String> slow = () -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+            return "slow";
+        };
+        try {
+            Service.allSuccess(List.of(slow, slow, () -> {
+                throw new IllegalStateException("fail");
+            }), 1000);
+            Assert.fail();
+        } catch (HCJFRuntimeException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAnySuccess() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        String result = Service.anySuccess(List.<Callable<String>>of(
+                () -> {
+                    throw new IllegalStateException("fail");
+                },
+                () -> {
+                    try {
+                        Thread.sleep(10000);
+                    } catch (InterruptedException ex) {
+                        interrupted.countDown();
+                    }
+                    return "slow";
+                },
+                () -> "fast"), 1000);
+        Assert.assertEquals("fast", result);
+        Assert.assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAnySuccessAllFail() {
+        try {
+            Service.anySuccess(List.<Callable<String>>of(
+                    () -> {
+                        throw new IllegalStateException("first");
+                    },
+                    () -> {
+                        throw new IllegalStateException("second");
+                    }), 1000);
+            Assert.fail();
+        } catch (HCJFRuntimeException ex) {
+            Assert.assertEquals(2, ex.getCause().getSuppressed().length);
+        }
+    }
+
+    @Test(expected = HCJFServiceTimeoutException.class)
+    public void testTimeout() {
+        Service.allSuccess(List.<Callable<String>>of(() -> {
+            Thread.sleep(10000);
+            return "slow";
+        }), 50);
+    }
+
+    @Test
+    public void testForkAllWithMaxConcurrency() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Callable<Integer> task = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            running.decrementAndGet();
+            return 1;
+        };
+        List<Future<Integer>> futures = Service.forkAll(List.of(task, task, task, task, task, () -> {
+            throw new IllegalStateException("fail");
+        }), 2, 1000);
+        Assert.assertEquals(6, futures.size());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(Integer.valueOf(1), futures.get(i).get());
+        }
+        try {
+            futures.get(5).get();
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertTrue(maxRunning.get() <= 2);
+    }
+}
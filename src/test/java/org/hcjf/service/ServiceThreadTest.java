@@ -0,0 +1,107 @@
+package org.hcjf.service;
+
+import org.hcjf.properties.SystemProperties;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author javaito
+ */
+public class ServiceThreadTest {
+
+    @Test
+    public void testInstancePerThread() throws Exception {
+        ServiceThread serviceThread = ServiceThread.getServiceThreadInstance();
+        Assert.assertSame(serviceThread, ServiceThread.getServiceThreadInstance());
+        Assert.assertNotNull(serviceThread.getSession());
+
+        Set<ServiceThread> instances = ConcurrentHashMap.newKeySet();
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(executorService.submit(() -> instances.add(ServiceThread.getServiceThreadInstance())));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+        Assert.assertEquals(1000, instances.size());
+        Assert.assertFalse(instances.contains(serviceThread));
+    }
+
+    @Test
+    public void testSubclassUpgrade() throws Exception {
+        Service.async(() -> {
+            ServiceThread serviceThread = ServiceThread.getServiceThreadInstance();
+            CustomServiceThread customServiceThread = ServiceThread.getServiceThreadInstance(CustomServiceThread.class);
+            Assert.assertNotSame(serviceThread, customServiceThread);
+            Assert.assertSame(serviceThread.getSession(), customServiceThread.getSession());
+            Assert.assertSame(customServiceThread, ServiceThread.getServiceThreadInstance());
+            Assert.assertSame(customServiceThread, ServiceThread.getServiceThreadInstance(CustomServiceThread.class));
+            return null;
+        }).get();
+    }
+
+    @Test
+    public void testRelease() {
+        ServiceThread serviceThread = ServiceThread.getServiceThreadInstance();
+        ServiceThread.releaseServiceThreadInstance();
+        Assert.assertNotSame(serviceThread, ServiceThread.getServiceThreadInstance());
+    }
+
+    @Test
+    public void testAccountingSampleRate() {
+        ServiceSession session = new ServiceSession(UUID.randomUUID());
+        try {
+            System.setProperty(SystemProperties.Service.THREAD_ACCOUNTING_SAMPLE_RATE, "0");
+            ServiceThread.getServiceThreadInstance().setSession(session);
+            Assert.assertFalse(ServiceThread.getServiceThreadInstance().isAccounted());
+            Assert.assertNull(ServiceThread.getServiceThreadInstance().getAccumulatedTime());
+
+            System.setProperty(SystemProperties.Service.THREAD_ACCOUNTING_SAMPLE_RATE, "1");
+            ServiceThread.getServiceThreadInstance().setSession(session);
+            Assert.assertTrue(ServiceThread.getServiceThreadInstance().isAccounted());
+            Assert.assertNotNull(ServiceThread.getServiceThreadInstance().getAccumulatedTime());
+        } finally {
+            ServiceThread.releaseServiceThreadInstance();
+        }
+    }
+
+    @Test
+    public void testLazyThreadState() {
+        ServiceSession session = new ServiceSession(UUID.randomUUID());
+        try {
+            ServiceThread.getServiceThreadInstance().setSession(session);
+            Assert.assertTrue(session.getProperties().isEmpty());
+            Assert.assertTrue(session.getLayerStack().isEmpty());
+            Assert.assertNull(session.getCurrentLayer());
+            Assert.assertNull(session.get("property"));
+
+            session.put("property", "value");
+            Assert.assertEquals("value", session.get("property"));
+            Assert.assertEquals("value", session.remove("property"));
+            Assert.assertNull(session.get("property"));
+        } finally {
+            ServiceThread.releaseServiceThreadInstance();
+        }
+    }
+
+    public static class CustomServiceThread extends ServiceThread {
+
+        public CustomServiceThread() {
+        }
+
+        public CustomServiceThread(ServiceThread serviceThread) {
+            super(serviceThread);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.hcjf.service;
+
+import org.hcjf.errors.HCJFThreadBudgetExceededException;
+import org.hcjf.properties.SystemProperties;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @author javaito
+ */
+public class ThreadBudgetTest {
+
+    private static final int MAX_ALLOCATED_MEMORY = 1024 * 1024;
+
+    @Before
+    public void setUp() {
+        System.setProperty(SystemProperties.Service.THREAD_BUDGET_ENABLED, "true");
+        System.setProperty(SystemProperties.Service.MAX_ALLOCATED_MEMORY_EXPRESSED_IN_PERCENTAGE, "false");
+        System.setProperty(SystemProperties.Service.MAX_ALLOCATED_MEMORY_FOR_THREAD, Integer.toString(MAX_ALLOCATED_MEMORY));
+    }
+
+    @After
+    public void tearDown() {
+        System.setProperty(SystemProperties.Service.THREAD_BUDGET_ENABLED, "false");
+        System.setProperty(SystemProperties.Service.MAX_ALLOCATED_MEMORY_EXPRESSED_IN_PERCENTAGE, "true");
+        System.setProperty(SystemProperties.Service.MAX_ALLOCATED_MEMORY_FOR_THREAD, "15");
+        System.setProperty(SystemProperties.Service.MAX_ALLOCATED_MEMORY_EXCEEDED_THROWS_EXCEPTION, "false");
+    }
+
+    @Test
+    public void testMemoryExceededThrowsException() throws Exception {
+        System.setProperty(SystemProperties.Service.MAX_ALLOCATED_MEMORY_EXCEEDED_THROWS_EXCEPTION, "true");
+        long breaches = ThreadBudget.getMemoryBreaches();
+        Boolean exceeded = runInThread(() -> {
+            ServiceThread.getServiceThreadInstance();
+            List<byte[]> memory = allocate();
+            try {
+                ServiceThread.checkInterruptedThread();
+                return false;
+            } catch (HCJFThreadBudgetExceededException ex) {
+                return memory.size() > 0;
+            }
+        });
+        Assert.assertTrue(exceeded);
+        Assert.assertEquals(breaches + 1, ThreadBudget.getMemoryBreaches());
+    }
+
+    @Test
+    public void testMemoryExceededInterruptsThread() throws Exception {
+        long breaches = ThreadBudget.getMemoryBreaches();
+        Boolean interrupted = runInThread(() -> {
+            ServiceThread.getServiceThreadInstance();
+            List<byte[]> memory = allocate();
+            try {
+                ServiceThread.checkInterruptedThread();
+                return false;
+            } catch (InterruptedException ex) {
+                return memory.size() > 0;
+            }
+        });
+        Assert.assertTrue(interrupted);
+        Assert.assertEquals(breaches + 1, ThreadBudget.getMemoryBreaches());
+    }
+
+    @Test
+    public void testExecutionTimeExceededOnVirtualThread() throws Exception {
+        System.setProperty(SystemProperties.Service.MAX_EXECUTION_TIME_FOR_THREAD, Long.toString(10 * 1000 * 1000));
+        System.setProperty(SystemProperties.Service.MAX_EXECUTION_TIME_EXCEEDED_THROWS_EXCEPTION, "true");
+        long breaches = ThreadBudget.getExecutionTimeBreaches();
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Boolean exceeded = executorService.submit(() -> {
+                ServiceThread.getServiceThreadInstance();
+                ServiceThread.checkInterruptedThread();
+                Thread.sleep(50);
+                try {
+                    ServiceThread.checkInterruptedThread();
+                    return false;
+                } catch (HCJFThreadBudgetExceededException ex) {
+                    return true;
+                }
+            }).get();
+            Assert.assertTrue(exceeded);
+            Assert.assertEquals(breaches + 1, ThreadBudget.getExecutionTimeBreaches());
+        } finally {
+            executorService.shutdown();
+            System.setProperty(SystemProperties.Service.MAX_EXECUTION_TIME_FOR_THREAD, Long.toString(10L * 1000 * 1000 * 1000));
+            System.setProperty(SystemProperties.Service.MAX_EXECUTION_TIME_EXCEEDED_THROWS_EXCEPTION, "false");
+        }
+    }
+
+    @Test
+    public void testBudgetDisabled() throws Exception {
+        System.setProperty(SystemProperties.Service.THREAD_BUDGET_ENABLED, "false");
+        long breaches = ThreadBudget.getMemoryBreaches();
+        Boolean passed = runInThread(() -> {
+            ServiceThread.getServiceThreadInstance();
+            List<byte[]> memory = allocate();
+            ServiceThread.checkInterruptedThread();
+            return memory.size() > 0;
+        });
+        Assert.assertTrue(passed);
+        Assert.assertEquals(breaches, ThreadBudget.getMemoryBreaches());
+    }
+
+    private static List<byte[]> allocate() {
+        List<byte[]> result = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            result.add(new byte[MAX_ALLOCATED_MEMORY]);
+        }
+        return result;
+    }
+
+    /**
+     * The allocated memory is only supported for platform threads.
+     */
+    private static <O> O runInThread(Callable<O> callable) throws Exception {
+        ExecutorService executorService = Executors.newThreadPerTaskExecutor(Thread.ofPlatform().factory());
+        try {
+            return executorService.submit(callable).get();
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
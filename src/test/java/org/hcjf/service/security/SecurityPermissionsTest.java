@@ -0,0 +1,81 @@
+package org.hcjf.service.security;
+
+import org.hcjf.service.ServiceSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @author javaito
+ */
+public class SecurityPermissionsTest {
+
+    @Test
+    public void testGrantIndex() {
+        SecurityPermissions.SecurityPermission read = SecurityPermissions.publishPermission(
+                SecurityPermissionsTest.class, "read", "Read", "Read permission", List.of());
+        SecurityPermissions.SecurityPermission write = SecurityPermissions.publishPermission(
+                SecurityPermissionsTest.class, "write", "Write", "Write permission", List.of());
+        Assert.assertNotEquals(Grants.getOrdinal(read.getGrant()), Grants.getOrdinal(write.getGrant()));
+        //The ordinal is a local index, then it's not serialized with the grant.
+        Assert.assertFalse(read.getGrant().toBson().hasElement("ordinal"));
+
+        ServiceSession session = new ServiceSession(UUID.randomUUID());
+        session.addGrant(read.getGrant());
+        Assert.assertTrue(session.containsGrant(read.getName()));
+        Assert.assertTrue(session.containsGrant(read.getGrant()));
+        Assert.assertFalse(session.containsGrant(write.getName()));
+        Assert.assertFalse(session.containsGrant(write.getGrant()));
+
+        //The published again permission keeps the ordinal
+        SecurityPermissions.SecurityPermission readAgain = SecurityPermissions.publishPermission(
+                SecurityPermissionsTest.class, "read", "Read", "Read permission", List.of());
+        Assert.assertEquals(read.getGrant(), readAgain.getGrant());
+        Assert.assertEquals(read.getGrant().hashCode(), readAgain.getGrant().hashCode());
+        Assert.assertTrue(session.containsGrant(readAgain.getGrant()));
+
+        session.removeGrant(readAgain.getGrant());
+        Assert.assertFalse(session.containsGrant(read.getName()));
+        Assert.assertFalse(session.containsGrant(read.getGrant()));
+        Assert.assertTrue(session.getGrants().isEmpty());
+    }
+
+    @Test
+    public void testCheckPermission() {
+        SecurityPermissions.SecurityPermission execute = SecurityPermissions.publishPermission(
+                SecurityPermissionsTest.class, "execute", "Execute", "Execute permission", List.of());
+        ServiceSession session = new ServiceSession(UUID.randomUUID());
+        ServiceSession.runAs(() -> {
+            try {
+                SecurityPermissions.checkPermission(SecurityPermissionsTest.class, "execute");
+                Assert.fail("Permission granted without grant");
+            } catch (SecurityException ex) {
+            }
+            session.addGrant(execute.getGrant());
+            SecurityPermissions.checkPermission(SecurityPermissionsTest.class, "execute");
+        }, session);
+    }
+
+    @Test
+    public void testPermissionHandle() {
+        Assert.assertNull(SecurityPermissions.getPermission(SecurityPermissionsTest.class, "delete"));
+        SecurityPermissions.checkPermission(SecurityPermissionsTest.class, "delete");
+
+        SecurityPermissions.SecurityPermission delete = SecurityPermissions.publishPermission(
+                SecurityPermissionsTest.class, "delete", "Delete", "Delete permission", List.of());
+        Assert.assertSame(delete, SecurityPermissions.getPermission(SecurityPermissionsTest.class, "delete"));
+        ServiceSession session = new ServiceSession(UUID.randomUUID());
+        session.addGrant(delete.getGrant());
+        ServiceSession.runAs(() -> SecurityPermissions.checkPermission(delete), session);
+        session.removeGrant(delete.getGrant());
+        ServiceSession.runAs(() -> {
+            try {
+                SecurityPermissions.checkPermission(delete);
+                Assert.fail("Permission granted without grant");
+            } catch (SecurityException ex) {
+            }
+        }, session);
+    }
+}
@@ -0,0 +1,43 @@
+package org.hcjf.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author javaito
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        Assert.assertEquals(100000, histogram.getCount());
+        Assert.assertEquals(100000000L, histogram.getMax());
+        assertRelativeError(50000000L, histogram.getPercentile(50));
+        assertRelativeError(99000000L, histogram.getPercentile(99));
+        assertRelativeError(99900000L, histogram.getPercentile(99.9));
+        assertRelativeError(50000500L, (long) histogram.getMean());
+    }
+
+    @Test
+    public void testSmallValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(-10);
+        Assert.assertEquals(0, histogram.getPercentile(50));
+        Assert.assertEquals(1, histogram.getPercentile(100));
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(99));
+    }
+
+    private void assertRelativeError(long expected, long value) {
+        Assert.assertTrue("Expected " + expected + " but was " + value,
+                Math.abs(expected - value) / (double) expected < 0.05);
+    }
+}